@@ -1,6 +1,11 @@
 package com.expenses;
 
 import com.expenses.config.DatabaseConfig;
+import com.expenses.service.DataService;
+import com.expenses.service.EmailDispatcher;
+import com.expenses.service.export.ExportService;
+import com.expenses.service.security.PasswordHasher;
+import com.expenses.service.security.RecoveryTokenSweeper;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -21,6 +26,13 @@ public class MyExpensesApplication extends Application {
         try {
             // Inicializa o banco de dados
             DatabaseConfig.initDatabase();
+
+            // Mede o custo do BCrypt em segundo plano enquanto a tela de login carrega
+            PasswordHasher.getInstance().calibrate();
+            RecoveryTokenSweeper.start();
+
+            // Retoma o envio dos emails que ficaram na fila
+            EmailDispatcher.getInstance();
             
             // Carrega a tela de login
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/login.fxml"));
@@ -56,6 +68,17 @@ public class MyExpensesApplication extends Application {
         }
     }
 
+    @Override
+    public void stop() {
+        // Para as consultas em segundo plano antes de fechar as conexões do pool
+        RecoveryTokenSweeper.shutdown();
+        EmailDispatcher.shutdown();
+        ExportService.shutdown();
+        DataService.shutdown();
+        PasswordHasher.shutdown();
+        DatabaseConfig.shutdown();
+    }
+
     public static void main(String[] args) {
         launch(args);
     }
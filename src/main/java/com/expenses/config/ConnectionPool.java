@@ -0,0 +1,407 @@
+package com.expenses.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pool de conexões SQLite com uma conexão dedicada de escrita e até N conexões de leitura.
+ * <p>
+ * As conexões físicas são abertas uma única vez, recebem os PRAGMAs na abertura e são
+ * reutilizadas. O {@link Connection#close()} das conexões entregues apenas devolve a
+ * conexão ao pool. A conexão de escrita é reentrante e deve ser fechada pela mesma
+ * thread que a obteve; o close em outra thread lança {@link IllegalStateException} e a
+ * conexão continua com a dona. Conexões de leitura obtidas dentro de um {@link QueryCancellation}
+ * podem ter as consultas canceladas por outra thread.
+ */
+public class ConnectionPool {
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionPool.class);
+
+    private static final long VALIDATION_IDLE_MILLIS = 30_000;
+    private static final long HOUSEKEEPING_INTERVAL_SECONDS = 30;
+
+    private final StorageProfile profile;
+    private final String url;
+    private final int maxReaders;
+    private final long acquireTimeoutMillis;
+    private final long leakThresholdMillis;
+
+    private final ReentrantLock writerLock = new ReentrantLock(true);
+    private PhysicalConnection writer;
+
+    private final BlockingQueue<PhysicalConnection> idleReaders;
+    private final AtomicInteger openReaders = new AtomicInteger();
+    private final Set<Lease> activeLeases = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    public ConnectionPool(StorageProfile profile) throws SQLException {
+        this.profile = profile;
+        this.url = profile.getJdbcUrl();
+        this.maxReaders = profile.getMaxReaders();
+        this.acquireTimeoutMillis = profile.getAcquireTimeoutMillis();
+        this.leakThresholdMillis = profile.getLeakThresholdMillis();
+
+        // A conexão de escrita é aberta primeiro para definir o journal_mode antes de qualquer leitura
+        this.writer = open(false);
+
+        this.idleReaders = new ArrayBlockingQueue<>(maxReaders);
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        housekeeper.scheduleWithFixedDelay(this::housekeeping,
+            HOUSEKEEPING_INTERVAL_SECONDS, HOUSEKEEPING_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        logger.info("Connection pool created for {} (1 writer, up to {} readers)", url, maxReaders);
+    }
+
+    /**
+     * Obtém a conexão de escrita. Bloqueia até que esteja livre ou o timeout expire.
+     */
+    public Connection getWriteConnection() throws SQLException {
+        ensureOpen();
+        try {
+            if (!writerLock.tryLock(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Timeout aguardando a conexão de escrita (" + acquireTimeoutMillis + " ms)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrompido aguardando a conexão de escrita", e);
+        }
+
+        try {
+            if (writerLock.getHoldCount() == 1) {
+                writer = validate(writer, false);
+            }
+            return lease(writer, true);
+        } catch (SQLException | RuntimeException e) {
+            writerLock.unlock();
+            throw e;
+        }
+    }
+
+    /**
+     * Obtém uma conexão somente leitura, abrindo uma nova enquanto o limite não for atingido.
+     */
+    public Connection getReadConnection() throws SQLException {
+        ensureOpen();
+        PhysicalConnection physical = idleReaders.poll();
+        if (physical == null && openReaders.incrementAndGet() > maxReaders) {
+            openReaders.decrementAndGet();
+            try {
+                physical = idleReaders.poll(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrompido aguardando conexão de leitura", e);
+            }
+            if (physical == null) {
+                throw new SQLException("Timeout aguardando conexão de leitura (" + acquireTimeoutMillis + " ms)");
+            }
+        }
+
+        try {
+            physical = validate(physical, true);
+        } catch (SQLException | RuntimeException e) {
+            openReaders.decrementAndGet();
+            throw e;
+        }
+        return lease(physical, false);
+    }
+
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        housekeeper.shutdownNow();
+
+        if (!activeLeases.isEmpty()) {
+            logger.warn("Closing pool with {} connection(s) still in use", activeLeases.size());
+        }
+
+        PhysicalConnection reader;
+        while ((reader = idleReaders.poll()) != null) {
+            reader.closeQuietly();
+        }
+        if (writer != null) {
+            writer.closeQuietly();
+        }
+        logger.info("Connection pool closed");
+    }
+
+    public int getActiveCount() {
+        return activeLeases.size();
+    }
+
+    public int getOpenReaderCount() {
+        return openReaders.get();
+    }
+
+    /**
+     * Aplicado uma única vez a cada conexão física recém-aberta.
+     */
+    protected void configure(Connection connection, boolean readOnly) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            if (!readOnly) {
+                stmt.execute(profile.journalModePragma());
+            }
+            for (String pragma : profile.connectionPragmas()) {
+                stmt.execute(pragma);
+            }
+            if (readOnly) {
+                stmt.execute("PRAGMA query_only = 1");
+            }
+        }
+    }
+
+    private void ensureOpen() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+    }
+
+    private PhysicalConnection open(boolean readOnly) throws SQLException {
+        Connection raw = DriverManager.getConnection(url);
+        try {
+            configure(raw, readOnly);
+        } catch (SQLException e) {
+            raw.close();
+            throw e;
+        }
+        logger.debug("Opened new {} connection", readOnly ? "read" : "write");
+        return new PhysicalConnection(raw, readOnly);
+    }
+
+    /**
+     * Reabre a conexão se ela não existir ou se falhar no health check após ficar ociosa.
+     */
+    private PhysicalConnection validate(PhysicalConnection physical, boolean readOnly) throws SQLException {
+        if (physical == null) {
+            return open(readOnly);
+        }
+        boolean idleTooLong = System.currentTimeMillis() - physical.lastUsed > VALIDATION_IDLE_MILLIS;
+        if (physical.broken || (idleTooLong && !physical.isHealthy())) {
+            logger.warn("Discarding broken {} connection", readOnly ? "read" : "write");
+            physical.closeQuietly();
+            return open(readOnly);
+        }
+        return physical;
+    }
+
+    private Connection lease(PhysicalConnection physical, boolean write) {
+        Lease lease = new Lease(physical, write);
+        activeLeases.add(lease);
+        return (Connection) Proxy.newProxyInstance(
+            ConnectionPool.class.getClassLoader(),
+            new Class<?>[]{Connection.class},
+            lease
+        );
+    }
+
+    private void release(Lease lease) {
+        activeLeases.remove(lease);
+        PhysicalConnection physical = lease.physical;
+        physical.lastUsed = System.currentTimeMillis();
+
+        if (lease.write) {
+            if (writerLock.getHoldCount() == 1) {
+                physical.resetState();
+            }
+            writerLock.unlock();
+            return;
+        }
+
+        physical.resetState();
+        if (closed || physical.broken || !idleReaders.offer(physical)) {
+            physical.closeQuietly();
+            openReaders.decrementAndGet();
+        }
+    }
+
+    private void housekeeping() {
+        long now = System.currentTimeMillis();
+        for (Lease lease : activeLeases) {
+            if (!lease.leakReported && now - lease.borrowedAt > leakThresholdMillis) {
+                lease.leakReported = true;
+                logger.warn("Possible connection leak: {} connection held for {} ms by thread {}",
+                    lease.write ? "write" : "read", now - lease.borrowedAt, lease.ownerThread, lease.origin);
+            }
+        }
+
+        // Health check das leituras ociosas
+        int idle = idleReaders.size();
+        for (int i = 0; i < idle; i++) {
+            PhysicalConnection reader = idleReaders.poll();
+            if (reader == null) {
+                break;
+            }
+            if (now - reader.lastUsed > VALIDATION_IDLE_MILLIS && !reader.isHealthy()) {
+                reader.closeQuietly();
+                openReaders.decrementAndGet();
+            } else if (!idleReaders.offer(reader)) {
+                reader.closeQuietly();
+                openReaders.decrementAndGet();
+            }
+        }
+    }
+
+    private static final class PhysicalConnection {
+        private final Connection raw;
+        private final boolean readOnly;
+        private volatile long lastUsed = System.currentTimeMillis();
+        private volatile boolean broken;
+
+        private PhysicalConnection(Connection raw, boolean readOnly) {
+            this.raw = raw;
+            this.readOnly = readOnly;
+        }
+
+        private boolean isHealthy() {
+            try {
+                return !raw.isClosed() && raw.isValid(1);
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        /**
+         * Desfaz transações esquecidas abertas antes de devolver a conexão ao pool.
+         */
+        private void resetState() {
+            try {
+                if (!raw.getAutoCommit()) {
+                    logger.warn("Rolling back uncommitted transaction on {} connection", readOnly ? "read" : "write");
+                    raw.rollback();
+                    raw.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                logger.error("Error resetting pooled connection", e);
+                broken = true;
+            }
+        }
+
+        private void closeQuietly() {
+            broken = true;
+            try {
+                raw.close();
+            } catch (SQLException e) {
+                logger.debug("Error closing pooled connection", e);
+            }
+        }
+    }
+
+    private final class Lease implements InvocationHandler {
+        private final PhysicalConnection physical;
+        private final boolean write;
+        private final long borrowedAt = System.currentTimeMillis();
+        private final String ownerThread = Thread.currentThread().getName();
+        private final Throwable origin;
+        private final QueryCancellation cancellation;
+        private final Runnable canceller = this::cancelStatements;
+        private final List<Statement> statements = new ArrayList<>();
+        private volatile boolean released;
+        private volatile boolean leakReported;
+
+        private Lease(PhysicalConnection physical, boolean write) {
+            this.physical = physical;
+            this.write = write;
+            this.origin = logger.isDebugEnabled() ? new Throwable("Connection acquired here") : null;
+            // Só leituras são canceladas; uma escrita interrompida no meio deixaria o chamador sem saber o que gravou
+            this.cancellation = write ? null : QueryCancellation.current();
+            if (cancellation != null) {
+                cancellation.register(canceller);
+            }
+        }
+
+        /**
+         * Cancela os statements desta conexão enquanto ela ainda pertence ao lease; depois de
+         * devolvida ao pool, a conexão pode estar servindo outra tarefa.
+         */
+        private synchronized void cancelStatements() {
+            if (released) {
+                return;
+            }
+            for (Statement statement : statements) {
+                try {
+                    statement.cancel();
+                } catch (SQLException e) {
+                    logger.debug("Error cancelling statement", e);
+                }
+            }
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (write && !released && !writerLock.isHeldByCurrentThread()) {
+                        // O lock só pode ser liberado pela dona; devolver aqui prenderia a escrita para sempre
+                        throw new IllegalStateException("Write connection acquired by thread " + ownerThread
+                            + " cannot be closed by thread " + Thread.currentThread().getName());
+                    }
+                    if (markReleased()) {
+                        release(this);
+                    }
+                    return null;
+                case "isClosed":
+                    return released || physical.raw.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + (write ? "write" : "read") + "]";
+                default:
+                    break;
+            }
+
+            if (released) {
+                throw new SQLException("Connection already returned to the pool");
+            }
+            Object result;
+            try {
+                result = method.invoke(physical.raw, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (cancellation != null && result instanceof Statement statement) {
+                synchronized (this) {
+                    statements.add(statement);
+                }
+            }
+            return result;
+        }
+
+        private synchronized boolean markReleased() {
+            if (released) {
+                return false;
+            }
+            released = true;
+            statements.clear();
+            if (cancellation != null) {
+                cancellation.unregister(canceller);
+            }
+            return true;
+        }
+    }
+}
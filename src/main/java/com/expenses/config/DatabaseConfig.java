@@ -1,23 +1,101 @@
 package com.expenses.config;
 
+import com.expenses.config.migration.MigrationRunner;
+import com.expenses.config.migration.QueryPlanVerifier;
+import com.expenses.config.migration.SchemaMigrations;
+import com.expenses.config.migration.SchemaValidator;
+import com.expenses.service.security.PasswordHasher;
+
 import java.sql.Connection;
-import java.sql.DriverManager;
-import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
-import at.favre.lib.crypto.bcrypt.BCrypt;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class DatabaseConfig {
     private static final Logger logger = LoggerFactory.getLogger(DatabaseConfig.class);
-    private static final String DB_URL = "jdbc:sqlite:myexpenses.db";
-    
+
+    private static StorageProfile profile;
+    private static ConnectionPool pool;
+    private static volatile SchemaValidator.Report schemaReport;
+
+    public static synchronized StorageProfile getStorageProfile() {
+        if (profile == null) {
+            profile = StorageProfile.load();
+        }
+        return profile;
+    }
+
+    private static synchronized ConnectionPool getPool() throws SQLException {
+        if (pool == null) {
+            pool = new ConnectionPool(getStorageProfile());
+        }
+        return pool;
+    }
+
+    /**
+     * Conexão de escrita compartilhada. Deve ser usada em try-with-resources; o close devolve ao pool.
+     */
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(DB_URL);
+        return getPool().getWriteConnection();
+    }
+
+    /**
+     * Conexão somente leitura do pool, para consultas que não alteram dados.
+     */
+    public static Connection getReadConnection() throws SQLException {
+        return getPool().getReadConnection();
+    }
+
+    /**
+     * Resultado da validação do schema feita em {@link #initDatabase()}, ou null antes dela.
+     */
+    public static SchemaValidator.Report getSchemaReport() {
+        return schemaReport;
+    }
+
+    public static synchronized void shutdown() {
+        if (pool != null) {
+            pool.close();
+            pool = null;
+        }
     }
     
+    /**
+     * Registra no log os PRAGMAs efetivamente aplicados, comparando com o perfil configurado.
+     */
+    private static void logStorageReport(Connection conn) throws SQLException {
+        StorageProfile storage = getStorageProfile();
+        StringBuilder report = new StringBuilder("Storage profile report:");
+        report.append("\n  source        : ").append(storage.getSource());
+        report.append("\n  database      : ").append(storage.getDatabasePath());
+
+        String journalMode = "?";
+        try (Statement stmt = conn.createStatement()) {
+            for (String pragma : new String[]{"journal_mode", "synchronous", "cache_size", "mmap_size",
+                    "temp_store", "busy_timeout", "page_size", "page_count", "freelist_count"}) {
+                try (ResultSet rs = stmt.executeQuery("PRAGMA " + pragma)) {
+                    String value = rs.next() ? rs.getString(1) : "-";
+                    report.append(String.format("%n  %-14s: %s", pragma, value));
+                    if ("journal_mode".equals(pragma)) {
+                        journalMode = value;
+                    }
+                }
+            }
+            try (ResultSet rs = stmt.executeQuery("SELECT sqlite_version()")) {
+                if (rs.next()) {
+                    report.append("\n  sqlite        : ").append(rs.getString(1));
+                }
+            }
+        }
+        logger.info(report.toString());
+
+        if (!storage.getJournalMode().name().equalsIgnoreCase(journalMode)) {
+            logger.warn("Requested journal_mode {} but database is using {}", storage.getJournalMode(), journalMode);
+        }
+    }
+
     private static void createAdminUser(Connection conn) throws SQLException {
         // Verifica se já existe um admin
         try (Statement checkStmt = conn.createStatement()) {
@@ -34,76 +112,37 @@ public class DatabaseConfig {
         """;
         
         try (var stmt = conn.prepareStatement(sql)) {
-            String hashedPassword = BCrypt.withDefaults().hashToString(12, "admin123".toCharArray());
+            String hashedPassword = PasswordHasher.getInstance().hash("admin123");
             
             stmt.setString(1, "Administrador");
             stmt.setString(2, "admin@myexpenses.com");
             stmt.setString(3, hashedPassword);
             stmt.setString(4, "ADMIN");
             stmt.executeUpdate();
-            logger.info("Admin user created successfully with password hash: {}", hashedPassword);
+            logger.info("Admin user created successfully");
         }
     }
     
     public static void initDatabase() {
-        try (Connection conn = getConnection();
-             Statement stmt = conn.createStatement()) {
-            
-            // Criar tabela de usuários
-            stmt.execute("""
-                CREATE TABLE IF NOT EXISTS users (
-                    id INTEGER PRIMARY KEY AUTOINCREMENT,
-                    name VARCHAR(100) NOT NULL,
-                    email VARCHAR(100) NOT NULL UNIQUE,
-                    password VARCHAR(100) NOT NULL,
-                    role VARCHAR(20) NOT NULL DEFAULT 'USER',
-                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
-                )
-            """);
-            
-            // Adiciona colunas para recuperação de senha se não existirem
-            try (Statement stmt2 = conn.createStatement()) {
-                DatabaseMetaData meta = conn.getMetaData();
-                ResultSet rs = meta.getColumns(null, null, "users", "recovery_token");
-                
-                if (!rs.next()) {
-                    stmt2.execute("ALTER TABLE users ADD COLUMN recovery_token TEXT");
-                    stmt2.execute("ALTER TABLE users ADD COLUMN recovery_token_expiry TIMESTAMP");
-                    logger.info("Added recovery token columns to users table");
-                }
-            }
-            
+        try (Connection conn = getConnection()) {
+
+            logStorageReport(conn);
+
+            // Aplica as migrações pendentes do schema
+            int version = new MigrationRunner(SchemaMigrations.all()).migrate(conn);
+            logger.info("Database schema at version {}", version);
+
+            // Valida as colunas uma vez; o resultado fica em getSchemaReport()
+            schemaReport = new SchemaValidator().validateAndLog(conn);
+
             // Criar usuário admin
             createAdminUser(conn);
-            
-            // Criar tabela de categorias
-            stmt.execute("""
-                CREATE TABLE IF NOT EXISTS categories (
-                    id INTEGER PRIMARY KEY AUTOINCREMENT,
-                    name VARCHAR(50) NOT NULL,
-                    description VARCHAR(200),
-                    user_id INTEGER,
-                    FOREIGN KEY (user_id) REFERENCES users(id)
-                )
-            """);
-            
-            // Criar tabela de despesas
-            stmt.execute("""
-                CREATE TABLE IF NOT EXISTS expenses (
-                    id INTEGER PRIMARY KEY AUTOINCREMENT,
-                    description VARCHAR(200) NOT NULL,
-                    amount DECIMAL(10,2) NOT NULL,
-                    date DATE NOT NULL,
-                    category_id INTEGER,
-                    user_id INTEGER,
-                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                    FOREIGN KEY (category_id) REFERENCES categories(id),
-                    FOREIGN KEY (user_id) REFERENCES users(id)
-                )
-            """);
-            
+
+            // Confere se as consultas principais usam os índices
+            new QueryPlanVerifier().verifyAndLog(conn);
+
             logger.info("Database initialized successfully");
-            
+
         } catch (SQLException e) {
             logger.error("Error initializing database", e);
             throw new RuntimeException("Failed to initialize database", e);
@@ -0,0 +1,55 @@
+package com.expenses.config;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Permite cancelar as consultas que uma tarefa em segundo plano está executando.
+ * <p>
+ * A tarefa entra no escopo com {@link #enter()} na thread em que roda; as conexões de leitura
+ * obtidas do {@link ConnectionPool} enquanto o escopo está ativo se registram nele. Um
+ * {@link #cancel()} vindo de outra thread cancela os statements abertos dessas conexões, e a
+ * consulta em andamento termina com {@link java.sql.SQLException} em vez de rodar até o fim.
+ * Conexões já devolvidas ao pool não são afetadas.
+ */
+public final class QueryCancellation {
+    private static final ThreadLocal<QueryCancellation> current = new ThreadLocal<>();
+
+    private final Set<Runnable> cancellers = ConcurrentHashMap.newKeySet();
+    private volatile boolean cancelled;
+
+    public void enter() {
+        current.set(this);
+    }
+
+    public void exit() {
+        current.remove();
+        cancellers.clear();
+    }
+
+    public void cancel() {
+        cancelled = true;
+        for (Runnable canceller : cancellers) {
+            canceller.run();
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    static QueryCancellation current() {
+        return current.get();
+    }
+
+    void register(Runnable canceller) {
+        cancellers.add(canceller);
+        if (cancelled) {
+            canceller.run();
+        }
+    }
+
+    void unregister(Runnable canceller) {
+        cancellers.remove(canceller);
+    }
+}
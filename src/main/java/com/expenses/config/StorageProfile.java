@@ -0,0 +1,185 @@
+package com.expenses.config;
+
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Perfil de armazenamento do banco SQLite (journal, sincronização, cache e pool).
+ * <p>
+ * Os valores padrão vêm de {@code /database.properties} no classpath e podem ser
+ * sobrescritos por {@code myexpenses.properties} no diretório de trabalho ou pelo
+ * arquivo indicado na propriedade de sistema {@code myexpenses.config}.
+ */
+@Getter
+public class StorageProfile {
+    private static final Logger logger = LoggerFactory.getLogger(StorageProfile.class);
+
+    public static final String DEFAULTS_RESOURCE = "/database.properties";
+    public static final String OVERRIDE_FILE = "myexpenses.properties";
+    public static final String CONFIG_PROPERTY = "myexpenses.config";
+
+    public enum JournalMode { WAL, DELETE, TRUNCATE, PERSIST }
+
+    public enum Synchronous { OFF, NORMAL, FULL, EXTRA }
+
+    public enum TempStore { DEFAULT, FILE, MEMORY }
+
+    private final String databasePath;
+    private final JournalMode journalMode;
+    private final Synchronous synchronous;
+    private final int cacheSizeKb;
+    private final long mmapSizeBytes;
+    private final TempStore tempStore;
+    private final int busyTimeoutMillis;
+    private final int maxReaders;
+    private final long acquireTimeoutMillis;
+    private final long leakThresholdMillis;
+    private final String source;
+
+    private StorageProfile(Properties props, String source) {
+        List<String> errors = new ArrayList<>();
+
+        this.source = source;
+        this.databasePath = props.getProperty("db.path", "myexpenses.db").trim();
+        if (databasePath.isEmpty()) {
+            errors.add("db.path não pode ser vazio");
+        }
+        this.journalMode = parseEnum(props, "db.journal_mode", JournalMode.class, JournalMode.WAL, errors);
+        this.synchronous = parseEnum(props, "db.synchronous", Synchronous.class, Synchronous.NORMAL, errors);
+        this.tempStore = parseEnum(props, "db.temp_store", TempStore.class, TempStore.MEMORY, errors);
+        this.cacheSizeKb = (int) parseLong(props, "db.cache_size_kb", 16_384, 512, 1_048_576, errors);
+        this.mmapSizeBytes = parseLong(props, "db.mmap_size_mb", 256, 0, 65_536, errors) * 1024 * 1024;
+        this.busyTimeoutMillis = (int) parseLong(props, "db.busy_timeout_ms", 5_000, 0, 600_000, errors);
+        this.maxReaders = (int) parseLong(props, "pool.max_readers",
+            Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors())), 1, 64, errors);
+        this.acquireTimeoutMillis = parseLong(props, "pool.acquire_timeout_ms", 10_000, 100, 600_000, errors);
+        this.leakThresholdMillis = parseLong(props, "pool.leak_threshold_ms", 60_000, 1_000, 3_600_000, errors);
+
+        if (synchronous == Synchronous.OFF) {
+            logger.warn("db.synchronous=OFF pode corromper o banco em caso de queda de energia");
+        }
+        if (journalMode != JournalMode.WAL && synchronous == Synchronous.NORMAL) {
+            logger.warn("db.synchronous=NORMAL só é seguro com db.journal_mode=WAL");
+        }
+
+        if (!errors.isEmpty()) {
+            throw new IllegalArgumentException(
+                "Configuração de armazenamento inválida (" + source + "): " + String.join("; ", errors));
+        }
+    }
+
+    /**
+     * Carrega o perfil combinando os padrões do classpath com o arquivo de configuração externo.
+     */
+    public static StorageProfile load() {
+        Properties props = new Properties();
+        List<String> sources = new ArrayList<>();
+
+        try (InputStream in = StorageProfile.class.getResourceAsStream(DEFAULTS_RESOURCE)) {
+            if (in != null) {
+                props.load(new InputStreamReader(in, StandardCharsets.UTF_8));
+                sources.add("classpath:" + DEFAULTS_RESOURCE);
+            }
+        } catch (IOException e) {
+            logger.warn("Não foi possível ler {}", DEFAULTS_RESOURCE, e);
+        }
+
+        String configured = System.getProperty(CONFIG_PROPERTY);
+        Path override = Paths.get(configured != null ? configured : OVERRIDE_FILE);
+        if (Files.isRegularFile(override)) {
+            try (Reader reader = Files.newBufferedReader(override, StandardCharsets.UTF_8)) {
+                props.load(reader);
+                sources.add(override.toAbsolutePath().toString());
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Não foi possível ler a configuração " + override, e);
+            }
+        } else if (configured != null) {
+            throw new IllegalArgumentException("Arquivo de configuração não encontrado: " + override);
+        }
+
+        return new StorageProfile(props, sources.isEmpty() ? "padrões internos" : String.join(" + ", sources));
+    }
+
+    public static StorageProfile fromProperties(Properties props) {
+        return new StorageProfile(props, "properties");
+    }
+
+    public String getJdbcUrl() {
+        return "jdbc:sqlite:" + databasePath;
+    }
+
+    /**
+     * PRAGMAs por conexão. O journal_mode é persistente no arquivo e aplicado apenas pela conexão de escrita.
+     */
+    public List<String> connectionPragmas() {
+        return List.of(
+            "PRAGMA busy_timeout = " + busyTimeoutMillis,
+            "PRAGMA synchronous = " + synchronous.name(),
+            "PRAGMA cache_size = -" + cacheSizeKb,
+            "PRAGMA mmap_size = " + mmapSizeBytes,
+            "PRAGMA temp_store = " + tempStore.name()
+        );
+    }
+
+    public String journalModePragma() {
+        return "PRAGMA journal_mode = " + journalMode.name();
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            "StorageProfile[path=%s, journal=%s, synchronous=%s, cache=%d KiB, mmap=%d MiB, temp_store=%s, "
+                + "busy_timeout=%d ms, readers=%d, source=%s]",
+            databasePath, journalMode, synchronous, cacheSizeKb, mmapSizeBytes / (1024 * 1024), tempStore,
+            busyTimeoutMillis, maxReaders, source
+        );
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Properties props, String key, Class<E> type, E defaultValue,
+                                                   List<String> errors) {
+        String value = props.getProperty(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            errors.add(key + "=" + value + " (valores aceitos: " + Arrays.toString(type.getEnumConstants()) + ")");
+            return defaultValue;
+        }
+    }
+
+    private static long parseLong(Properties props, String key, long defaultValue, long min, long max,
+                                  List<String> errors) {
+        String value = props.getProperty(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            long parsed = Long.parseLong(value.trim());
+            if (parsed < min || parsed > max) {
+                errors.add(key + "=" + parsed + " fora do intervalo [" + min + ", " + max + "]");
+                return defaultValue;
+            }
+            return parsed;
+        } catch (NumberFormatException e) {
+            errors.add(key + "=" + value + " não é um número");
+            return defaultValue;
+        }
+    }
+}
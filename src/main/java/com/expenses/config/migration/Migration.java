@@ -0,0 +1,74 @@
+package com.expenses.config.migration;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Uma alteração versionada do schema. As migrações são aplicadas em ordem de versão,
+ * cada uma dentro da sua própria transação.
+ */
+public abstract class Migration {
+    private final int version;
+    private final String description;
+
+    protected Migration(int version, String description) {
+        this.version = version;
+        this.description = description;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Executa a migração na conexão informada. A transação é controlada pelo {@link MigrationRunner}.
+     */
+    public abstract void apply(Connection conn) throws SQLException;
+
+    /**
+     * Conteúdo que identifica a migração. Qualquer alteração após aplicada é detectada pelo checksum.
+     */
+    protected abstract String checksumSource();
+
+    public String getChecksum() {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest((version + "|" + checksumSource()).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+
+    /**
+     * Migração composta apenas por comandos SQL.
+     */
+    public static Migration sql(int version, String description, String... statements) {
+        List<String> sql = List.of(statements);
+        return new Migration(version, description) {
+            @Override
+            public void apply(Connection conn) throws SQLException {
+                try (Statement stmt = conn.createStatement()) {
+                    for (String statement : sql) {
+                        stmt.execute(statement);
+                    }
+                }
+            }
+
+            @Override
+            protected String checksumSource() {
+                return String.join(";\n", sql.stream().map(String::strip).toList());
+            }
+        };
+    }
+}
@@ -0,0 +1,127 @@
+package com.expenses.config.migration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aplica as migrações pendentes registrando cada versão na tabela {@code schema_version}.
+ * <p>
+ * Migrações já aplicadas têm o checksum conferido; uma divergência indica que uma migração
+ * publicada foi editada e interrompe a inicialização.
+ */
+public class MigrationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(MigrationRunner.class);
+
+    private final List<Migration> migrations;
+
+    public MigrationRunner(List<Migration> migrations) {
+        this.migrations = migrations.stream()
+            .sorted(Comparator.comparingInt(Migration::getVersion))
+            .toList();
+
+        for (int i = 1; i < this.migrations.size(); i++) {
+            if (this.migrations.get(i).getVersion() == this.migrations.get(i - 1).getVersion()) {
+                throw new IllegalArgumentException("Versão de migração duplicada: " + this.migrations.get(i).getVersion());
+            }
+        }
+    }
+
+    /**
+     * Aplica as migrações pendentes e retorna a versão final do schema.
+     */
+    public int migrate(Connection conn) throws SQLException {
+        createVersionTable(conn);
+        Map<Integer, String> applied = loadAppliedVersions(conn);
+
+        for (Migration migration : migrations) {
+            String checksum = migration.getChecksum();
+            String appliedChecksum = applied.get(migration.getVersion());
+
+            if (appliedChecksum != null) {
+                if (!appliedChecksum.equals(checksum)) {
+                    throw new IllegalStateException(String.format(
+                        "Checksum da migração %d (%s) difere do aplicado no banco",
+                        migration.getVersion(), migration.getDescription()
+                    ));
+                }
+                continue;
+            }
+
+            apply(conn, migration, checksum);
+        }
+
+        int maxKnown = migrations.isEmpty() ? 0 : migrations.get(migrations.size() - 1).getVersion();
+        int current = applied.keySet().stream().mapToInt(Integer::intValue).max().orElse(0);
+        if (current > maxKnown) {
+            logger.warn("Database schema version {} is newer than the application ({})", current, maxKnown);
+        }
+        return Math.max(current, maxKnown);
+    }
+
+    private void apply(Connection conn, Migration migration, String checksum) throws SQLException {
+        logger.info("Applying migration {}: {}", migration.getVersion(), migration.getDescription());
+        long start = System.nanoTime();
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+
+        try {
+            migration.apply(conn);
+
+            String sql = """
+                INSERT INTO schema_version (version, description, checksum, execution_ms)
+                VALUES (?, ?, ?, ?)
+            """;
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, migration.getVersion());
+                stmt.setString(2, migration.getDescription());
+                stmt.setString(3, checksum);
+                stmt.setLong(4, (System.nanoTime() - start) / 1_000_000);
+                stmt.executeUpdate();
+            }
+
+            conn.commit();
+            logger.info("Migration {} applied in {} ms", migration.getVersion(), (System.nanoTime() - start) / 1_000_000);
+        } catch (SQLException | RuntimeException e) {
+            conn.rollback();
+            logger.error("Migration {} failed, rolled back", migration.getVersion(), e);
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    private void createVersionTable(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS schema_version (
+                    version INTEGER PRIMARY KEY,
+                    description TEXT NOT NULL,
+                    checksum TEXT NOT NULL,
+                    applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                    execution_ms INTEGER
+                )
+            """);
+        }
+    }
+
+    private Map<Integer, String> loadAppliedVersions(Connection conn) throws SQLException {
+        Map<Integer, String> applied = new HashMap<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT version, checksum FROM schema_version")) {
+            while (rs.next()) {
+                applied.put(rs.getInt("version"), rs.getString("checksum"));
+            }
+        }
+        return applied;
+    }
+}
@@ -0,0 +1,99 @@
+package com.expenses.config.migration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Confere, via EXPLAIN QUERY PLAN, que as consultas principais usam os índices esperados
+ * em vez de varrer a tabela inteira.
+ */
+public class QueryPlanVerifier {
+    private static final Logger logger = LoggerFactory.getLogger(QueryPlanVerifier.class);
+
+    public record Check(String name, String sql, String expectedIndex) {}
+
+    public record Result(Check check, boolean usesIndex, List<String> plan) {}
+
+    private static final List<Check> CHECKS = List.of(
+        new Check("usuário por email",
+            "SELECT * FROM users WHERE email = ?",
+            "sqlite_autoindex_users_1"),
+        new Check("token de recuperação",
+            "SELECT user_id, token_hash, expires_at FROM recovery_tokens WHERE token_hash = ?",
+            "idx_recovery_tokens_hash"),
+        new Check("despesas por período",
+            "SELECT * FROM expenses WHERE user_id = ? AND date BETWEEN ? AND ? ORDER BY date DESC",
+            "idx_expenses_user_date"),
+        new Check("despesas com nome da categoria",
+            "SELECT e.*, c.name AS category_name FROM expenses e LEFT JOIN categories c ON c.id = e.category_id "
+                + "WHERE e.user_id = ? AND e.date BETWEEN ? AND ? ORDER BY e.date DESC, e.id DESC",
+            "idx_expenses_user_date"),
+        new Check("total por período",
+            "SELECT COALESCE(SUM(total_cents), 0) FROM expense_daily_totals WHERE user_id = ? AND day BETWEEN ? AND ?",
+            "PRIMARY KEY"),
+        new Check("despesas por categoria",
+            "SELECT * FROM expenses WHERE category_id = ? AND user_id = ? ORDER BY date DESC",
+            "idx_expenses_user_category_date"),
+        new Check("categorias distintas por usuário",
+            "SELECT COUNT(DISTINCT NULLIF(category_id, 0)) FROM expense_daily_totals WHERE user_id = ?",
+            "PRIMARY KEY"),
+        new Check("categorias do usuário",
+            "SELECT * FROM categories WHERE user_id = ? ORDER BY name",
+            "idx_categories_user_name")
+    );
+
+    public List<Result> verify(Connection conn) throws SQLException {
+        List<Result> results = new ArrayList<>();
+        for (Check check : CHECKS) {
+            results.add(explain(conn, check));
+        }
+        return results;
+    }
+
+    /**
+     * Executa a verificação e registra no log as consultas que não usam índice.
+     */
+    public boolean verifyAndLog(Connection conn) {
+        try {
+            boolean allIndexed = true;
+            for (Result result : verify(conn)) {
+                if (result.usesIndex()) {
+                    logger.debug("Query plan OK ({}): {}", result.check().name(), result.plan());
+                } else {
+                    allIndexed = false;
+                    logger.warn("Query '{}' is not using {}: {}",
+                        result.check().name(), result.check().expectedIndex(), result.plan());
+                }
+            }
+            return allIndexed;
+        } catch (SQLException e) {
+            logger.error("Error verifying query plans", e);
+            return false;
+        }
+    }
+
+    private Result explain(Connection conn, Check check) throws SQLException {
+        List<String> plan = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement("EXPLAIN QUERY PLAN " + check.sql())) {
+            int params = (int) check.sql().chars().filter(c -> c == '?').count();
+            for (int i = 1; i <= params; i++) {
+                stmt.setLong(i, 1L);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    plan.add(rs.getString("detail"));
+                }
+            }
+        }
+
+        boolean usesIndex = plan.stream().anyMatch(step -> step.contains(check.expectedIndex()));
+        return new Result(check, usesIndex, plan);
+    }
+}
@@ -0,0 +1,297 @@
+package com.expenses.config.migration;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Lista ordenada das migrações do schema. Migrações publicadas não devem ser editadas;
+ * qualquer mudança nova entra como uma nova versão no final da lista.
+ */
+public final class SchemaMigrations {
+
+    private SchemaMigrations() {}
+
+    public static List<Migration> all() {
+        return List.of(
+            baseline(),
+            recoveryTokenColumns(),
+            queryIndexes(),
+            amountInCents(),
+            dailyRollup(),
+            statementImports(),
+            recoveryTokens(),
+            emailOutbox()
+        );
+    }
+
+    /**
+     * Tabelas iniciais. Usa IF NOT EXISTS para adotar bancos criados antes do controle de versão.
+     */
+    private static Migration baseline() {
+        return Migration.sql(1, "Tabelas users, categories e expenses",
+            """
+            CREATE TABLE IF NOT EXISTS users (
+                id INTEGER PRIMARY KEY AUTOINCREMENT,
+                name VARCHAR(100) NOT NULL,
+                email VARCHAR(100) NOT NULL UNIQUE,
+                password VARCHAR(100) NOT NULL,
+                role VARCHAR(20) NOT NULL DEFAULT 'USER',
+                created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+            )
+            """,
+            """
+            CREATE TABLE IF NOT EXISTS categories (
+                id INTEGER PRIMARY KEY AUTOINCREMENT,
+                name VARCHAR(50) NOT NULL,
+                description VARCHAR(200),
+                user_id INTEGER,
+                FOREIGN KEY (user_id) REFERENCES users(id)
+            )
+            """,
+            """
+            CREATE TABLE IF NOT EXISTS expenses (
+                id INTEGER PRIMARY KEY AUTOINCREMENT,
+                description VARCHAR(200) NOT NULL,
+                amount DECIMAL(10,2) NOT NULL,
+                date DATE NOT NULL,
+                category_id INTEGER,
+                user_id INTEGER,
+                created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                FOREIGN KEY (category_id) REFERENCES categories(id),
+                FOREIGN KEY (user_id) REFERENCES users(id)
+            )
+            """
+        );
+    }
+
+    /**
+     * Colunas de recuperação de senha, que bancos antigos podem já ter recebido via ALTER TABLE.
+     */
+    private static Migration recoveryTokenColumns() {
+        return new Migration(2, "Colunas de recuperação de senha em users") {
+            @Override
+            public void apply(Connection conn) throws SQLException {
+                try (Statement stmt = conn.createStatement()) {
+                    if (!columnExists(conn, "users", "recovery_token")) {
+                        stmt.execute("ALTER TABLE users ADD COLUMN recovery_token TEXT");
+                    }
+                    if (!columnExists(conn, "users", "recovery_token_expiry")) {
+                        stmt.execute("ALTER TABLE users ADD COLUMN recovery_token_expiry TIMESTAMP");
+                    }
+                }
+            }
+
+            @Override
+            protected String checksumSource() {
+                return "users.recovery_token TEXT, users.recovery_token_expiry TIMESTAMP";
+            }
+        };
+    }
+
+    /**
+     * Índices para os filtros por usuário, data e categoria.
+     * <p>
+     * idx_expenses_user_date cobre (user_id, date) e também inclui category_id e amount,
+     * de modo que os SUM/COUNT por período e por categoria são resolvidos só pelo índice.
+     */
+    private static Migration queryIndexes() {
+        return Migration.sql(3, "Índices de consulta para expenses e categories",
+            "CREATE INDEX IF NOT EXISTS idx_expenses_user_date ON expenses (user_id, date, category_id, amount)",
+            "CREATE INDEX IF NOT EXISTS idx_expenses_user_category_date ON expenses (user_id, category_id, date)",
+            "CREATE INDEX IF NOT EXISTS idx_categories_user_name ON categories (user_id, name)",
+            "ANALYZE"
+        );
+    }
+
+    /**
+     * Troca expenses.amount (DECIMAL, guardado como REAL/TEXT pelo SQLite) por amount_cents INTEGER.
+     * O índice de cobertura é recriado sobre a nova coluna.
+     */
+    private static Migration amountInCents() {
+        return Migration.sql(4, "Valores de despesas em centavos inteiros",
+            "DROP INDEX IF EXISTS idx_expenses_user_date",
+            "ALTER TABLE expenses ADD COLUMN amount_cents INTEGER NOT NULL DEFAULT 0",
+            "UPDATE expenses SET amount_cents = CAST(ROUND(CAST(amount AS REAL) * 100) AS INTEGER)",
+            "ALTER TABLE expenses DROP COLUMN amount",
+            "CREATE INDEX idx_expenses_user_date ON expenses (user_id, date, category_id, amount_cents)",
+            "ANALYZE"
+        );
+    }
+
+    /**
+     * Totais diários por usuário e categoria (soma, quantidade e maior valor), mantidos por
+     * triggers em expenses. Despesas sem categoria entram com category_id 0.
+     * <p>
+     * Na exclusão, o maior valor do dia é recalculado pelo idx_expenses_user_date, que já
+     * está restrito a (user_id, date).
+     */
+    private static Migration dailyRollup() {
+        return Migration.sql(5, "Tabela de totais diários expense_daily_totals",
+            """
+            CREATE TABLE expense_daily_totals (
+                user_id INTEGER NOT NULL,
+                day DATE NOT NULL,
+                category_id INTEGER NOT NULL,
+                total_cents INTEGER NOT NULL,
+                expense_count INTEGER NOT NULL,
+                max_cents INTEGER NOT NULL,
+                PRIMARY KEY (user_id, day, category_id)
+            ) WITHOUT ROWID
+            """,
+            """
+            INSERT INTO expense_daily_totals (user_id, day, category_id, total_cents, expense_count, max_cents)
+            SELECT user_id, date, IFNULL(category_id, 0), SUM(amount_cents), COUNT(*), MAX(amount_cents)
+            FROM expenses
+            WHERE user_id IS NOT NULL
+            GROUP BY user_id, date, IFNULL(category_id, 0)
+            """,
+            """
+            CREATE TRIGGER trg_expenses_rollup_insert AFTER INSERT ON expenses
+            WHEN NEW.user_id IS NOT NULL
+            BEGIN
+                INSERT INTO expense_daily_totals (user_id, day, category_id, total_cents, expense_count, max_cents)
+                VALUES (NEW.user_id, NEW.date, IFNULL(NEW.category_id, 0), NEW.amount_cents, 1, NEW.amount_cents)
+                ON CONFLICT (user_id, day, category_id) DO UPDATE SET
+                    total_cents = total_cents + excluded.total_cents,
+                    expense_count = expense_count + 1,
+                    max_cents = MAX(max_cents, excluded.max_cents);
+            END
+            """,
+            """
+            CREATE TRIGGER trg_expenses_rollup_delete AFTER DELETE ON expenses
+            BEGIN
+                UPDATE expense_daily_totals SET
+                    total_cents = total_cents - OLD.amount_cents,
+                    expense_count = expense_count - 1,
+                    max_cents = (SELECT IFNULL(MAX(amount_cents), 0) FROM expenses
+                                 WHERE user_id = OLD.user_id AND date = OLD.date
+                                   AND IFNULL(category_id, 0) = IFNULL(OLD.category_id, 0))
+                WHERE user_id = OLD.user_id AND day = OLD.date AND category_id = IFNULL(OLD.category_id, 0);
+                DELETE FROM expense_daily_totals
+                WHERE user_id = OLD.user_id AND day = OLD.date AND category_id = IFNULL(OLD.category_id, 0)
+                  AND expense_count <= 0;
+            END
+            """,
+            """
+            CREATE TRIGGER trg_expenses_rollup_update AFTER UPDATE OF user_id, date, category_id, amount_cents ON expenses
+            BEGIN
+                UPDATE expense_daily_totals SET
+                    total_cents = total_cents - OLD.amount_cents,
+                    expense_count = expense_count - 1,
+                    max_cents = (SELECT IFNULL(MAX(amount_cents), 0) FROM expenses
+                                 WHERE user_id = OLD.user_id AND date = OLD.date
+                                   AND IFNULL(category_id, 0) = IFNULL(OLD.category_id, 0))
+                WHERE user_id = OLD.user_id AND day = OLD.date AND category_id = IFNULL(OLD.category_id, 0);
+                DELETE FROM expense_daily_totals
+                WHERE user_id = OLD.user_id AND day = OLD.date AND category_id = IFNULL(OLD.category_id, 0)
+                  AND expense_count <= 0;
+                INSERT INTO expense_daily_totals (user_id, day, category_id, total_cents, expense_count, max_cents)
+                SELECT NEW.user_id, NEW.date, IFNULL(NEW.category_id, 0), NEW.amount_cents, 1, NEW.amount_cents
+                WHERE NEW.user_id IS NOT NULL
+                ON CONFLICT (user_id, day, category_id) DO UPDATE SET
+                    total_cents = total_cents + excluded.total_cents,
+                    expense_count = expense_count + 1,
+                    max_cents = MAX(max_cents, excluded.max_cents);
+            END
+            """,
+            "ANALYZE"
+        );
+    }
+
+    /**
+     * Suporte à importação de extratos: chave de origem em expenses, que impede importar
+     * a mesma transação duas vezes, e a tabela import_jobs, que guarda o progresso
+     * confirmado de cada arquivo para retomar uma importação interrompida.
+     */
+    private static Migration statementImports() {
+        return Migration.sql(6, "Importação de extratos: expenses.import_key e import_jobs",
+            "ALTER TABLE expenses ADD COLUMN import_key TEXT",
+            """
+            CREATE UNIQUE INDEX idx_expenses_user_import_key ON expenses (user_id, import_key)
+            WHERE import_key IS NOT NULL
+            """,
+            """
+            CREATE TABLE import_jobs (
+                id INTEGER PRIMARY KEY AUTOINCREMENT,
+                user_id INTEGER NOT NULL,
+                file_name TEXT NOT NULL,
+                file_hash TEXT NOT NULL,
+                format TEXT NOT NULL,
+                status TEXT NOT NULL,
+                last_position INTEGER NOT NULL DEFAULT 0,
+                rows_read INTEGER NOT NULL DEFAULT 0,
+                rows_imported INTEGER NOT NULL DEFAULT 0,
+                rows_duplicate INTEGER NOT NULL DEFAULT 0,
+                rows_invalid INTEGER NOT NULL DEFAULT 0,
+                error TEXT,
+                started_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                FOREIGN KEY (user_id) REFERENCES users(id)
+            )
+            """,
+            "CREATE INDEX idx_import_jobs_user_hash ON import_jobs (user_id, file_hash)"
+        );
+    }
+
+    /**
+     * Tokens de recuperação de senha numa tabela própria, guardados como SHA-256 com índice
+     * único, no lugar das colunas sem índice de users. Os tokens pendentes nas colunas antigas
+     * estão em texto puro e não podem ser convertidos; quem estava no meio de uma recuperação
+     * precisa pedir um novo link.
+     */
+    private static Migration recoveryTokens() {
+        return Migration.sql(7, "Tabela recovery_tokens com hash indexado",
+            """
+            CREATE TABLE recovery_tokens (
+                id INTEGER PRIMARY KEY AUTOINCREMENT,
+                token_hash TEXT NOT NULL,
+                user_id INTEGER NOT NULL,
+                expires_at INTEGER NOT NULL,
+                created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+            )
+            """,
+            "CREATE UNIQUE INDEX idx_recovery_tokens_hash ON recovery_tokens (token_hash)",
+            "CREATE INDEX idx_recovery_tokens_user ON recovery_tokens (user_id)",
+            "CREATE INDEX idx_recovery_tokens_expires ON recovery_tokens (expires_at)",
+            "ALTER TABLE users DROP COLUMN recovery_token",
+            "ALTER TABLE users DROP COLUMN recovery_token_expiry"
+        );
+    }
+
+    /**
+     * Fila persistente de emails. O {@code EmailDispatcher} envia as mensagens com
+     * next_attempt_at vencido; uma mensagem reservada por um envio que não terminou volta a
+     * ficar disponível quando a reserva vence.
+     */
+    private static Migration emailOutbox() {
+        return Migration.sql(8, "Fila de envio de emails email_outbox",
+            """
+            CREATE TABLE email_outbox (
+                id INTEGER PRIMARY KEY AUTOINCREMENT,
+                recipient TEXT NOT NULL,
+                subject TEXT NOT NULL,
+                body TEXT NOT NULL,
+                status TEXT NOT NULL DEFAULT 'PENDING',
+                attempts INTEGER NOT NULL DEFAULT 0,
+                next_attempt_at INTEGER NOT NULL,
+                last_error TEXT,
+                created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                sent_at INTEGER
+            )
+            """,
+            "CREATE INDEX idx_email_outbox_due ON email_outbox (status, next_attempt_at)"
+        );
+    }
+
+    static boolean columnExists(Connection conn, String table, String column) throws SQLException {
+        DatabaseMetaData meta = conn.getMetaData();
+        try (ResultSet rs = meta.getColumns(null, null, table, column)) {
+            return rs.next();
+        }
+    }
+}
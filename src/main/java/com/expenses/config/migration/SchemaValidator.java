@@ -0,0 +1,121 @@
+package com.expenses.config.migration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Confere, depois das migrações, que as tabelas têm as colunas que os DAOs leem e gravam.
+ * <p>
+ * Roda uma vez na inicialização ({@code DatabaseConfig.initDatabase}), que guarda o
+ * {@link Report}; o comando {@code schema-check} do {@code DatabaseTool} mostra o relatório
+ * completo, com as colunas encontradas e a quantidade de linhas de cada tabela.
+ */
+public class SchemaValidator {
+    private static final Logger logger = LoggerFactory.getLogger(SchemaValidator.class);
+
+    private static final Map<String, List<String>> EXPECTED = expected();
+
+    public record Column(String name, String type, boolean notNull) {}
+
+    public record TableReport(String table, List<Column> columns, List<String> missing, long rows) {
+        public boolean exists() {
+            return !columns.isEmpty();
+        }
+
+        public boolean isValid() {
+            return exists() && missing.isEmpty();
+        }
+    }
+
+    /**
+     * @param error mensagem do erro que impediu a leitura do schema, ou null
+     */
+    public record Report(List<TableReport> tables, String error) {
+        public boolean isValid() {
+            return error == null && tables.stream().allMatch(TableReport::isValid);
+        }
+    }
+
+    private static Map<String, List<String>> expected() {
+        Map<String, List<String>> tables = new LinkedHashMap<>();
+        tables.put("users", List.of("id", "name", "email", "password", "role", "created_at"));
+        tables.put("categories", List.of("id", "name", "description", "user_id"));
+        tables.put("expenses", List.of("id", "description", "amount_cents", "date", "category_id", "user_id",
+            "created_at", "import_key"));
+        tables.put("expense_daily_totals", List.of("user_id", "day", "category_id", "total_cents",
+            "expense_count", "max_cents"));
+        tables.put("import_jobs", List.of("id", "user_id", "file_name", "file_hash", "format", "status",
+            "last_position", "rows_read", "rows_imported", "rows_duplicate", "rows_invalid", "error",
+            "started_at", "updated_at"));
+        tables.put("recovery_tokens", List.of("id", "token_hash", "user_id", "expires_at", "created_at"));
+        tables.put("email_outbox", List.of("id", "recipient", "subject", "body", "status", "attempts",
+            "next_attempt_at", "last_error", "created_at", "sent_at"));
+        return tables;
+    }
+
+    /**
+     * Lê as colunas das tabelas esperadas. Com {@code countRows}, também conta as linhas de
+     * cada uma, o que varre as tabelas e fica reservado ao comando de diagnóstico.
+     */
+    public Report validate(Connection conn, boolean countRows) throws SQLException {
+        List<TableReport> tables = new ArrayList<>();
+        try (Statement stmt = conn.createStatement()) {
+            for (Map.Entry<String, List<String>> entry : EXPECTED.entrySet()) {
+                String table = entry.getKey();
+                List<Column> columns = new ArrayList<>();
+                try (ResultSet rs = stmt.executeQuery("PRAGMA table_info(" + table + ")")) {
+                    while (rs.next()) {
+                        columns.add(new Column(rs.getString("name"), rs.getString("type"), rs.getInt("notnull") != 0));
+                    }
+                }
+
+                List<String> missing = new ArrayList<>();
+                for (String expected : entry.getValue()) {
+                    if (columns.stream().noneMatch(column -> column.name().equalsIgnoreCase(expected))) {
+                        missing.add(expected);
+                    }
+                }
+
+                long rows = -1;
+                if (countRows && !columns.isEmpty()) {
+                    try (ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + table)) {
+                        rows = rs.next() ? rs.getLong(1) : 0;
+                    }
+                }
+                tables.add(new TableReport(table, columns, missing, rows));
+            }
+        }
+        return new Report(tables, null);
+    }
+
+    /**
+     * Executa a validação e registra no log as tabelas e colunas ausentes.
+     */
+    public Report validateAndLog(Connection conn) {
+        try {
+            Report report = validate(conn, false);
+            for (TableReport table : report.tables()) {
+                if (!table.exists()) {
+                    logger.error("Schema check: table {} is missing", table.table());
+                } else if (!table.missing().isEmpty()) {
+                    logger.error("Schema check: table {} is missing columns {}", table.table(), table.missing());
+                } else {
+                    logger.debug("Schema check OK ({}): {} columns", table.table(), table.columns().size());
+                }
+            }
+            return report;
+        } catch (SQLException e) {
+            logger.error("Error validating database schema", e);
+            return new Report(List.of(), e.getMessage());
+        }
+    }
+}
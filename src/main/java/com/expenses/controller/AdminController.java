@@ -1,8 +1,12 @@
 package com.expenses.controller;
 
-import com.expenses.dao.ExpenseDAO;
+import com.expenses.dao.ReportDAO;
+import com.expenses.dao.ReportQuery;
 import com.expenses.dao.UserDAO;
 import com.expenses.model.User;
+import com.expenses.model.UserReport;
+import com.expenses.service.DataService;
+import com.expenses.util.PagedTableLoader;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
@@ -17,16 +21,21 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public class AdminController {
     private static final Logger logger = LoggerFactory.getLogger(AdminController.class);
     private final UserDAO userDAO = new UserDAO();
-    private final ExpenseDAO expenseDAO = new ExpenseDAO();
+    private final ReportDAO reportDAO = new ReportDAO();
+    private final DataService dataService = DataService.getInstance();
+    private final DataService.Channel usersChannel = dataService.channel();
+    private static final int REPORT_PAGE_SIZE = 100;
     private User currentUser;
+    private PagedTableLoader<UserReport> reportPager;
+    private ReportQuery reportQuery;
+    private Map<TableColumn<UserReport, ?>, ReportQuery.Sort> sortColumns;
 
     @FXML private Label welcomeLabel;
     @FXML private TableView<User> usersTable;
@@ -99,6 +108,41 @@ public class AdminController {
         ));
         categoryCountColumn.setCellValueFactory(new PropertyValueFactory<>("categoryCount"));
         expenseCountColumn.setCellValueFactory(new PropertyValueFactory<>("expenseCount"));
+
+        // A ordenação é feita no banco; clicar no cabeçalho recarrega a partir da primeira página
+        sortColumns = Map.of(
+            userNameColumn, ReportQuery.Sort.NAME,
+            totalExpensesColumn, ReportQuery.Sort.TOTAL,
+            categoryCountColumn, ReportQuery.Sort.CATEGORY_COUNT,
+            expenseCountColumn, ReportQuery.Sort.EXPENSE_COUNT
+        );
+        reportTable.setSortPolicy(table -> {
+            applyReportSort();
+            return true;
+        });
+
+        reportPager = new PagedTableLoader<>(reportTable, REPORT_PAGE_SIZE,
+            (last, pageSize) -> reportDAO.findPage(reportQuery, last, pageSize));
+        reportPager.setOnError(error -> showError("Erro ao gerar relatório"));
+    }
+
+    private void applyReportSort() {
+        if (reportQuery == null) {
+            return;
+        }
+
+        ReportQuery.Sort sort = ReportQuery.Sort.NAME;
+        boolean ascending = true;
+        if (!reportTable.getSortOrder().isEmpty()) {
+            TableColumn<UserReport, ?> column = reportTable.getSortOrder().get(0);
+            sort = sortColumns.getOrDefault(column, ReportQuery.Sort.NAME);
+            ascending = column.getSortType() == TableColumn.SortType.ASCENDING;
+        }
+
+        if (sort != reportQuery.getSort() || ascending != reportQuery.isAscending()) {
+            reportQuery = reportQuery.toBuilder().sort(sort).ascending(ascending).build();
+            reportPager.reload();
+        }
     }
 
     private void setupDatePickers() {
@@ -112,8 +156,9 @@ public class AdminController {
     }
 
     private void loadUsers() {
-        List<User> users = userDAO.findAll();
-        usersTable.setItems(FXCollections.observableArrayList(users));
+        usersChannel.submit(userDAO::findAll,
+            users -> usersTable.setItems(FXCollections.observableArrayList(users)),
+            error -> showError("Erro ao carregar usuários"));
     }
 
     @FXML
@@ -135,18 +180,9 @@ public class AdminController {
             return;
         }
 
-        List<User> users = userDAO.findAll();
-        List<UserReport> reports = users.stream()
-            .map(user -> {
-                BigDecimal total = expenseDAO.getTotalExpensesByUser(user.getId(), startDate, endDate);
-                int categoryCount = expenseDAO.getCategoryCountByUser(user.getId());
-                int expenseCount = expenseDAO.getExpenseCountByUser(user.getId(), startDate, endDate);
-                
-                return new UserReport(user.getName(), total, categoryCount, expenseCount);
-            })
-            .toList();
-
-        reportTable.setItems(FXCollections.observableArrayList(reports));
+        ReportQuery.ReportQueryBuilder query = reportQuery != null ? reportQuery.toBuilder() : ReportQuery.builder();
+        reportQuery = query.startDate(startDate).endDate(endDate).build();
+        reportPager.reload();
     }
 
     private void handleEditUser(User user) {
@@ -167,14 +203,15 @@ public class AdminController {
 
         Optional<ButtonType> result = alert.showAndWait();
         if (result.isPresent() && result.get() == ButtonType.OK) {
-            try {
-                userDAO.delete(user.getId());
-                loadUsers();
-                showSuccess("Usuário excluído com sucesso!");
-            } catch (Exception e) {
-                logger.error("Error deleting user", e);
-                showError("Erro ao excluir usuário");
-            }
+            dataService.submit(() -> {
+                    userDAO.delete(user.getId());
+                    return null;
+                },
+                ignored -> {
+                    loadUsers();
+                    showSuccess("Usuário excluído com sucesso!");
+                },
+                error -> showError("Erro ao excluir usuário"));
         }
     }
 
@@ -236,34 +273,4 @@ public class AdminController {
         alert.setContentText(message);
         alert.showAndWait();
     }
-
-    private static class UserReport {
-        private final String userName;
-        private final BigDecimal totalExpenses;
-        private final int categoryCount;
-        private final int expenseCount;
-
-        public UserReport(String userName, BigDecimal totalExpenses, int categoryCount, int expenseCount) {
-            this.userName = userName;
-            this.totalExpenses = totalExpenses;
-            this.categoryCount = categoryCount;
-            this.expenseCount = expenseCount;
-        }
-
-        public String getUserName() {
-            return userName;
-        }
-
-        public BigDecimal getTotalExpenses() {
-            return totalExpenses;
-        }
-
-        public int getCategoryCount() {
-            return categoryCount;
-        }
-
-        public int getExpenseCount() {
-            return expenseCount;
-        }
-    }
 }
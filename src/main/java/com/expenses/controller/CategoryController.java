@@ -3,6 +3,7 @@ package com.expenses.controller;
 import com.expenses.dao.CategoryDAO;
 import com.expenses.model.Category;
 import com.expenses.model.User;
+import com.expenses.service.DataService;
 import com.expenses.service.SessionManager;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -13,8 +14,6 @@ import javafx.scene.layout.HBox;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.List;
-
 public class CategoryController {
     private static final Logger logger = LoggerFactory.getLogger(CategoryController.class);
 
@@ -24,6 +23,8 @@ public class CategoryController {
     @FXML private TableColumn<Category, Void> actionsColumn;
 
     private final CategoryDAO categoryDAO = new CategoryDAO();
+    private final DataService dataService = DataService.getInstance();
+    private final DataService.Channel loadChannel = dataService.channel();
     private final ObservableList<Category> categories = FXCollections.observableArrayList();
     private User currentUser;
 
@@ -73,14 +74,13 @@ public class CategoryController {
     }
 
     private void loadCategories() {
-        try {
-            List<Category> userCategories = categoryDAO.findAllByUserId(SessionManager.getCurrentUser().getId());
-            categories.setAll(userCategories);
-            categoryTable.setItems(categories);
-        } catch (Exception e) {
-            logger.error("Erro ao carregar categorias", e);
-            showError("Erro ao carregar categorias");
-        }
+        Long userId = SessionManager.getCurrentUser().getId();
+        loadChannel.submit(() -> categoryDAO.findAllByUserId(userId),
+            userCategories -> {
+                categories.setAll(userCategories);
+                categoryTable.setItems(categories);
+            },
+            error -> showError("Erro ao carregar categorias"));
     }
 
     @FXML
@@ -105,14 +105,16 @@ public class CategoryController {
 
     private void handleDeleteCategory(Category category) {
         if (showConfirmationDialog("Confirmar exclusão", "Tem certeza que deseja excluir esta categoria?")) {
-            try {
-                categoryDAO.delete(category.getId(), SessionManager.getCurrentUser().getId());
-                loadCategories();
-                showSuccess("Categoria excluída com sucesso!");
-            } catch (Exception e) {
-                logger.error("Erro ao excluir categoria", e);
-                showError("Erro ao excluir categoria");
-            }
+            Long userId = SessionManager.getCurrentUser().getId();
+            dataService.submit(() -> {
+                    categoryDAO.delete(category.getId(), userId);
+                    return null;
+                },
+                ignored -> {
+                    loadCategories();
+                    showSuccess("Categoria excluída com sucesso!");
+                },
+                error -> showError("Erro ao excluir categoria"));
         }
     }
 
@@ -123,19 +125,21 @@ public class CategoryController {
         dialog.setContentText("Nome da categoria:");
 
         dialog.showAndWait().ifPresent(name -> {
-            try {
-                category.setName(name);
-                if (category.getId() == null) {
-                    categoryDAO.create(category);
-                } else {
-                    categoryDAO.update(category);
-                }
-                loadCategories();
-                showSuccess(category.getId() == null ? "Categoria adicionada com sucesso!" : "Categoria atualizada com sucesso!");
-            } catch (Exception e) {
-                logger.error("Erro ao salvar categoria", e);
-                showError("Erro ao salvar categoria");
-            }
+            category.setName(name);
+            boolean isNew = category.getId() == null;
+            dataService.submit(() -> {
+                    if (isNew) {
+                        categoryDAO.create(category);
+                    } else {
+                        categoryDAO.update(category);
+                    }
+                    return null;
+                },
+                ignored -> {
+                    loadCategories();
+                    showSuccess(isNew ? "Categoria adicionada com sucesso!" : "Categoria atualizada com sucesso!");
+                },
+                error -> showError("Erro ao salvar categoria"));
         });
     }
 
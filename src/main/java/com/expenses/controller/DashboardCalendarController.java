@@ -1,56 +1,99 @@
 package com.expenses.controller;
 
+import com.expenses.dao.DataVersions;
 import com.expenses.dao.ExpenseDAO;
+import com.expenses.dao.ExpenseFilter;
 import com.expenses.model.Expense;
 import com.expenses.model.User;
+import com.expenses.service.DataService;
+import com.expenses.service.dashboard.DashboardSnapshot;
+import com.expenses.service.dashboard.DashboardSnapshotService;
 import com.jfoenix.controls.JFXButton;
 import javafx.fxml.FXML;
 import javafx.geometry.Pos;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
+import javafx.util.Duration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.math.BigDecimal;
 import java.text.NumberFormat;
 import java.time.LocalDate;
 import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.stream.Collectors;
 
+/**
+ * Calendário mensal do dashboard.
+ * <p>
+ * As {@link #CELL_COUNT} células (6 semanas de 7 dias) são criadas uma vez e só recebem novos
+ * valores a cada navegação. Cada célula mostra o total e a quantidade de despesas do dia, vindos
+ * do snapshot do mês (tabela de totais diários); a lista de despesas de um dia só é buscada
+ * quando o usuário passa o mouse ou expande a célula. Os meses vizinhos são carregados em
+ * segundo plano para que anterior/próximo apareçam sem espera.
+ */
 public class DashboardCalendarController {
     private static final Logger logger = LoggerFactory.getLogger(DashboardCalendarController.class);
+    private static final int CELL_COUNT = 42;
+    // Despesas mostradas no detalhe de um dia; o restante aparece como contagem
+    private static final int DETAIL_LIMIT = 50;
+    private static final DateTimeFormatter DETAIL_TITLE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
 
     @FXML private GridPane calendarGrid;
     @FXML private Label currentMonthLabel;
     @FXML private JFXButton previousMonthButton;
     @FXML private JFXButton nextMonthButton;
-    
-    private final ExpenseDAO expenseDAO;
+
+    private final DashboardSnapshotService snapshotService = DashboardSnapshotService.getInstance();
+    private final ExpenseDAO expenseDAO = new ExpenseDAO();
+    private final DataService dataService = DataService.getInstance();
     private final NumberFormat currencyFormatter;
+    private final DataService.Channel monthChannel = dataService.channel();
+    private final DataService.Channel detailChannel = dataService.channel();
+    // Um canal por vizinho: navegar cancela a busca antecipada que ficou para trás
+    private final DataService.Channel previousChannel = dataService.channel();
+    private final DataService.Channel nextChannel = dataService.channel();
+    private final Map<DataService.Channel, YearMonth> prefetching = new HashMap<>();
+    private final DayCell[] cells = new DayCell[CELL_COUNT];
+    // Meses já carregados, inclusive os vizinhos buscados antecipadamente
+    private final Map<YearMonth, DashboardSnapshot> monthSnapshots = new HashMap<>();
+    // Despesas dos dias já detalhados, válidas para a versão dos dados do snapshot exibido
+    private final Map<LocalDate, List<Expense>> details = new HashMap<>();
+    private long detailsVersion = -1;
     private LocalDate currentCalendarMonth;
+    private DashboardSnapshot shown;
     private User currentUser;
 
     public DashboardCalendarController() {
-        this.expenseDAO = new ExpenseDAO();
         this.currencyFormatter = NumberFormat.getCurrencyInstance(new Locale("pt", "BR"));
         this.currentCalendarMonth = LocalDate.now();
     }
 
     @FXML
     private void initialize() {
+        createCells();
         setupCalendarNavigation();
         updateCalendarMonth();
     }
 
     public void setCurrentUser(User user) {
         this.currentUser = user;
+        monthSnapshots.clear();
+        details.clear();
         updateCalendar();
     }
 
+    private void createCells() {
+        for (int i = 0; i < CELL_COUNT; i++) {
+            cells[i] = new DayCell();
+            calendarGrid.add(cells[i], i % 7, i / 7);
+        }
+    }
+
     private void setupCalendarNavigation() {
         previousMonthButton.setOnAction(e -> navigateCalendarMonth(-1));
         nextMonthButton.setOnAction(e -> navigateCalendarMonth(1));
@@ -69,104 +112,240 @@ public class DashboardCalendarController {
     }
 
     public void updateCalendar() {
+        YearMonth yearMonth = YearMonth.from(currentCalendarMonth);
         if (currentUser == null) {
+            renderCalendar(yearMonth, null);
             return;
         }
 
-        try {
-            calendarGrid.getChildren().clear();
-            
-            YearMonth yearMonth = YearMonth.from(currentCalendarMonth);
-            LocalDate firstOfMonth = yearMonth.atDay(1);
-            int dayOfWeek = firstOfMonth.getDayOfWeek().getValue();
-            
-            // Adicionar células vazias para os dias antes do primeiro dia do mês
-            for (int i = 1; i < dayOfWeek; i++) {
-                calendarGrid.add(createEmptyDayCell(), i - 1, 0);
-            }
-            
-            LocalDate startDate = yearMonth.atDay(1);
-            LocalDate endDate = yearMonth.atEndOfMonth();
-            List<Expense> monthExpenses = expenseDAO.findByDateRange(
-                currentUser.getId(),
-                startDate,
-                endDate
-            );
-            
-            // Agrupar despesas por dia
-            Map<LocalDate, List<Expense>> expensesByDay = monthExpenses.stream()
-                .collect(Collectors.groupingBy(Expense::getDate));
-            
-            int day = 1;
-            int week = 0;
-            
-            while (day <= yearMonth.lengthOfMonth()) {
-                LocalDate currentDate = yearMonth.atDay(day);
-                int column = (dayOfWeek - 1 + day - 1) % 7;
-                
-                if (column == 0 && day > 1) {
-                    week++;
+        // Mês já buscado e sem escrita desde então: aparece na hora, sem ida ao banco
+        DashboardSnapshot cached = monthSnapshots.get(yearMonth);
+        if (cached != null && cached.version() == DataVersions.getInstance().current(currentUser.getId())) {
+            renderCalendar(yearMonth, cached);
+            prefetchAdjacent(yearMonth);
+            return;
+        }
+
+        renderCalendar(yearMonth, null);
+        Long userId = currentUser.getId();
+        monthChannel.submit(
+            () -> snapshotService.get(userId, yearMonth.atDay(1), yearMonth.atEndOfMonth()),
+            snapshot -> {
+                monthSnapshots.put(yearMonth, snapshot);
+                if (YearMonth.from(currentCalendarMonth).equals(yearMonth)) {
+                    renderCalendar(yearMonth, snapshot);
+                }
+                prefetchAdjacent(yearMonth);
+            },
+            error -> logger.error("Erro ao atualizar calendário", error));
+    }
+
+    /**
+     * Busca o mês anterior e o próximo em segundo plano; o resultado fica no cache local e no
+     * cache de snapshots. Cada vizinho usa seu próprio canal, então navegar rápido cancela as
+     * buscas antigas em vez de acumulá-las na fila do {@link DataService}.
+     */
+    private void prefetchAdjacent(YearMonth yearMonth) {
+        prefetch(previousChannel, yearMonth.minusMonths(1));
+        prefetch(nextChannel, yearMonth.plusMonths(1));
+        // Mantém só o mês exibido e os vizinhos
+        monthSnapshots.keySet().removeIf(month -> Math.abs(month.until(yearMonth, ChronoUnit.MONTHS)) > 1);
+    }
+
+    private void prefetch(DataService.Channel channel, YearMonth month) {
+        Long userId = currentUser.getId();
+        DashboardSnapshot cached = monthSnapshots.get(month);
+        if (cached != null && cached.version() == DataVersions.getInstance().current(userId)) {
+            return;
+        }
+        if (channel.isBusy() && month.equals(prefetching.get(channel))) {
+            // Mesmo mês já a caminho
+            return;
+        }
+        prefetching.put(channel, month);
+        channel.submit(
+            () -> snapshotService.get(userId, month.atDay(1), month.atEndOfMonth()),
+            snapshot -> {
+                if (currentUser != null && currentUser.getId().equals(snapshot.userId())) {
+                    monthSnapshots.put(month, snapshot);
                 }
-                
-                VBox dayCell = createDayCell(currentDate, expensesByDay.get(currentDate));
-                calendarGrid.add(dayCell, column, week);
-                
-                day++;
+            },
+            error -> logger.debug("Prefetch of {} failed", month, error));
+    }
+
+    /**
+     * Atualiza as células existentes para o mês. Sem snapshot, mostra só os números dos dias.
+     */
+    private void renderCalendar(YearMonth yearMonth, DashboardSnapshot snapshot) {
+        shown = snapshot;
+        if (snapshot != null && snapshot.version() != detailsVersion) {
+            // Dados mudaram: detalhes já carregados ou abertos estão desatualizados
+            details.clear();
+            detailsVersion = snapshot.version();
+            for (DayCell cell : cells) {
+                cell.collapse();
+            }
+        }
+
+        LocalDate firstOfMonth = yearMonth.atDay(1);
+        LocalDate firstCell = firstOfMonth.minusDays(firstOfMonth.getDayOfWeek().getValue() - 1);
+        for (int i = 0; i < CELL_COUNT; i++) {
+            LocalDate date = firstCell.plusDays(i);
+            if (!YearMonth.from(date).equals(yearMonth)) {
+                cells[i].showOutside();
+            } else if (snapshot == null) {
+                cells[i].showDay(date, 0, null);
+            } else {
+                cells[i].showDay(date, snapshot.dayCount(date), snapshot.dayTotal(date).format(currencyFormatter));
             }
-        } catch (Exception e) {
-            logger.error("Erro ao atualizar calendário", e);
         }
     }
 
-    private VBox createEmptyDayCell() {
-        VBox cell = new VBox();
-        cell.getStyleClass().add("calendar-cell");
-        cell.setAlignment(Pos.CENTER);
-        return cell;
+    /**
+     * Busca a lista de despesas do dia, uma vez por versão dos dados, e a entrega à célula.
+     */
+    private void loadDetails(DayCell cell, LocalDate date) {
+        List<Expense> cached = details.get(date);
+        if (cached != null) {
+            cell.showDetails(date, cached);
+            return;
+        }
+        if (currentUser == null || shown == null) {
+            return;
+        }
+
+        ExpenseFilter filter = ExpenseFilter.builder()
+            .userId(currentUser.getId())
+            .startDate(date)
+            .endDate(date)
+            .build();
+        long version = shown.version();
+        detailChannel.submit(
+            () -> expenseDAO.findPage(filter, null, DETAIL_LIMIT).items(),
+            expenses -> {
+                if (version == detailsVersion) {
+                    details.put(date, expenses);
+                }
+                cell.showDetails(date, expenses);
+            },
+            error -> logger.error("Erro ao carregar despesas do dia {}", date, error));
     }
 
-    private VBox createDayCell(LocalDate date, List<Expense> dayExpenses) {
-        VBox cell = new VBox(5);
-        cell.getStyleClass().add("calendar-cell");
-        cell.setAlignment(Pos.TOP_CENTER);
-        
-        Label dayLabel = new Label(String.valueOf(date.getDayOfMonth()));
-        dayLabel.getStyleClass().add("calendar-day-label");
-        
-        cell.getChildren().add(dayLabel);
-        
-        if (dayExpenses != null && !dayExpenses.isEmpty()) {
-            BigDecimal totalAmount = dayExpenses.stream()
-                .map(Expense::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-            
-            Label totalLabel = new Label(currencyFormatter.format(totalAmount));
+    private String detailLine(Expense expense) {
+        return String.format("%s: %s",
+            expense.getCategoryName() != null ? expense.getCategoryName() : "Sem categoria",
+            expense.getAmount().format(currencyFormatter)
+        );
+    }
+
+    /**
+     * Célula reutilizável de um dia. Os nós são criados uma vez; o detalhe é montado só quando
+     * pedido e descartado quando a célula passa a mostrar outro dia.
+     */
+    private class DayCell extends VBox {
+        private final Label dayLabel = new Label();
+        private final Label totalLabel = new Label();
+        private final Label countLabel = new Label();
+        private final VBox detailList = new VBox(2);
+        private final ScrollPane detailPane = new ScrollPane(detailList);
+        private final Tooltip tooltip = new Tooltip();
+        private LocalDate date;
+        private int count;
+        private boolean expanded;
+
+        DayCell() {
+            super(5);
+            getStyleClass().add("calendar-cell");
+            setAlignment(Pos.TOP_CENTER);
+            dayLabel.getStyleClass().add("calendar-day-label");
             totalLabel.getStyleClass().add("calendar-total-label");
-            cell.getChildren().add(totalLabel);
-            
-            VBox expensesContainer = new VBox(2);
-            expensesContainer.setMaxHeight(100);
-            
-            for (Expense expense : dayExpenses) {
-                Label expenseLabel = new Label(
-                    // TODO: Buscar nome da categoria
-                    String.format("%s: %s",
-                        "Categoria " + expense.getCategoryId(),
-                        currencyFormatter.format(expense.getAmount())
-                    )
-                );
-                expenseLabel.getStyleClass().add("calendar-expense-label");
-                expensesContainer.getChildren().add(expenseLabel);
+            countLabel.getStyleClass().add("calendar-expense-label");
+
+            detailPane.setFitToWidth(true);
+            detailPane.setPrefHeight(60);
+            detailPane.getStyleClass().add("calendar-scroll-pane");
+            setDetailVisible(false);
+            getChildren().addAll(dayLabel, totalLabel, countLabel, detailPane);
+
+            tooltip.setShowDelay(Duration.millis(400));
+            tooltip.setOnShowing(e -> {
+                if (date != null && count > 0) {
+                    loadDetails(this, date);
+                }
+            });
+            setOnMouseClicked(e -> {
+                if (date != null && count > 0) {
+                    expanded = !expanded;
+                    setDetailVisible(expanded);
+                    if (expanded) {
+                        loadDetails(this, date);
+                    }
+                }
+            });
+        }
+
+        void showOutside() {
+            date = null;
+            count = 0;
+            dayLabel.setText("");
+            setTotals(null);
+            collapse();
+        }
+
+        void showDay(LocalDate day, int expenses, String total) {
+            if (!day.equals(date)) {
+                collapse();
+            }
+            date = day;
+            count = expenses;
+            dayLabel.setText(String.valueOf(day.getDayOfMonth()));
+            setTotals(expenses > 0 ? total : null);
+        }
+
+        void showDetails(LocalDate day, List<Expense> expenses) {
+            if (!day.equals(date)) {
+                return;
             }
-            
-            ScrollPane scrollPane = new ScrollPane(expensesContainer);
-            scrollPane.setFitToWidth(true);
-            scrollPane.setPrefHeight(60);
-            scrollPane.getStyleClass().add("calendar-scroll-pane");
-            
-            cell.getChildren().add(scrollPane);
-        }
-        
-        return cell;
+            StringBuilder text = new StringBuilder(day.format(DETAIL_TITLE_FORMATTER));
+            for (Expense expense : expenses) {
+                text.append('\n').append(detailLine(expense));
+            }
+            if (count > expenses.size()) {
+                text.append("\n+ ").append(count - expenses.size()).append(" despesas");
+            }
+            tooltip.setText(text.toString());
+
+            if (expanded) {
+                detailList.getChildren().clear();
+                for (Expense expense : expenses) {
+                    Label label = new Label(detailLine(expense));
+                    label.getStyleClass().add("calendar-expense-label");
+                    detailList.getChildren().add(label);
+                }
+            }
+        }
+
+        private void setTotals(String total) {
+            boolean hasExpenses = total != null;
+            totalLabel.setText(hasExpenses ? total : "");
+            countLabel.setText(hasExpenses ? (count == 1 ? "1 despesa" : count + " despesas") : "");
+            if (hasExpenses) {
+                tooltip.setText(date.format(DETAIL_TITLE_FORMATTER) + "\nCarregando...");
+                Tooltip.install(this, tooltip);
+            } else {
+                Tooltip.uninstall(this, tooltip);
+            }
+        }
+
+        private void collapse() {
+            expanded = false;
+            setDetailVisible(false);
+            detailList.getChildren().clear();
+        }
+
+        private void setDetailVisible(boolean visible) {
+            detailPane.setVisible(visible);
+            detailPane.setManaged(visible);
+        }
     }
 }
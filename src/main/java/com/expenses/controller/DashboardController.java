@@ -3,6 +3,7 @@ package com.expenses.controller;
 import com.expenses.dao.ExpenseDAO;
 import com.expenses.model.Expense;
 import com.expenses.model.User;
+import com.expenses.service.DataService;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
@@ -10,7 +11,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.LocalDate;
-import java.util.List;
 
 public class DashboardController {
     private static final Logger logger = LoggerFactory.getLogger(DashboardController.class);
@@ -25,8 +25,9 @@ public class DashboardController {
     @FXML private TableColumn<Expense, String> categoryColumn;
     @FXML private TableColumn<Expense, Double> valueColumn;
     @FXML private TableColumn<Expense, Void> actionsColumn;
-    
+
     private final ExpenseDAO expenseDAO;
+    private final DataService dataService = DataService.getInstance();
     private User currentUser;
 
     public DashboardController() {
@@ -57,6 +58,9 @@ public class DashboardController {
                 throw new RuntimeException("exportController não foi injetado!");
             }
             
+            // As despesas recentes vêm do mesmo snapshot exibido pelo resumo
+            summaryController.setOnSnapshot(snapshot -> recentExpensesTable.getItems().setAll(snapshot.recent()));
+
             // Propagar o usuário atual para os controladores filhos
             logger.debug("Propagando usuário para os controladores filhos");
             summaryController.setCurrentUser(user);
@@ -74,11 +78,7 @@ public class DashboardController {
     private void setupRecentExpensesTable() {
         dateColumn.setCellValueFactory(new PropertyValueFactory<>("date"));
         descriptionColumn.setCellValueFactory(new PropertyValueFactory<>("description"));
-        categoryColumn.setCellValueFactory(param -> {
-            Long categoryId = param.getValue().getCategoryId();
-            // TODO: Buscar nome da categoria
-            return new javafx.beans.property.SimpleStringProperty("Categoria " + categoryId);
-        });
+        categoryColumn.setCellValueFactory(new PropertyValueFactory<>("categoryName"));
         valueColumn.setCellValueFactory(param -> {
             return new javafx.beans.property.SimpleObjectProperty<>(
                 param.getValue().getAmount().doubleValue()
@@ -136,17 +136,19 @@ public class DashboardController {
 
         alert.showAndWait().ifPresent(response -> {
             if (response == ButtonType.OK) {
-                try {
-                    expenseDAO.delete(expense.getId(), currentUser.getId());
-                    updateDashboard();
-                } catch (Exception e) {
-                    logger.error("Erro ao excluir despesa", e);
-                    Alert errorAlert = new Alert(Alert.AlertType.ERROR);
-                    errorAlert.setTitle("Erro");
-                    errorAlert.setHeaderText("Erro ao excluir despesa");
-                    errorAlert.setContentText("Não foi possível excluir a despesa. Por favor, tente novamente.");
-                    errorAlert.show();
-                }
+                Long userId = currentUser.getId();
+                dataService.submit(() -> {
+                        expenseDAO.delete(expense.getId(), userId);
+                        return null;
+                    },
+                    ignored -> updateDashboard(),
+                    error -> {
+                        Alert errorAlert = new Alert(Alert.AlertType.ERROR);
+                        errorAlert.setTitle("Erro");
+                        errorAlert.setHeaderText("Erro ao excluir despesa");
+                        errorAlert.setContentText("Não foi possível excluir a despesa. Por favor, tente novamente.");
+                        errorAlert.show();
+                    });
             }
         });
     }
@@ -156,26 +158,9 @@ public class DashboardController {
             return;
         }
 
-        try {
-            // Atualizar tabela de despesas recentes
-            List<Expense> recentExpenses = expenseDAO.findByDateRange(
-                currentUser.getId(),
-                LocalDate.now().minusMonths(1),
-                LocalDate.now()
-            ).stream().limit(10).toList();
-            
-            recentExpensesTable.getItems().setAll(recentExpenses);
-            
-            // Os controladores filhos são responsáveis por atualizar suas próprias visualizações
-            summaryController.updateDashboard();
-            calendarController.updateCalendar();
-        } catch (Exception e) {
-            logger.error("Erro ao atualizar dashboard", e);
-            Alert alert = new Alert(Alert.AlertType.ERROR);
-            alert.setTitle("Erro");
-            alert.setHeaderText("Erro ao atualizar dashboard");
-            alert.setContentText("Não foi possível atualizar os dados do dashboard. Por favor, tente novamente.");
-            alert.show();
-        }
+        // Os controladores filhos carregam seus snapshots; a tabela de despesas recentes é
+        // preenchida pelo snapshot do resumo
+        summaryController.updateDashboard();
+        calendarController.updateCalendar();
     }
 }
\ No newline at end of file
@@ -1,14 +1,22 @@
 package com.expenses.controller;
 
 import com.expenses.dao.ExpenseDAO;
-import com.expenses.model.Expense;
+import com.expenses.dao.ExpenseFilter;
 import com.expenses.model.User;
-import com.expenses.util.ExportUtil;
+import com.expenses.service.DataService;
+import com.expenses.service.export.ExportJob;
+import com.expenses.service.export.ExportRequest;
+import com.expenses.service.export.ExportService;
 import com.jfoenix.controls.JFXButton;
 import com.jfoenix.controls.JFXCheckBox;
 import com.jfoenix.controls.JFXComboBox;
+import javafx.beans.binding.Bindings;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.property.ReadOnlyStringWrapper;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.StackPane;
 import javafx.stage.FileChooser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,8 +24,6 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
-import java.util.Optional;
 
 public class DashboardExportController {
     private static final Logger logger = LoggerFactory.getLogger(DashboardExportController.class);
@@ -30,9 +36,20 @@ public class DashboardExportController {
     @FXML private JFXCheckBox includeSummaryCheckbox;
     @FXML private JFXCheckBox includeDetailsCheckbox;
     @FXML private JFXButton exportButton;
-    @FXML private TableView<ExportHistory> recentExportsTable;
-    
+    @FXML private TableView<ExportJob> recentExportsTable;
+    @FXML private TableColumn<ExportJob, String> dateColumn;
+    @FXML private TableColumn<ExportJob, String> typeColumn;
+    @FXML private TableColumn<ExportJob, String> periodColumn;
+    @FXML private TableColumn<ExportJob, ExportJob> statusColumn;
+    @FXML private TableColumn<ExportJob, ExportJob> actionsColumn;
+
+    private static final DateTimeFormatter FILE_DATE_FORMAT = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+    private static final DateTimeFormatter PERIOD_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final DateTimeFormatter CREATED_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+
     private final ExpenseDAO expenseDAO;
+    private final DataService dataService = DataService.getInstance();
+    private final ExportService exportService = ExportService.getInstance();
     private User currentUser;
 
     public DashboardExportController() {
@@ -44,6 +61,7 @@ public class DashboardExportController {
         setupExportPeriodComboBox();
         setupExportFormatComboBox();
         setupExportButton();
+        setupHistoryTable();
     }
 
     public void setCurrentUser(User user) {
@@ -64,11 +82,18 @@ public class DashboardExportController {
     }
 
     private void setupExportFormatComboBox() {
-        exportFormatComboBox.getItems().addAll(
-            "PDF",
-            "Excel (XLSX)"
-        );
-        exportFormatComboBox.setValue("PDF");
+        for (ExportRequest.Format format : ExportRequest.Format.values()) {
+            exportFormatComboBox.getItems().add(format.getLabel());
+        }
+        exportFormatComboBox.setValue(ExportRequest.Format.PDF.getLabel());
+
+        // Os formatos de dados não têm gráficos nem resumo
+        exportFormatComboBox.valueProperty().addListener((obs, oldVal, newVal) -> {
+            boolean report = ExportRequest.Format.fromLabel(newVal).isReport();
+            includeChartsCheckbox.setDisable(!report);
+            includeSummaryCheckbox.setDisable(!report);
+            includeDetailsCheckbox.setDisable(!report);
+        });
     }
 
     private void handlePeriodChange() {
@@ -109,68 +134,102 @@ public class DashboardExportController {
         exportButton.setOnAction(e -> exportData());
     }
 
+    /**
+     * Histórico das exportações da sessão, com progresso, cancelamento e nova tentativa.
+     */
+    private void setupHistoryTable() {
+        recentExportsTable.setItems(exportService.getHistory());
+        recentExportsTable.setPlaceholder(new Label("Nenhuma exportação nesta sessão"));
+
+        if (dateColumn != null) {
+            dateColumn.setCellValueFactory(data ->
+                new ReadOnlyStringWrapper(data.getValue().getCreatedAt().format(CREATED_FORMAT)));
+        }
+        if (typeColumn != null) {
+            typeColumn.setCellValueFactory(data ->
+                new ReadOnlyStringWrapper(data.getValue().getRequest().getFormat().getLabel()));
+        }
+        if (periodColumn != null) {
+            periodColumn.setCellValueFactory(data -> {
+                ExportRequest request = data.getValue().getRequest();
+                return new ReadOnlyStringWrapper(request.getStartDate().format(PERIOD_FORMAT) + " a "
+                    + request.getEndDate().format(PERIOD_FORMAT));
+            });
+        }
+        if (statusColumn != null) {
+            statusColumn.setCellValueFactory(data -> new ReadOnlyObjectWrapper<>(data.getValue()));
+            statusColumn.setCellFactory(column -> new StatusCell());
+        }
+        if (actionsColumn != null) {
+            actionsColumn.setCellValueFactory(data -> new ReadOnlyObjectWrapper<>(data.getValue()));
+            actionsColumn.setCellFactory(column -> new ActionsCell());
+        }
+    }
+
     private void exportData() {
         if (currentUser == null) {
             return;
         }
 
-        try {
-            LocalDate startDate = exportStartDate.getValue();
-            LocalDate endDate = exportEndDate.getValue();
-            
-            if (startDate == null || endDate == null) {
-                showError("Por favor, selecione o período para exportação.");
-                return;
-            }
-            
-            List<Expense> expenses = expenseDAO.findByDateRange(
-                currentUser.getId(),
-                startDate,
-                endDate
-            );
-            
-            if (expenses.isEmpty()) {
-                showError("Não há despesas no período selecionado.");
-                return;
-            }
-            
-            String format = exportFormatComboBox.getValue();
-            String extension = format.equals("PDF") ? ".pdf" : ".xlsx";
-            
-            FileChooser fileChooser = new FileChooser();
-            fileChooser.setTitle("Salvar Relatório");
-            fileChooser.setInitialFileName(
-                "despesas_" + 
-                startDate.format(DateTimeFormatter.ofPattern("dd-MM-yyyy")) + "_a_" +
-                endDate.format(DateTimeFormatter.ofPattern("dd-MM-yyyy")) + 
-                extension
-            );
-            
-            fileChooser.getExtensionFilters().add(
-                new FileChooser.ExtensionFilter(
-                    format.equals("PDF") ? "Arquivos PDF" : "Arquivos Excel",
-                    "*" + extension
-                )
-            );
-            
-            File file = fileChooser.showSaveDialog(exportButton.getScene().getWindow());
-            if (file != null) {
-                ExportUtil.exportExpenses(
-                    expenses,
-                    file,
-                    format.equals("PDF"),
-                    includeChartsCheckbox.isSelected(),
-                    includeSummaryCheckbox.isSelected(),
-                    includeDetailsCheckbox.isSelected()
-                );
-                
-                showSuccess("Relatório exportado com sucesso!");
-            }
-            
-        } catch (Exception e) {
-            logger.error("Erro ao exportar dados", e);
-            showError("Erro ao exportar dados: " + e.getMessage());
+        LocalDate startDate = exportStartDate.getValue();
+        LocalDate endDate = exportEndDate.getValue();
+        if (startDate == null || endDate == null) {
+            showError("Por favor, selecione o período para exportação.");
+            return;
         }
+
+        ExpenseFilter filter = ExpenseFilter.builder()
+            .userId(currentUser.getId())
+            .startDate(startDate)
+            .endDate(endDate)
+            .build();
+        exportButton.setDisable(true);
+        dataService.submit(() -> expenseDAO.countWithFilters(filter),
+            count -> {
+                exportButton.setDisable(false);
+                if (count == 0) {
+                    showError("Não há despesas no período selecionado.");
+                    return;
+                }
+                chooseFileAndExport(startDate, endDate);
+            },
+            error -> {
+                exportButton.setDisable(false);
+                showError("Erro ao exportar dados: " + error.getMessage());
+            });
+    }
+
+    private void chooseFileAndExport(LocalDate startDate, LocalDate endDate) {
+        ExportRequest.Format format = ExportRequest.Format.fromLabel(exportFormatComboBox.getValue());
+
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Salvar Relatório");
+        fileChooser.setInitialFileName(
+            "despesas_" +
+            startDate.format(FILE_DATE_FORMAT) + "_a_" +
+            endDate.format(FILE_DATE_FORMAT) +
+            format.getExtension()
+        );
+
+        fileChooser.getExtensionFilters().add(
+            new FileChooser.ExtensionFilter(format.getFileDescription(), "*" + format.getExtension())
+        );
+
+        File file = fileChooser.showSaveDialog(exportButton.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+
+        exportService.submit(ExportRequest.builder()
+            .userId(currentUser.getId())
+            .startDate(startDate)
+            .endDate(endDate)
+            .format(format)
+            .includeCharts(includeChartsCheckbox.isSelected())
+            .includeSummary(includeSummaryCheckbox.isSelected())
+            .includeDetails(includeDetailsCheckbox.isSelected())
+            .file(file)
+            .build());
     }
 
     private void showError(String message) {
@@ -181,30 +240,73 @@ public class DashboardExportController {
         alert.showAndWait();
     }
 
-    private void showSuccess(String message) {
-        Alert alert = new Alert(Alert.AlertType.INFORMATION);
-        alert.setTitle("Sucesso");
-        alert.setHeaderText(null);
-        alert.setContentText(message);
-        alert.showAndWait();
+    /**
+     * Barra de progresso enquanto a exportação roda; depois, a situação final.
+     */
+    private static class StatusCell extends TableCell<ExportJob, ExportJob> {
+        private final ProgressBar progressBar = new ProgressBar();
+        private final Label label = new Label();
+        private final StackPane container = new StackPane(progressBar, label);
+
+        StatusCell() {
+            progressBar.setMaxWidth(Double.MAX_VALUE);
+        }
+
+        @Override
+        protected void updateItem(ExportJob job, boolean empty) {
+            super.updateItem(job, empty);
+            progressBar.progressProperty().unbind();
+            progressBar.visibleProperty().unbind();
+            label.textProperty().unbind();
+            if (empty || job == null) {
+                setGraphic(null);
+                setTooltip(null);
+                return;
+            }
+
+            progressBar.progressProperty().bind(job.progressProperty());
+            progressBar.visibleProperty().bind(job.statusProperty().isEqualTo(ExportJob.Status.RUNNING));
+            label.textProperty().bind(Bindings.createStringBinding(() -> describe(job),
+                job.statusProperty(), job.messageProperty()));
+            setTooltip(new Tooltip(job.getRequest().getFile().getAbsolutePath()));
+            setGraphic(container);
+        }
+
+        private static String describe(ExportJob job) {
+            String message = job.messageProperty().get();
+            return job.getStatus().getLabel() + (message.isEmpty() ? "" : " - " + message);
+        }
     }
-    
-    private static class ExportHistory {
-        private final LocalDate date;
-        private final String type;
-        private final String period;
-        private final File file;
-        
-        public ExportHistory(LocalDate date, String type, String period, File file) {
-            this.date = date;
-            this.type = type;
-            this.period = period;
-            this.file = file;
+
+    private class ActionsCell extends TableCell<ExportJob, ExportJob> {
+        private final Button cancelButton = new Button("Cancelar");
+        private final Button retryButton = new Button("Tentar novamente");
+        private final HBox container = new HBox(5, cancelButton, retryButton);
+
+        ActionsCell() {
+            cancelButton.setOnAction(e -> exportService.cancel(getItem()));
+            retryButton.setOnAction(e -> exportService.retry(getItem()));
+        }
+
+        @Override
+        protected void updateItem(ExportJob job, boolean empty) {
+            super.updateItem(job, empty);
+            cancelButton.visibleProperty().unbind();
+            cancelButton.managedProperty().unbind();
+            retryButton.visibleProperty().unbind();
+            retryButton.managedProperty().unbind();
+            if (empty || job == null) {
+                setGraphic(null);
+                return;
+            }
+
+            cancelButton.visibleProperty().bind(job.statusProperty().isEqualTo(ExportJob.Status.QUEUED)
+                .or(job.statusProperty().isEqualTo(ExportJob.Status.RUNNING)));
+            cancelButton.managedProperty().bind(cancelButton.visibleProperty());
+            retryButton.visibleProperty().bind(job.statusProperty().isEqualTo(ExportJob.Status.FAILED)
+                .or(job.statusProperty().isEqualTo(ExportJob.Status.CANCELLED)));
+            retryButton.managedProperty().bind(retryButton.visibleProperty());
+            setGraphic(container);
         }
-        
-        public LocalDate getDate() { return date; }
-        public String getType() { return type; }
-        public String getPeriod() { return period; }
-        public File getFile() { return file; }
     }
 }
@@ -1,10 +1,15 @@
 package com.expenses.controller;
 
-import com.expenses.dao.CategoryDAO;
-import com.expenses.dao.ExpenseDAO;
-import com.expenses.model.Category;
-import com.expenses.model.Expense;
+import com.expenses.dao.ExpenseFilter;
+import com.expenses.model.DailyTotal;
+import com.expenses.model.Money;
 import com.expenses.model.User;
+import com.expenses.service.DataService;
+import com.expenses.service.dashboard.DashboardSnapshot;
+import com.expenses.service.dashboard.DashboardSnapshotService;
+import com.expenses.util.ChartBindings;
+import com.expenses.util.FilterPipeline;
+import com.expenses.util.UpdateCoalescer;
 import com.jfoenix.controls.JFXButton;
 import javafx.fxml.FXML;
 import javafx.scene.chart.*;
@@ -13,11 +18,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.text.NumberFormat;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 public class DashboardSummaryController {
     private static final Logger logger = LoggerFactory.getLogger(DashboardSummaryController.class);
@@ -40,14 +46,22 @@ public class DashboardSummaryController {
     @FXML private LineChart<String, Number> dailyExpensesChart;
     @FXML private StackedBarChart<String, Number> categoryComparisonChart;
     
-    private final CategoryDAO categoryDAO;
-    private final ExpenseDAO expenseDAO;
+    private static final DateTimeFormatter MONTH_FORMATTER = DateTimeFormatter.ofPattern("MM/yyyy");
+    private static final DateTimeFormatter DAY_FORMATTER = DateTimeFormatter.ofPattern("dd/MM");
+    private static final DateTimeFormatter DAY_YEAR_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yy");
+    // Acima disso o gráfico diário mostra só os dias com despesas, sem preencher zeros
+    private static final int MAX_FILLED_DAYS = 366;
+
+    private final DashboardSnapshotService snapshotService = DashboardSnapshotService.getInstance();
     private final NumberFormat currencyFormatter;
+    private final DataService.Channel summaryChannel = DataService.getInstance().channel();
+    private final FilterPipeline<ExpenseFilter> filters = new FilterPipeline<>(this::load);
+    private final UpdateCoalescer<DashboardSnapshot> renderer = new UpdateCoalescer<>(this::render);
+    private Consumer<DashboardSnapshot> onSnapshot = snapshot -> {};
+    private DashboardSnapshot rendered;
     private User currentUser;
 
     public DashboardSummaryController() {
-        this.categoryDAO = new CategoryDAO();
-        this.expenseDAO = new ExpenseDAO();
         this.currencyFormatter = NumberFormat.getCurrencyInstance(new Locale("pt", "BR"));
     }
 
@@ -63,6 +77,13 @@ public class DashboardSummaryController {
         updateDashboard();
     }
 
+    /**
+     * Recebe cada snapshot exibido, para que o painel principal reaproveite a mesma carga.
+     */
+    public void setOnSnapshot(Consumer<DashboardSnapshot> onSnapshot) {
+        this.onSnapshot = onSnapshot;
+    }
+
     private void setupPeriodComboBox() {
         periodComboBox.getItems().addAll(
             "Últimos 7 dias",
@@ -73,6 +94,9 @@ public class DashboardSummaryController {
             "Personalizado"
         );
         periodComboBox.setValue("Este mês");
+        LocalDate now = LocalDate.now();
+        startDatePicker.setValue(now.withDayOfMonth(1));
+        endDatePicker.setValue(now);
         periodComboBox.setOnAction(e -> handlePeriodChange());
     }
 
@@ -81,11 +105,11 @@ public class DashboardSummaryController {
         endDatePicker.setDisable(true);
         
         startDatePicker.valueProperty().addListener((obs, oldVal, newVal) -> {
-            if (newVal != null) updateDashboard();
+            if (newVal != null) filters.submit(currentFilter());
         });
         
         endDatePicker.valueProperty().addListener((obs, oldVal, newVal) -> {
-            if (newVal != null) updateDashboard();
+            if (newVal != null) filters.submit(currentFilter());
         });
     }
 
@@ -94,6 +118,8 @@ public class DashboardSummaryController {
         monthlyTrendsChart.setTitle("Tendência Mensal de Despesas");
         dailyExpensesChart.setTitle("Despesas Diárias");
         categoryComparisonChart.setTitle("Comparação de Categorias");
+        // Períodos longos têm centenas de pontos; sem marcadores o gráfico diário não cria um nó por dia
+        dailyExpensesChart.setCreateSymbols(false);
     }
 
     private void handlePeriodChange() {
@@ -127,71 +153,93 @@ public class DashboardSummaryController {
                     endDatePicker.setValue(now);
                     break;
             }
-            updateDashboard();
+            // Os dois campos já agendaram o filtro; o preset é aplicado sem esperar o intervalo
+            filters.submitNow(currentFilter());
         }
     }
 
+    /**
+     * Recarrega o período atual, mesmo sem mudança de filtro, por exemplo após excluir uma despesa.
+     */
     public void updateDashboard() {
-        if (currentUser == null || startDatePicker.getValue() == null || endDatePicker.getValue() == null) {
-            return;
+        filters.reload(currentFilter());
+    }
+
+    private ExpenseFilter currentFilter() {
+        LocalDate startDate = startDatePicker.getValue();
+        LocalDate endDate = endDatePicker.getValue();
+        if (currentUser == null || startDate == null || endDate == null || startDate.isAfter(endDate)) {
+            return null;
         }
+        return ExpenseFilter.builder()
+            .userId(currentUser.getId())
+            .startDate(startDate)
+            .endDate(endDate)
+            .build();
+    }
+
+    private void load(ExpenseFilter filter) {
+        summaryChannel.submit(
+            () -> snapshotService.get(filter.getUserId(), filter.getStartDate(), filter.getEndDate()),
+            renderer::submit,
+            error -> {
+                filters.failed(filter);
+                logger.error("Erro ao atualizar dashboard", error);
+            });
+    }
 
-        try {
-            updateSummaryCards();
-            updateCharts();
-        } catch (Exception e) {
-            logger.error("Erro ao atualizar dashboard", e);
+    /**
+     * Aplica o snapshot mais recente. Snapshots que chegam juntos são aplicados uma vez só, e um
+     * snapshot igual ao que já está na tela (mesmo período e versão dos dados) não muda nada.
+     */
+    private void render(DashboardSnapshot snapshot) {
+        if (rendered != null
+            && rendered.userId().equals(snapshot.userId())
+            && rendered.startDate().equals(snapshot.startDate())
+            && rendered.endDate().equals(snapshot.endDate())
+            && rendered.version() == snapshot.version()) {
+            return;
         }
+        rendered = snapshot;
+        updateSummaryCards(snapshot);
+        updateCharts(snapshot);
+        onSnapshot.accept(snapshot);
     }
 
-    private void updateSummaryCards() {
-        LocalDate startDate = startDatePicker.getValue();
-        LocalDate endDate = endDatePicker.getValue();
-        Long userId = currentUser.getId();
+    private void updateSummaryCards(DashboardSnapshot snapshot) {
+        LocalDate startDate = snapshot.startDate();
+        LocalDate endDate = snapshot.endDate();
 
-        // Encontrar maior despesa do período
-        List<Expense> expenses = expenseDAO.findByDateRange(userId, startDate, endDate);
-        Optional<Expense> highestExpense = expenses.stream()
-            .max(Comparator.comparing(e -> e.getAmount()));
-            
-        if (highestExpense.isPresent()) {
-            Expense expense = highestExpense.get();
-            highestExpenseLabel.setText(currencyFormatter.format(expense.getAmount()));
-            // TODO: Buscar nome da categoria
-            highestExpenseCategoryLabel.setText("Categoria " + expense.getCategoryId());
+        // Maior despesa do período
+        DailyTotal highest = snapshot.highest();
+        if (highest != null) {
+            highestExpenseLabel.setText(highest.getMax().format(currencyFormatter));
+            highestExpenseCategoryLabel.setText(categoryLabel(highest));
         } else {
             highestExpenseLabel.setText(currencyFormatter.format(0));
             highestExpenseCategoryLabel.setText("-");
         }
 
-        // Calcular total do período
-        BigDecimal totalPeriod = expenses.stream()
-            .map(Expense::getAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-        totalPeriodLabel.setText(currencyFormatter.format(totalPeriod));
+        // Total do período
+        Money totalPeriod = snapshot.total();
+        totalPeriodLabel.setText(totalPeriod.format(currencyFormatter));
 
         // Calcular média mensal
         long monthsBetween = java.time.temporal.ChronoUnit.MONTHS.between(startDate, endDate) + 1;
         if (monthsBetween > 0) {
-            BigDecimal monthlyAverage = totalPeriod.divide(BigDecimal.valueOf(monthsBetween), 2, BigDecimal.ROUND_HALF_UP);
-            monthlyAverageLabel.setText(currencyFormatter.format(monthlyAverage));
+            Money monthlyAverage = totalPeriod.divide(monthsBetween);
+            monthlyAverageLabel.setText(monthlyAverage.format(currencyFormatter));
         } else {
-            monthlyAverageLabel.setText(currencyFormatter.format(totalPeriod));
+            monthlyAverageLabel.setText(totalPeriod.format(currencyFormatter));
         }
 
         // Comparar com período anterior
-        LocalDate previousStartDate = startDate.minusDays(startDate.until(endDate).getDays() + 1);
-        LocalDate previousEndDate = startDate.minusDays(1);
-        
-        List<Expense> previousExpenses = expenseDAO.findByDateRange(userId, previousStartDate, previousEndDate);
-        BigDecimal previousTotal = previousExpenses.stream()
-            .map(Expense::getAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        Money previousTotal = snapshot.previousTotal();
             
-        if (previousTotal.compareTo(BigDecimal.ZERO) > 0) {
-            BigDecimal percentChange = totalPeriod.subtract(previousTotal)
+        if (previousTotal.signum() > 0) {
+            BigDecimal percentChange = BigDecimal.valueOf(totalPeriod.minus(previousTotal).getCents())
                 .multiply(BigDecimal.valueOf(100))
-                .divide(previousTotal, 2, BigDecimal.ROUND_HALF_UP);
+                .divide(BigDecimal.valueOf(previousTotal.getCents()), 2, RoundingMode.HALF_UP);
             
             String trend = percentChange.compareTo(BigDecimal.ZERO) >= 0 ? "+" : "";
             periodComparisonLabel.setText(trend + percentChange + "% em relação ao período anterior");
@@ -200,48 +248,51 @@ public class DashboardSummaryController {
         }
     }
 
-    private void updateCharts() {
-        LocalDate startDate = startDatePicker.getValue();
-        LocalDate endDate = endDatePicker.getValue();
-        Long userId = currentUser.getId();
+    private String categoryLabel(DailyTotal day) {
+        return day.getCategoryName() != null ? day.getCategoryName() : "Sem categoria";
+    }
 
-        List<Expense> expenses = expenseDAO.findByDateRange(userId, startDate, endDate);
-        
-        // Agrupar despesas por categoria
-        Map<Long, BigDecimal> expensesByCategory = expenses.stream()
-            .collect(Collectors.groupingBy(
-                Expense::getCategoryId,
-                Collectors.mapping(
-                    Expense::getAmount,
-                    Collectors.reducing(BigDecimal.ZERO, BigDecimal::add)
-                )
-            ));
-            
-        // Atualizar gráfico de pizza
-        expensesPieChart.getData().clear();
-        expensesByCategory.forEach((categoryId, total) -> {
-            // TODO: Buscar nome da categoria
-            PieChart.Data slice = new PieChart.Data("Categoria " + categoryId, total.doubleValue());
-            expensesPieChart.getData().add(slice);
-        });
+    private void updateCharts(DashboardSnapshot snapshot) {
+        // Gráfico de pizza
+        Map<String, Double> slices = new LinkedHashMap<>();
+        for (DashboardSnapshot.CategoryTotal category : snapshot.categories()) {
+            slices.put(category.label(), category.total().doubleValue());
+        }
+        ChartBindings.syncPie(expensesPieChart, slices);
 
-        // Agrupar despesas por mês
-        Map<String, BigDecimal> expensesByMonth = expenses.stream()
-            .collect(Collectors.groupingBy(
-                e -> e.getDate().format(DateTimeFormatter.ofPattern("MM/yyyy")),
-                Collectors.mapping(
-                    Expense::getAmount,
-                    Collectors.reducing(BigDecimal.ZERO, BigDecimal::add)
-                )
-            ));
-            
-        // Atualizar gráfico de barras
-        monthlyTrendsChart.getData().clear();
-        XYChart.Series<String, Number> series = new XYChart.Series<>();
-        series.setName("Total Mensal");
-        expensesByMonth.forEach((month, total) -> {
-            series.getData().add(new XYChart.Data<>(month, total));
+        // Gráfico de barras mensal
+        Map<String, Number> months = new LinkedHashMap<>();
+        snapshot.months().forEach((month, total) -> months.put(month.format(MONTH_FORMATTER), total.doubleValue()));
+        ChartBindings.syncSeries(monthlyTrendsChart, "Total Mensal", months);
+
+        // Gráfico diário
+        ChartBindings.syncSeries(dailyExpensesChart, "Total Diário", dailyPoints(snapshot));
+
+        // Comparação de categorias: uma série por mês, empilhada em cada categoria
+        Map<String, Map<String, Number>> comparison = new LinkedHashMap<>();
+        snapshot.monthCategories().forEach((month, categories) -> {
+            Map<String, Number> points = new LinkedHashMap<>();
+            categories.forEach((category, total) -> points.put(category, total.doubleValue()));
+            comparison.put(month.format(MONTH_FORMATTER), points);
         });
-        monthlyTrendsChart.getData().add(series);
+        ChartBindings.syncSeries(categoryComparisonChart, comparison);
+    }
+
+    private Map<String, Number> dailyPoints(DashboardSnapshot snapshot) {
+        LocalDate startDate = snapshot.startDate();
+        LocalDate endDate = snapshot.endDate();
+        DateTimeFormatter formatter = startDate.getYear() == endDate.getYear() ? DAY_FORMATTER : DAY_YEAR_FORMATTER;
+
+        Map<String, Number> points = new LinkedHashMap<>();
+        if (java.time.temporal.ChronoUnit.DAYS.between(startDate, endDate) < MAX_FILLED_DAYS) {
+            for (LocalDate day = startDate; !day.isAfter(endDate); day = day.plusDays(1)) {
+                points.put(day.format(formatter), snapshot.dayTotal(day).doubleValue());
+            }
+        } else {
+            for (LocalDate day : snapshot.days().keySet()) {
+                points.put(day.format(formatter), snapshot.dayTotal(day).doubleValue());
+            }
+        }
+        return points;
     }
 }
@@ -3,6 +3,8 @@ package com.expenses.controller;
 import com.expenses.dao.CategoryDAO;
 import com.expenses.model.Category;
 import com.expenses.model.Expense;
+import com.expenses.model.Money;
+import com.expenses.service.DataService;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.paint.Color;
@@ -10,9 +12,7 @@ import javafx.stage.Stage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.util.List;
 import java.util.function.Consumer;
 
 public class ExpenseDialogController {
@@ -48,10 +48,6 @@ public class ExpenseDialogController {
             descriptionField.setText(expense.getDescription());
             amountField.setText(expense.getAmount().toString());
             datePicker.setValue(expense.getDate());
-            categoryComboBox.getItems().stream()
-                .filter(c -> c.getId().equals(expense.getCategoryId()))
-                .findFirst()
-                .ifPresent(categoryComboBox::setValue);
         } else {
             datePicker.setValue(LocalDate.now());
         }
@@ -72,8 +68,18 @@ public class ExpenseDialogController {
     }
     
     private void loadCategories() {
-        List<Category> categories = categoryDAO.findAllByUserId(userId);
-        categoryComboBox.getItems().addAll(categories);
+        Long ownerId = userId;
+        DataService.getInstance().submit(() -> categoryDAO.findAllByUserId(ownerId),
+            categories -> {
+                categoryComboBox.getItems().setAll(categories);
+                if (expense != null) {
+                    categories.stream()
+                        .filter(c -> c.getId().equals(expense.getCategoryId()))
+                        .findFirst()
+                        .ifPresent(categoryComboBox::setValue);
+                }
+            },
+            error -> showError("Erro ao carregar categorias"));
         
         // Configurar como as categorias são exibidas
         categoryComboBox.setCellFactory(param -> new ListCell<Category>() {
@@ -108,7 +114,7 @@ public class ExpenseDialogController {
         
         try {
             String description = descriptionField.getText().trim();
-            BigDecimal amount = new BigDecimal(amountField.getText());
+            Money amount = Money.parse(amountField.getText());
             LocalDate date = datePicker.getValue();
             Category category = categoryComboBox.getValue();
             
@@ -140,8 +146,8 @@ public class ExpenseDialogController {
         }
         
         try {
-            BigDecimal amount = new BigDecimal(amountField.getText());
-            if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+            Money amount = Money.parse(amountField.getText());
+            if (amount.signum() <= 0) {
                 showError("O valor deve ser maior que zero");
                 return false;
             }
@@ -2,10 +2,15 @@ package com.expenses.controller;
 
 import com.expenses.dao.CategoryDAO;
 import com.expenses.dao.ExpenseDAO;
+import com.expenses.dao.ExpenseFilter;
 import com.expenses.model.Category;
 import com.expenses.model.Expense;
+import com.expenses.model.Money;
 import com.expenses.model.User;
+import com.expenses.service.DataService;
 import com.expenses.service.SessionManager;
+import com.expenses.util.FilterPipeline;
+import com.expenses.util.PagedTableLoader;
 import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
@@ -14,11 +19,9 @@ import javafx.scene.layout.HBox;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.math.BigDecimal;
 import java.text.NumberFormat;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
 import java.util.Locale;
 
 public class ExpenseListController {
@@ -37,10 +40,15 @@ public class ExpenseListController {
     
     private final CategoryDAO categoryDAO = new CategoryDAO();
     private final ExpenseDAO expenseDAO = new ExpenseDAO();
+    private final DataService dataService = DataService.getInstance();
+    private final DataService.Channel totalChannel = dataService.channel();
     private final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
     private final NumberFormat currencyFormatter = NumberFormat.getCurrencyInstance(new Locale("pt", "BR"));
+    private final FilterPipeline<ExpenseFilter> filters = new FilterPipeline<>(this::applyFilter);
     
     private User currentUser;
+    private PagedTableLoader<Expense> expensePager;
+    private ExpenseFilter currentFilter;
 
     @FXML
     public void initialize() {
@@ -58,13 +66,13 @@ public class ExpenseListController {
         startDatePicker.setValue(LocalDate.now().withDayOfMonth(1));
         endDatePicker.setValue(LocalDate.now());
         
-        startDatePicker.valueProperty().addListener((obs, oldVal, newVal) -> refreshExpenses());
-        endDatePicker.valueProperty().addListener((obs, oldVal, newVal) -> refreshExpenses());
+        startDatePicker.valueProperty().addListener((obs, oldVal, newVal) -> filters.submit(buildFilter()));
+        endDatePicker.valueProperty().addListener((obs, oldVal, newVal) -> filters.submit(buildFilter()));
     }
 
     private void setupCategoryComboBox() {
         categoryComboBox.setPromptText("Todas as Categorias");
-        categoryComboBox.valueProperty().addListener((obs, oldVal, newVal) -> refreshExpenses());
+        categoryComboBox.valueProperty().addListener((obs, oldVal, newVal) -> filters.submit(buildFilter()));
     }
 
     private void setupExpenseTable() {
@@ -76,20 +84,29 @@ public class ExpenseListController {
         
         descriptionColumn.setCellValueFactory(new PropertyValueFactory<>("description"));
         
+        // Nome vem da própria consulta (JOIN), sem acessar o banco por célula
         categoryColumn.setCellValueFactory(cellData -> {
-            Category category = findCategoryById(cellData.getValue().getCategoryId());
+            String categoryName = cellData.getValue().getCategoryName();
             return new javafx.beans.property.SimpleStringProperty(
-                category != null ? category.getName() : ""
+                categoryName != null ? categoryName : ""
             );
         });
         
         amountColumn.setCellValueFactory(cellData -> 
             new javafx.beans.property.SimpleStringProperty(
-                currencyFormatter.format(cellData.getValue().getAmount())
+                cellData.getValue().getAmount().format(currencyFormatter)
             )
         );
 
         setupActionsColumn();
+
+        // Linhas carregadas por página conforme o usuário rola a tabela
+        expensePager = new PagedTableLoader<>(expenseTable, ExpenseDAO.DEFAULT_PAGE_SIZE,
+            (last, pageSize) -> expenseDAO.findPage(currentFilter, last, pageSize));
+        expensePager.setOnError(error -> {
+            filters.failed(currentFilter);
+            showErrorMessage("Erro ao carregar despesas");
+        });
     }
 
     private void setupActionsColumn() {
@@ -128,40 +145,44 @@ public class ExpenseListController {
     }
 
     private void loadCategories() {
-        try {
-            List<Category> categories = categoryDAO.findAllByUserId(SessionManager.getCurrentUser().getId());
-            categoryComboBox.setItems(FXCollections.observableArrayList(categories));
-        } catch (Exception e) {
-            showErrorMessage("Erro ao carregar categorias: " + e.getMessage());
-        }
+        Long userId = SessionManager.getCurrentUser().getId();
+        dataService.submit(() -> categoryDAO.findAllByUserId(userId),
+            categories -> categoryComboBox.setItems(FXCollections.observableArrayList(categories)),
+            error -> showErrorMessage("Erro ao carregar categorias: " + error.getMessage()));
     }
 
+    /**
+     * Recarrega a lista com os filtros atuais, mesmo sem mudança, por exemplo após excluir uma despesa.
+     */
     public void refreshExpenses() {
-        if (currentUser == null) return;
+        filters.reload(buildFilter());
+    }
+
+    private ExpenseFilter buildFilter() {
+        if (currentUser == null) return null;
 
-        LocalDate startDate = startDatePicker.getValue();
-        LocalDate endDate = endDatePicker.getValue();
         Category selectedCategory = categoryComboBox.getValue();
+        return ExpenseFilter.builder()
+            .userId(currentUser.getId())
+            .startDate(startDatePicker.getValue())
+            .endDate(endDatePicker.getValue())
+            .categoryId(selectedCategory != null ? selectedCategory.getId() : null)
+            .build();
+    }
 
-        List<Expense> expenses = expenseDAO.findWithFilters(
-            currentUser.getId(),
-            startDate,
-            endDate,
-            selectedCategory != null ? selectedCategory.getId() : null,
-            null,
-            null
-        );
+    private void applyFilter(ExpenseFilter filter) {
+        currentFilter = filter;
 
-        expenseTable.setItems(FXCollections.observableArrayList(expenses));
-        updateTotal(expenses);
+        expensePager.reload();
+        totalChannel.submit(() -> expenseDAO.getTotalWithFilters(filter), this::updateTotal,
+            error -> {
+                filters.failed(filter);
+                showErrorMessage("Erro ao calcular o total");
+            });
     }
 
-    private void updateTotal(List<Expense> expenses) {
-        BigDecimal total = expenses.stream()
-            .map(Expense::getAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        totalLabel.setText("Total: " + currencyFormatter.format(total));
+    private void updateTotal(Money total) {
+        totalLabel.setText("Total: " + total.format(currencyFormatter));
     }
 
     private void handleEditExpense(Expense expense) {
@@ -175,8 +196,13 @@ public class ExpenseListController {
         alert.setContentText("Tem certeza que deseja excluir esta despesa?");
 
         if (alert.showAndWait().orElse(ButtonType.CANCEL) == ButtonType.OK) {
-            expenseDAO.delete(expense.getId(), currentUser.getId());
-            refreshExpenses();
+            Long userId = currentUser.getId();
+            dataService.submit(() -> {
+                    expenseDAO.delete(expense.getId(), userId);
+                    return null;
+                },
+                ignored -> refreshExpenses(),
+                error -> showErrorMessage("Erro ao excluir despesa"));
         }
     }
 
@@ -187,10 +213,4 @@ public class ExpenseListController {
         alert.setContentText(message);
         alert.showAndWait();
     }
-
-    private Category findCategoryById(Long categoryId) {
-        if (categoryId == null) return null;
-        return categoryDAO.findById(categoryId, SessionManager.getCurrentUser().getId())
-            .orElse(null);
-    }
 }
@@ -2,20 +2,29 @@ package com.expenses.controller;
 
 import com.expenses.dao.CategoryDAO;
 import com.expenses.dao.ExpenseDAO;
+import com.expenses.dao.ExpenseFilter;
 import com.expenses.model.Category;
 import com.expenses.model.Expense;
+import com.expenses.model.ImportJob;
+import com.expenses.model.Money;
 import com.expenses.model.User;
+import com.expenses.service.DataService;
+import com.expenses.service.importer.CategoryMapper;
+import com.expenses.service.importer.ImportOptions;
+import com.expenses.service.importer.StatementImporter;
+import com.expenses.util.PagedTableLoader;
 import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
+import javafx.stage.FileChooser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.math.BigDecimal;
+import java.io.File;
 import java.text.NumberFormat;
 import java.time.LocalDate;
 import java.util.List;
@@ -23,12 +32,13 @@ import java.util.Locale;
 
 public class ExpenseManagementController {
     private static final Logger logger = LoggerFactory.getLogger(ExpenseManagementController.class);
+    private static final String IMPORT_CATEGORY = "Importadas";
 
     @FXML private TableView<Expense> expenseTable;
     @FXML private TableColumn<Expense, LocalDate> dateColumn;
     @FXML private TableColumn<Expense, String> descriptionColumn;
-    @FXML private TableColumn<Expense, Category> categoryColumn;
-    @FXML private TableColumn<Expense, BigDecimal> amountColumn;
+    @FXML private TableColumn<Expense, String> categoryColumn;
+    @FXML private TableColumn<Expense, Money> amountColumn;
     @FXML private TableColumn<Expense, Void> actionsColumn;
 
     @FXML private DatePicker startDatePicker;
@@ -37,13 +47,20 @@ public class ExpenseManagementController {
     @FXML private TextField minValueFilter;
     @FXML private TextField maxValueFilter;
     @FXML private Label totalLabel;
+    @FXML private Button importButton;
+    @FXML private ProgressBar importProgress;
+    @FXML private Label importStatusLabel;
 
     private final ExpenseDAO expenseDAO = new ExpenseDAO();
     private final CategoryDAO categoryDAO = new CategoryDAO();
-    private final ObservableList<Expense> expenses = FXCollections.observableArrayList();
+    private final DataService dataService = DataService.getInstance();
+    private final DataService.Channel totalChannel = dataService.channel();
+    private final StatementImporter statementImporter = new StatementImporter();
     private final NumberFormat currencyFormatter = NumberFormat.getCurrencyInstance(new Locale("pt", "BR"));
 
     private User currentUser;
+    private PagedTableLoader<Expense> expensePager;
+    private ExpenseFilter currentFilter;
 
     @FXML
     public void initialize() {
@@ -60,21 +77,26 @@ public class ExpenseManagementController {
     private void setupTableColumns() {
         dateColumn.setCellValueFactory(new PropertyValueFactory<>("date"));
         descriptionColumn.setCellValueFactory(new PropertyValueFactory<>("description"));
-        categoryColumn.setCellValueFactory(new PropertyValueFactory<>("category"));
+        categoryColumn.setCellValueFactory(new PropertyValueFactory<>("categoryName"));
         amountColumn.setCellValueFactory(new PropertyValueFactory<>("amount"));
         
         // Formatação personalizada para o valor
         amountColumn.setCellFactory(column -> new TableCell<>() {
             @Override
-            protected void updateItem(BigDecimal amount, boolean empty) {
+            protected void updateItem(Money amount, boolean empty) {
                 super.updateItem(amount, empty);
                 if (empty || amount == null) {
                     setText(null);
                 } else {
-                    setText(currencyFormatter.format(amount));
+                    setText(amount.format(currencyFormatter));
                 }
             }
         });
+
+        // Linhas carregadas por página conforme o usuário rola a tabela
+        expensePager = new PagedTableLoader<>(expenseTable, ExpenseDAO.DEFAULT_PAGE_SIZE,
+            (last, pageSize) -> expenseDAO.findPage(currentFilter, last, pageSize));
+        expensePager.setOnError(error -> showError("Erro ao filtrar despesas"));
     }
 
     private void setupFilters() {
@@ -139,19 +161,14 @@ public class ExpenseManagementController {
     }
 
     private void loadCategories() {
-        try {
-            List<Category> categories = categoryDAO.findAllByUserId(currentUser.getId());
-            categoryFilter.setItems(FXCollections.observableArrayList(categories));
-        } catch (Exception e) {
-            logger.error("Erro ao carregar categorias", e);
-            showError("Erro ao carregar categorias");
+        if (currentUser == null) {
+            return;
         }
-    }
 
-    private Category findCategoryById(Long categoryId) {
-        if (categoryId == null) return null;
-        return categoryDAO.findById(categoryId, currentUser.getId())
-            .orElse(null);
+        Long userId = currentUser.getId();
+        dataService.submit(() -> categoryDAO.findAllByUserId(userId),
+            categories -> categoryFilter.setItems(FXCollections.observableArrayList(categories)),
+            error -> showError("Erro ao carregar categorias"));
     }
 
     private void loadExpenses() {
@@ -160,29 +177,30 @@ public class ExpenseManagementController {
             LocalDate startDate = startDatePicker.getValue();
             LocalDate endDate = endDatePicker.getValue();
             Category selectedCategory = categoryFilter.getValue();
-            BigDecimal minValue = null;
-            BigDecimal maxValue = null;
+            Money minValue = null;
+            Money maxValue = null;
 
             if (!minValueFilter.getText().isEmpty()) {
-                minValue = new BigDecimal(minValueFilter.getText());
+                minValue = Money.parse(minValueFilter.getText());
             }
             if (!maxValueFilter.getText().isEmpty()) {
-                maxValue = new BigDecimal(maxValueFilter.getText());
+                maxValue = Money.parse(maxValueFilter.getText());
             }
 
             // Carregar despesas com filtros
-            List<Expense> filteredExpenses = expenseDAO.findWithFilters(
-                currentUser.getId(),
-                startDate,
-                endDate,
-                selectedCategory != null ? selectedCategory.getId() : null,
-                minValue != null ? minValue.doubleValue() : null,
-                maxValue != null ? maxValue.doubleValue() : null
-            );
-
-            expenses.setAll(filteredExpenses);
-            expenseTable.setItems(expenses);
-            updateTotal();
+            ExpenseFilter filter = ExpenseFilter.builder()
+                .userId(currentUser.getId())
+                .startDate(startDate)
+                .endDate(endDate)
+                .categoryId(selectedCategory != null ? selectedCategory.getId() : null)
+                .minValue(minValue)
+                .maxValue(maxValue)
+                .build();
+            currentFilter = filter;
+
+            expensePager.reload();
+            totalChannel.submit(() -> expenseDAO.getTotalWithFilters(filter), this::updateTotal,
+                error -> showError("Erro ao filtrar despesas"));
         } catch (NumberFormatException e) {
             showError("Valores mínimo e máximo devem ser números válidos");
         } catch (Exception e) {
@@ -191,29 +209,26 @@ public class ExpenseManagementController {
         }
     }
 
-    private BigDecimal parseValue(String text) {
+    private Money parseValue(String text) {
         if (text == null || text.trim().isEmpty()) {
             return null;
         }
         try {
-            return new BigDecimal(text.trim());
+            return Money.parse(text);
         } catch (NumberFormatException e) {
             return null;
         }
     }
 
-    private void updateTotal() {
-        BigDecimal total = expenses.stream()
-            .map(Expense::getAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-        totalLabel.setText(currencyFormatter.format(total));
+    private void updateTotal(Money total) {
+        totalLabel.setText(total.format(currencyFormatter));
     }
 
     @FXML
     private void handleAddExpense() {
         Expense expense = Expense.builder()
             .description("")
-            .amount(BigDecimal.ZERO)
+            .amount(Money.ZERO)
             .date(LocalDate.now())
             .userId(currentUser.getId())
             .build();
@@ -268,8 +283,10 @@ public class ExpenseManagementController {
             if (expense.getId() != null) {
                 descriptionField.setText(expense.getDescription());
                 datePicker.setValue(expense.getDate());
-                categoryCombo.setValue(categoryDAO.findById(expense.getCategoryId(), currentUser.getId())
-                    .orElse(null));
+                categoryCombo.getItems().stream()
+                    .filter(category -> category.getId().equals(expense.getCategoryId()))
+                    .findFirst()
+                    .ifPresent(categoryCombo::setValue);
                 amountField.setText(expense.getAmount().toString());
             }
 
@@ -280,7 +297,7 @@ public class ExpenseManagementController {
                         Expense result = Expense.builder()
                             .id(expense.getId())
                             .description(descriptionField.getText())
-                            .amount(new BigDecimal(amountField.getText()))
+                            .amount(Money.parse(amountField.getText()))
                             .date(datePicker.getValue())
                             .categoryId(categoryCombo.getValue().getId())
                             .userId(currentUser.getId())
@@ -294,20 +311,19 @@ public class ExpenseManagementController {
                 return null;
             });
 
-            dialog.showAndWait().ifPresent(result -> {
-                try {
+            dialog.showAndWait().ifPresent(result -> dataService.submit(() -> {
                     if (result.getId() == null) {
                         expenseDAO.create(result);
                     } else {
                         expenseDAO.update(result);
                     }
+                    return null;
+                },
+                ignored -> {
                     loadExpenses();
                     showSuccess("Despesa salva com sucesso!");
-                } catch (Exception e) {
-                    logger.error("Erro ao salvar despesa", e);
-                    showError("Erro ao salvar despesa");
-                }
-            });
+                },
+                error -> showError("Erro ao salvar despesa")));
 
         } catch (Exception e) {
             logger.error("Erro ao abrir diálogo", e);
@@ -317,17 +333,101 @@ public class ExpenseManagementController {
 
     private void handleDeleteExpense(Expense expense) {
         if (showConfirmationDialog("Confirmar exclusão", "Tem certeza que deseja excluir esta despesa?")) {
-            try {
-                expenseDAO.delete(expense.getId(), currentUser.getId());
-                loadExpenses();
-                showSuccess("Despesa excluída com sucesso!");
-            } catch (Exception e) {
-                logger.error("Erro ao excluir despesa", e);
-                showError("Erro ao excluir despesa");
+            Long userId = currentUser.getId();
+            dataService.submit(() -> {
+                    expenseDAO.delete(expense.getId(), userId);
+                    return null;
+                },
+                ignored -> {
+                    loadExpenses();
+                    showSuccess("Despesa excluída com sucesso!");
+                },
+                error -> showError("Erro ao excluir despesa"));
+        }
+    }
+
+    @FXML
+    private void handleImportStatement() {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Importar Extrato");
+        fileChooser.getExtensionFilters().addAll(
+            new FileChooser.ExtensionFilter("Extratos (*.csv, *.ofx)", "*.csv", "*.ofx", "*.qfx"),
+            new FileChooser.ExtensionFilter("Todos os arquivos", "*.*"));
+        File file = fileChooser.showOpenDialog(expenseTable.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+
+        Long userId = currentUser.getId();
+        Task<ImportJob> task = new Task<>() {
+            @Override
+            protected ImportJob call() throws Exception {
+                ImportOptions options = ImportOptions.builder()
+                    .userId(userId)
+                    .categoryMapper(createCategoryMapper(userId))
+                    .build();
+                return statementImporter.importFile(file.toPath(), options,
+                    progress -> {
+                        updateProgress(progress.fraction(), 1.0);
+                        updateMessage(String.format("%d transações lidas, %d importadas",
+                            progress.job().getRowsRead(), progress.job().getRowsImported()));
+                    },
+                    this::isCancelled);
             }
+        };
+
+        importProgress.progressProperty().bind(task.progressProperty());
+        importStatusLabel.textProperty().bind(task.messageProperty());
+        importProgress.setVisible(true);
+        importButton.setDisable(true);
+
+        task.setOnSucceeded(e -> {
+            finishImport();
+            ImportJob job = task.getValue();
+            loadData();
+            showSuccess(String.format("Importação concluída: %d despesas importadas, %d duplicadas e %d linhas inválidas.",
+                job.getRowsImported(), job.getRowsDuplicate(), job.getRowsInvalid()));
+        });
+        task.setOnFailed(e -> {
+            finishImport();
+            logger.error("Erro ao importar extrato", task.getException());
+            loadExpenses();
+            showError("Erro ao importar extrato. Importe o mesmo arquivo novamente para continuar de onde parou.");
+        });
+
+        try {
+            dataService.execute(task);
+        } catch (Exception e) {
+            finishImport();
+            showError("Erro ao importar extrato");
         }
     }
 
+    private CategoryMapper createCategoryMapper(Long userId) {
+        List<Category> categories = categoryDAO.findAllByUserId(userId);
+        Category fallback = categories.stream()
+            .filter(category -> category.getName().equalsIgnoreCase(IMPORT_CATEGORY))
+            .findFirst()
+            .orElse(null);
+        if (fallback == null) {
+            fallback = Category.builder()
+                .name(IMPORT_CATEGORY)
+                .description("Despesas importadas de extratos sem categoria correspondente")
+                .userId(userId)
+                .build();
+            categoryDAO.create(fallback);
+        }
+        return new CategoryMapper(categories, CategoryMapper.loadRules(), fallback.getId());
+    }
+
+    private void finishImport() {
+        importProgress.progressProperty().unbind();
+        importStatusLabel.textProperty().unbind();
+        importProgress.setVisible(false);
+        importStatusLabel.setText("");
+        importButton.setDisable(false);
+    }
+
     @FXML
     private void handleClearFilters() {
         startDatePicker.setValue(LocalDate.now().withDayOfMonth(1));
@@ -1,7 +1,10 @@
 package com.expenses.controller;
 
+import com.expenses.dao.RecoveryTokenDAO;
 import com.expenses.dao.UserDAO;
+import com.expenses.service.DataService;
 import com.expenses.service.EmailService;
+import javafx.animation.PauseTransition;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -12,16 +15,17 @@ import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
 import javafx.scene.paint.Color;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.util.UUID;
 
 public class ForgotPasswordController {
     private static final Logger logger = LoggerFactory.getLogger(ForgotPasswordController.class);
     private final UserDAO userDAO = new UserDAO();
     private final EmailService emailService = new EmailService();
+    private final DataService dataService = DataService.getInstance();
     
     @FXML private TextField emailField;
     @FXML private Button sendButton;
@@ -50,39 +54,44 @@ public class ForgotPasswordController {
             return;
         }
         
-        try {
-            if (!userDAO.emailExists(email)) {
-                showError("Email não encontrado");
-                return;
-            }
-            
-            // Gera um token único para recuperação
-            String token = UUID.randomUUID().toString();
-            
-            // Salva o token no banco
-            userDAO.saveRecoveryToken(email, token);
-            
-            // Envia o email com o link de recuperação
-            String recoveryLink = "http://localhost:8080/reset-password?token=" + token;
-            emailService.sendRecoveryEmail(email, recoveryLink);
-            
-            showSuccess("Email de recuperação enviado com sucesso!");
-            logger.info("Recovery email sent to: {}", email);
-            
-            // Aguarda um pouco antes de redirecionar para o login
-            new Thread(() -> {
-                try {
-                    Thread.sleep(3000);
-                    javafx.application.Platform.runLater(this::navigateToLogin);
-                } catch (InterruptedException e) {
-                    logger.error("Error during redirect delay", e);
+        // Consulta, gravação do token e enfileiramento do email ficam fora da thread da interface
+        sendButton.setDisable(true);
+        dataService.submit(() -> {
+                if (!userDAO.emailExists(email)) {
+                    return false;
                 }
-            }).start();
-            
-        } catch (Exception e) {
-            showError("Erro ao enviar email de recuperação. Tente novamente.");
-            logger.error("Error sending recovery email", e);
-        }
+
+                // Gera um token único para recuperação
+                String token = RecoveryTokenDAO.generateToken();
+
+                // Salva o token no banco
+                userDAO.saveRecoveryToken(email, token);
+
+                // Enfileira o email com o link de recuperação; o envio é feito em segundo plano
+                String recoveryLink = "http://localhost:8080/reset-password?token=" + token;
+                emailService.queueRecoveryEmail(email, recoveryLink);
+                return true;
+            },
+            found -> {
+                if (!found) {
+                    sendButton.setDisable(false);
+                    showError("Email não encontrado");
+                    return;
+                }
+
+                showSuccess("Email de recuperação enviado com sucesso!");
+                logger.info("Recovery email queued for: {}", email);
+
+                // Aguarda um pouco antes de redirecionar para o login
+                PauseTransition delay = new PauseTransition(Duration.seconds(3));
+                delay.setOnFinished(event -> navigateToLogin());
+                delay.play();
+            },
+            error -> {
+                sendButton.setDisable(false);
+                showError("Erro ao enviar email de recuperação. Tente novamente.");
+                logger.error("Error sending recovery email", error);
+            });
     }
     
     private void navigateToLogin() {
@@ -2,6 +2,7 @@ package com.expenses.controller;
 
 import com.expenses.dao.UserDAO;
 import com.expenses.model.User;
+import com.expenses.service.security.LoginThrottledException;
 import javafx.animation.PauseTransition;
 import javafx.application.Platform;
 import javafx.concurrent.Task;
@@ -19,6 +20,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.prefs.Preferences;
 
 public class LoginController {
@@ -145,6 +147,9 @@ public class LoginController {
             protected Optional<User> call() {
                 try {
                     return userDAO.authenticate(email, password);
+                } catch (RejectedExecutionException | LoginThrottledException e) {
+                    // Fila de verificação cheia ou tentativas demais: tratados em setOnFailed
+                    throw e;
                 } catch (RuntimeException e) {
                     logger.error("Authentication error", e);
                     Platform.runLater(() -> showError("Erro de conexão com o banco de dados"));
@@ -183,7 +188,15 @@ public class LoginController {
         });
         
         loginTask.setOnFailed(e -> {
-            showError("Erro ao realizar login. Tente novamente.");
+            if (loginTask.getException() instanceof LoginThrottledException throttled) {
+                long seconds = Math.max(1, (throttled.getRetryAfter().toMillis() + 999) / 1000);
+                showError("Muitas tentativas de login. Tente novamente em " + seconds + " segundos.");
+                passwordField.clear();
+            } else if (loginTask.getException() instanceof RejectedExecutionException) {
+                showError("Muitos logins em andamento. Tente novamente em instantes.");
+            } else {
+                showError("Erro ao realizar login. Tente novamente.");
+            }
             logger.error("Login error", loginTask.getException());
             loginButton.setDisable(false);
             loginProgress.setVisible(false);
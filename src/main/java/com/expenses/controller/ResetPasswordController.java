@@ -1,6 +1,8 @@
 package com.expenses.controller;
 
 import com.expenses.dao.UserDAO;
+import com.expenses.service.DataService;
+import javafx.animation.PauseTransition;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -10,6 +12,7 @@ import javafx.scene.control.Label;
 import javafx.scene.control.PasswordField;
 import javafx.scene.paint.Color;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -18,6 +21,7 @@ import java.io.IOException;
 public class ResetPasswordController {
     private static final Logger logger = LoggerFactory.getLogger(ResetPasswordController.class);
     private final UserDAO userDAO = new UserDAO();
+    private final DataService dataService = DataService.getInstance();
     private String token;
     
     @FXML private PasswordField newPasswordField;
@@ -38,10 +42,16 @@ public class ResetPasswordController {
         this.token = token;
         
         // Valida o token assim que for definido
-        if (!userDAO.validateRecoveryToken(token)) {
-            showError("Link de recuperação inválido ou expirado");
-            resetButton.setDisable(true);
-        }
+        resetButton.setDisable(true);
+        dataService.submit(() -> userDAO.validateRecoveryToken(token),
+            valid -> {
+                if (valid) {
+                    resetButton.setDisable(false);
+                } else {
+                    showError("Link de recuperação inválido ou expirado");
+                }
+            },
+            error -> showError("Erro ao validar o link de recuperação"));
     }
     
     private void handleResetPassword() {
@@ -63,24 +73,23 @@ public class ResetPasswordController {
             return;
         }
         
-        try {
-            userDAO.updatePassword(token, newPassword);
-            showSuccess("Senha atualizada com sucesso!");
-            
-            // Aguarda um pouco antes de redirecionar para o login
-            new Thread(() -> {
-                try {
-                    Thread.sleep(2000);
-                    javafx.application.Platform.runLater(this::navigateToLogin);
-                } catch (InterruptedException e) {
-                    logger.error("Error during redirect delay", e);
-                }
-            }).start();
-            
-        } catch (Exception e) {
-            showError("Erro ao atualizar senha. Tente novamente.");
-            logger.error("Error resetting password", e);
-        }
+        resetButton.setDisable(true);
+        dataService.submit(() -> {
+                userDAO.updatePassword(token, newPassword);
+                return null;
+            },
+            ignored -> {
+                showSuccess("Senha atualizada com sucesso!");
+
+                // Aguarda um pouco antes de redirecionar para o login
+                PauseTransition delay = new PauseTransition(Duration.seconds(2));
+                delay.setOnFinished(event -> navigateToLogin());
+                delay.play();
+            },
+            error -> {
+                resetButton.setDisable(false);
+                showError("Erro ao atualizar senha. Tente novamente.");
+            });
     }
     
     private void navigateToLogin() {
@@ -0,0 +1,57 @@
+package com.expenses.dao;
+
+import com.expenses.model.Category;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Cache das categorias de cada usuário, compartilhado entre as instâncias de {@link CategoryDAO}.
+ * <p>
+ * É invalidado pelo próprio {@link CategoryDAO} a cada escrita. As categorias retornadas são
+ * compartilhadas: quem precisar alterar uma categoria deve trabalhar sobre uma cópia.
+ */
+public final class CategoryCache {
+    private static final CategoryCache instance = new CategoryCache();
+
+    private final Map<Long, Entry> byUser = new ConcurrentHashMap<>();
+
+    /**
+     * Categorias de um usuário, na ordem da consulta e indexadas por id.
+     */
+    public record Entry(List<Category> ordered, Map<Long, Category> byId) {
+
+        static Entry of(List<Category> categories) {
+            Map<Long, Category> byId = new LinkedHashMap<>();
+            for (Category category : categories) {
+                byId.put(category.getId(), category);
+            }
+            return new Entry(List.copyOf(categories), Collections.unmodifiableMap(byId));
+        }
+    }
+
+    private CategoryCache() {}
+
+    public static CategoryCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * Retorna as categorias em cache, carregando-as uma única vez com o loader informado.
+     */
+    public Entry get(Long userId, Function<Long, List<Category>> loader) {
+        return byUser.computeIfAbsent(userId, id -> Entry.of(loader.apply(id)));
+    }
+
+    public void invalidate(Long userId) {
+        byUser.remove(userId);
+    }
+
+    public void clear() {
+        byUser.clear();
+    }
+}
@@ -13,6 +13,10 @@ import java.util.Optional;
 public class CategoryDAO {
     private static final Logger logger = LoggerFactory.getLogger(CategoryDAO.class);
 
+    private final CategoryCache cache = CategoryCache.getInstance();
+    // Nomes de categoria fazem parte dos totais em cache
+    private final DataVersions versions = DataVersions.getInstance();
+
     public void create(Category category) {
         String sql = "INSERT INTO categories (name, description, user_id) VALUES (?, ?, ?)";
         
@@ -31,6 +35,8 @@ public class CategoryDAO {
                 }
             }
             
+            cache.invalidate(category.getUserId());
+            versions.bump(category.getUserId());
             logger.info("Category created successfully: {}", category.getName());
             
         } catch (SQLException e) {
@@ -51,6 +57,8 @@ public class CategoryDAO {
             stmt.setLong(4, category.getUserId());
             
             stmt.executeUpdate();
+            cache.invalidate(category.getUserId());
+            versions.bump(category.getUserId());
             logger.info("Category updated successfully: {}", category.getName());
             
         } catch (SQLException e) {
@@ -69,6 +77,8 @@ public class CategoryDAO {
             stmt.setLong(2, userId);
             
             stmt.executeUpdate();
+            cache.invalidate(userId);
+            versions.bump(userId);
             logger.info("Category deleted successfully: {}", id);
             
         } catch (SQLException e) {
@@ -78,40 +88,31 @@ public class CategoryDAO {
     }
 
     public Optional<Category> findById(Long id, Long userId) {
-        String sql = "SELECT * FROM categories WHERE id = ? AND user_id = ?";
-        
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setLong(1, id);
-            stmt.setLong(2, userId);
-            
-            ResultSet rs = stmt.executeQuery();
-            
-            if (rs.next()) {
-                Category category = Category.builder()
-                    .id(rs.getLong("id"))
-                    .name(rs.getString("name"))
-                    .description(rs.getString("description"))
-                    .userId(rs.getLong("user_id"))
-                    .build();
-                    
-                return Optional.of(category);
-            }
-            
-            return Optional.empty();
-            
-        } catch (SQLException e) {
-            logger.error("Error finding category by id", e);
-            throw new RuntimeException("Failed to find category", e);
-        }
+        return Optional.ofNullable(cached(userId).byId().get(id));
     }
 
+    /**
+     * Categorias do usuário ordenadas por nome. Servidas do {@link CategoryCache};
+     * a lista retornada é imutável.
+     */
     public List<Category> findAllByUserId(Long userId) {
+        return cached(userId).ordered();
+    }
+
+    public boolean exists(String name, Long userId) {
+        return cached(userId).ordered().stream()
+            .anyMatch(category -> category.getName().equals(name));
+    }
+
+    private CategoryCache.Entry cached(Long userId) {
+        return cache.get(userId, this::loadAllByUserId);
+    }
+
+    private List<Category> loadAllByUserId(Long userId) {
         String sql = "SELECT * FROM categories WHERE user_id = ? ORDER BY name";
         List<Category> categories = new ArrayList<>();
         
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = DatabaseConfig.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setLong(1, userId);
@@ -128,6 +129,7 @@ public class CategoryDAO {
                 categories.add(category);
             }
             
+            logger.debug("Loaded {} categories for user {}", categories.size(), userId);
             return categories;
             
         } catch (SQLException e) {
@@ -135,27 +137,4 @@ public class CategoryDAO {
             throw new RuntimeException("Failed to find categories", e);
         }
     }
-
-    public boolean exists(String name, Long userId) {
-        String sql = "SELECT COUNT(*) FROM categories WHERE name = ? AND user_id = ?";
-        
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setString(1, name);
-            stmt.setLong(2, userId);
-            
-            ResultSet rs = stmt.executeQuery();
-            
-            if (rs.next()) {
-                return rs.getInt(1) > 0;
-            }
-            
-            return false;
-            
-        } catch (SQLException e) {
-            logger.error("Error checking category existence", e);
-            throw new RuntimeException("Failed to check category existence", e);
-        }
-    }
 }
@@ -0,0 +1,42 @@
+package com.expenses.dao;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versão dos dados de despesas de cada usuário, incrementada pelos DAOs a cada escrita.
+ * <p>
+ * Caches calculados a partir das despesas guardam a versão em que foram montados e só são
+ * reaproveitados enquanto ela não mudar. Escritas que afetam todos os usuários, como a
+ * reconstrução da tabela de totais, usam {@link #bumpAll()}.
+ */
+public final class DataVersions {
+    private static final DataVersions instance = new DataVersions();
+
+    private final Map<Long, AtomicLong> byUser = new ConcurrentHashMap<>();
+    private final AtomicLong global = new AtomicLong();
+
+    private DataVersions() {}
+
+    public static DataVersions getInstance() {
+        return instance;
+    }
+
+    /**
+     * Versão atual dos dados do usuário. Só cresce, então duas leituras iguais garantem que
+     * nada foi gravado entre elas.
+     */
+    public long current(Long userId) {
+        AtomicLong version = byUser.get(userId);
+        return global.get() + (version != null ? version.get() : 0);
+    }
+
+    public void bump(Long userId) {
+        byUser.computeIfAbsent(userId, id -> new AtomicLong()).incrementAndGet();
+    }
+
+    public void bumpAll() {
+        global.incrementAndGet();
+    }
+}
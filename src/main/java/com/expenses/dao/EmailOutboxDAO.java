@@ -0,0 +1,200 @@
+package com.expenses.dao;
+
+import com.expenses.config.DatabaseConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fila persistente de emails a enviar (tabela email_outbox).
+ * <p>
+ * {@link #claimDue} reserva um lote de mensagens vencidas empurrando o next_attempt_at delas
+ * para depois da reserva; o envio então marca cada uma como enviada, agenda nova tentativa
+ * ou desiste. Se o processo morrer no meio, as mensagens voltam para a fila quando a reserva
+ * vencer.
+ * <p>
+ * O corpo pode trazer o link de recuperação com o token em claro, então é apagado assim que a
+ * mensagem sai da fila (enviada ou abandonada), e {@link #purgeOlderThan} remove as linhas
+ * que sobreviveram ao prazo do token. A coluna é NOT NULL, por isso o corpo vira texto vazio.
+ */
+public class EmailOutboxDAO {
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxDAO.class);
+
+    /**
+     * Mensagem reservada para envio.
+     *
+     * @param attempts tentativas já feitas antes desta
+     */
+    public record OutboxMessage(long id, String recipient, String subject, String body, int attempts) {}
+
+    /**
+     * Enfileira a mensagem para envio imediato.
+     *
+     * @return id da mensagem
+     */
+    public long enqueue(String recipient, String subject, String body) {
+        String sql = """
+            INSERT INTO email_outbox (recipient, subject, body, status, next_attempt_at)
+            VALUES (?, ?, ?, 'PENDING', ?)
+        """;
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            stmt.setString(1, recipient);
+            stmt.setString(2, subject);
+            stmt.setString(3, body);
+            stmt.setLong(4, System.currentTimeMillis());
+            stmt.executeUpdate();
+
+            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                if (generatedKeys.next()) {
+                    return generatedKeys.getLong(1);
+                }
+                throw new SQLException("Enqueuing email failed, no ID obtained.");
+            }
+        } catch (SQLException e) {
+            logger.error("Error enqueuing email", e);
+            throw new RuntimeException("Error enqueuing email", e);
+        }
+    }
+
+    /**
+     * Reserva até {@code limit} mensagens pendentes com tentativa vencida, da mais antiga para
+     * a mais nova, por {@code leaseMillis}.
+     */
+    public List<OutboxMessage> claimDue(int limit, long leaseMillis) {
+        String selectSql = """
+            SELECT id, recipient, subject, body, attempts FROM email_outbox
+            WHERE status = 'PENDING' AND next_attempt_at <= ?
+            ORDER BY next_attempt_at, id
+            LIMIT ?
+        """;
+        String leaseSql = "UPDATE email_outbox SET next_attempt_at = ? WHERE id = ?";
+        long now = System.currentTimeMillis();
+        List<OutboxMessage> messages = new ArrayList<>();
+
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement select = conn.prepareStatement(selectSql);
+                 PreparedStatement lease = conn.prepareStatement(leaseSql)) {
+                select.setLong(1, now);
+                select.setInt(2, limit);
+                try (ResultSet rs = select.executeQuery()) {
+                    while (rs.next()) {
+                        messages.add(new OutboxMessage(
+                            rs.getLong("id"),
+                            rs.getString("recipient"),
+                            rs.getString("subject"),
+                            rs.getString("body"),
+                            rs.getInt("attempts")));
+                    }
+                }
+
+                for (OutboxMessage message : messages) {
+                    lease.setLong(1, now + leaseMillis);
+                    lease.setLong(2, message.id());
+                    lease.addBatch();
+                }
+                if (!messages.isEmpty()) {
+                    lease.executeBatch();
+                }
+                conn.commit();
+                return messages;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            logger.error("Error claiming outbox messages", e);
+            throw new RuntimeException("Error claiming outbox messages", e);
+        }
+    }
+
+    public void markSent(long id) {
+        String sql = """
+            UPDATE email_outbox SET status = 'SENT', attempts = attempts + 1, sent_at = ?, last_error = NULL,
+                body = ''
+            WHERE id = ?
+        """;
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, System.currentTimeMillis());
+            stmt.setLong(2, id);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            logger.error("Error marking email as sent", e);
+            throw new RuntimeException("Error marking email as sent", e);
+        }
+    }
+
+    /**
+     * Conta a tentativa que falhou e agenda a próxima para {@code nextAttemptAt}.
+     */
+    public void markRetry(long id, long nextAttemptAt, String error) {
+        String sql = """
+            UPDATE email_outbox SET attempts = attempts + 1, next_attempt_at = ?, last_error = ?
+            WHERE id = ?
+        """;
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, nextAttemptAt);
+            stmt.setString(2, error);
+            stmt.setLong(3, id);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            logger.error("Error scheduling email retry", e);
+            throw new RuntimeException("Error scheduling email retry", e);
+        }
+    }
+
+    /**
+     * Conta a tentativa que falhou e desiste da mensagem.
+     */
+    public void markFailed(long id, String error) {
+        String sql = """
+            UPDATE email_outbox SET status = 'FAILED', attempts = attempts + 1, last_error = ?, body = ''
+            WHERE id = ?
+        """;
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, error);
+            stmt.setLong(2, id);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            logger.error("Error marking email as failed", e);
+            throw new RuntimeException("Error marking email as failed", e);
+        }
+    }
+
+    /**
+     * Apaga até {@code batchSize} mensagens criadas antes de {@code cutoffMillis}, em qualquer
+     * status.
+     *
+     * @return quantidade apagada; menor que {@code batchSize} quando não sobrou nenhuma
+     */
+    public int purgeOlderThan(long cutoffMillis, int batchSize) {
+        String sql = """
+            DELETE FROM email_outbox WHERE id IN (
+                SELECT id FROM email_outbox WHERE created_at <= datetime(? / 1000, 'unixepoch') LIMIT ?
+            )
+        """;
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, cutoffMillis);
+            stmt.setInt(2, batchSize);
+            return stmt.executeUpdate();
+        } catch (SQLException e) {
+            logger.error("Error purging old outbox messages", e);
+            throw new RuntimeException("Error purging old outbox messages", e);
+        }
+    }
+}
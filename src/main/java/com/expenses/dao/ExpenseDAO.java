@@ -2,64 +2,49 @@ package com.expenses.dao;
 
 import com.expenses.config.DatabaseConfig;
 import com.expenses.model.Expense;
+import com.expenses.model.Money;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.math.BigDecimal;
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
+/**
+ * Despesas individuais. Os totais por período e categoria são lidos de expense_daily_totals,
+ * que os triggers de expenses mantêm a cada create, update e delete (ver {@link RollupDAO}).
+ */
 public class ExpenseDAO {
     private static final Logger logger = LoggerFactory.getLogger(ExpenseDAO.class);
-    private final Connection connection;
-
-    public ExpenseDAO() {
-        try {
-            this.connection = DatabaseConfig.getConnection();
-            createTable();
-        } catch (SQLException e) {
-            logger.error("Error initializing ExpenseDAO", e);
-            throw new RuntimeException("Error initializing ExpenseDAO", e);
-        }
-    }
-
-    private void createTable() {
-        try {
-            String sql = """
-                CREATE TABLE IF NOT EXISTS expenses (
-                    id INTEGER PRIMARY KEY AUTOINCREMENT,
-                    description TEXT NOT NULL,
-                    amount DECIMAL(10,2) NOT NULL,
-                    date DATE NOT NULL,
-                    category_id INTEGER NOT NULL,
-                    user_id INTEGER NOT NULL,
-                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                    FOREIGN KEY (category_id) REFERENCES categories(id),
-                    FOREIGN KEY (user_id) REFERENCES users(id)
-                )
-            """;
-
-            try (Statement stmt = connection.createStatement()) {
-                stmt.execute(sql);
-            }
-        } catch (SQLException e) {
-            logger.error("Error creating expenses table", e);
-        }
-    }
+    public static final int DEFAULT_PAGE_SIZE = 200;
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    private final DataVersions versions = DataVersions.getInstance();
+
+    /**
+     * Traz o nome da categoria na mesma consulta, evitando uma busca por linha na tela.
+     */
+    private static final String SELECT_WITH_CATEGORY = """
+        SELECT e.*, c.name AS category_name
+        FROM expenses e
+        LEFT JOIN categories c ON c.id = e.category_id
+        """;
+    private static final String SELECT_EXPENSES = "SELECT e.*, NULL AS category_name FROM expenses e ";
 
     public Expense create(Expense expense) {
         String sql = """
-            INSERT INTO expenses (description, amount, date, category_id, user_id)
+            INSERT INTO expenses (description, amount_cents, date, category_id, user_id)
             VALUES (?, ?, ?, ?, ?)
         """;
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             stmt.setString(1, expense.getDescription());
-            stmt.setBigDecimal(2, expense.getAmount());
+            stmt.setLong(2, expense.getAmountCents());
             stmt.setDate(3, Date.valueOf(expense.getDate()));
             stmt.setLong(4, expense.getCategoryId());
             stmt.setLong(5, expense.getUserId());
@@ -77,6 +62,7 @@ public class ExpenseDAO {
                 }
             }
 
+            versions.bump(expense.getUserId());
             return expense;
         } catch (SQLException e) {
             logger.error("Error creating expense", e);
@@ -87,19 +73,21 @@ public class ExpenseDAO {
     public void update(Expense expense) {
         String sql = """
             UPDATE expenses
-            SET description = ?, amount = ?, date = ?, category_id = ?
+            SET description = ?, amount_cents = ?, date = ?, category_id = ?
             WHERE id = ? AND user_id = ?
         """;
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, expense.getDescription());
-            stmt.setBigDecimal(2, expense.getAmount());
+            stmt.setLong(2, expense.getAmountCents());
             stmt.setDate(3, Date.valueOf(expense.getDate()));
             stmt.setLong(4, expense.getCategoryId());
             stmt.setLong(5, expense.getId());
             stmt.setLong(6, expense.getUserId());
 
             stmt.executeUpdate();
+            versions.bump(expense.getUserId());
         } catch (SQLException e) {
             logger.error("Error updating expense", e);
             throw new RuntimeException("Error updating expense", e);
@@ -109,10 +97,12 @@ public class ExpenseDAO {
     public void delete(Long id, Long userId) {
         String sql = "DELETE FROM expenses WHERE id = ? AND user_id = ?";
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setLong(1, id);
             stmt.setLong(2, userId);
             stmt.executeUpdate();
+            versions.bump(userId);
         } catch (SQLException e) {
             logger.error("Error deleting expense", e);
             throw new RuntimeException("Error deleting expense", e);
@@ -120,10 +110,11 @@ public class ExpenseDAO {
     }
 
     public List<Expense> findAllByUserId(Long userId) {
-        String sql = "SELECT * FROM expenses WHERE user_id = ? ORDER BY date DESC";
+        String sql = SELECT_WITH_CATEGORY + "WHERE e.user_id = ? ORDER BY e.date DESC";
         List<Expense> expenses = new ArrayList<>();
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection conn = DatabaseConfig.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setLong(1, userId);
 
             try (ResultSet rs = stmt.executeQuery()) {
@@ -140,14 +131,14 @@ public class ExpenseDAO {
     }
 
     public List<Expense> findByDateRange(Long userId, LocalDate startDate, LocalDate endDate) {
-        String sql = """
-            SELECT * FROM expenses
-            WHERE user_id = ? AND date BETWEEN ? AND ?
-            ORDER BY date DESC
+        String sql = SELECT_WITH_CATEGORY + """
+            WHERE e.user_id = ? AND e.date BETWEEN ? AND ?
+            ORDER BY e.date DESC
         """;
         List<Expense> expenses = new ArrayList<>();
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection conn = DatabaseConfig.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setLong(1, userId);
             stmt.setDate(2, Date.valueOf(startDate));
             stmt.setDate(3, Date.valueOf(endDate));
@@ -166,10 +157,11 @@ public class ExpenseDAO {
     }
 
     public List<Expense> findByCategoryId(Long categoryId, Long userId) {
-        String sql = "SELECT * FROM expenses WHERE category_id = ? AND user_id = ? ORDER BY date DESC";
+        String sql = SELECT_WITH_CATEGORY + "WHERE e.category_id = ? AND e.user_id = ? ORDER BY e.date DESC";
         List<Expense> expenses = new ArrayList<>();
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection conn = DatabaseConfig.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setLong(1, categoryId);
             stmt.setLong(2, userId);
 
@@ -186,76 +178,194 @@ public class ExpenseDAO {
         return expenses;
     }
 
-    public List<Expense> findWithFilters(Long userId, LocalDate startDate, LocalDate endDate, 
-            Long categoryId, Double minValue, Double maxValue) {
-        StringBuilder sql = new StringBuilder(
-            "SELECT * FROM expenses WHERE user_id = ?"
-        );
-        List<Object> params = new ArrayList<>();
-        params.add(userId);
+    public List<Expense> findWithFilters(ExpenseFilter filter) {
+        List<Expense> expenses = new ArrayList<>();
+        forEach(filter, expenses::add);
+        return expenses;
+    }
 
-        if (startDate != null) {
-            sql.append(" AND date >= ?");
-            params.add(Date.valueOf(startDate));
-        }
-        if (endDate != null) {
-            sql.append(" AND date <= ?");
-            params.add(Date.valueOf(endDate));
-        }
-        if (categoryId != null) {
-            sql.append(" AND category_id = ?");
-            params.add(categoryId);
-        }
-        if (minValue != null) {
-            sql.append(" AND amount >= ?");
-            params.add(BigDecimal.valueOf(minValue));
-        }
-        if (maxValue != null) {
-            sql.append(" AND amount <= ?");
-            params.add(BigDecimal.valueOf(maxValue));
+    /**
+     * Busca uma página de despesas ordenada por data e id decrescentes.
+     * <p>
+     * A paginação é por keyset: a próxima página começa depois de {@code after}
+     * (a última despesa da página anterior), sem OFFSET, então o custo não cresce
+     * com a posição na lista.
+     *
+     * @param after última despesa da página anterior, ou {@code null} para a primeira página
+     */
+    public Page<Expense> findPage(ExpenseFilter filter, Expense after, int limit) {
+        StringBuilder sql = new StringBuilder(SELECT_WITH_CATEGORY).append("WHERE e.user_id = ?");
+        List<Object> params = new ArrayList<>();
+        params.add(filter.getUserId());
+        appendFilters(sql, params, filter);
+
+        if (after != null) {
+            // date <= ? permite que o SQLite use o índice como limite do intervalo
+            sql.append(" AND e.date <= ? AND (e.date < ? OR e.id < ?)");
+            Date afterDate = Date.valueOf(after.getDate());
+            params.add(afterDate);
+            params.add(afterDate);
+            params.add(after.getId());
         }
 
-        sql.append(" ORDER BY date DESC");
+        sql.append(" ORDER BY e.date DESC, e.id DESC LIMIT ?");
+        params.add((long) limit + 1);
 
-        List<Expense> expenses = new ArrayList<>();
-        try (PreparedStatement stmt = connection.prepareStatement(sql.toString())) {
-            for (int i = 0; i < params.size(); i++) {
-                Object param = params.get(i);
-                if (param instanceof Long) {
-                    stmt.setLong(i + 1, (Long) param);
-                } else if (param instanceof Date) {
-                    stmt.setDate(i + 1, (Date) param);
-                } else if (param instanceof BigDecimal) {
-                    stmt.setBigDecimal(i + 1, (BigDecimal) param);
+        List<Expense> expenses = new ArrayList<>(limit + 1);
+        try (Connection conn = DatabaseConfig.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            bindParams(stmt, params);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    expenses.add(mapResultSetToExpense(rs));
                 }
             }
+        } catch (SQLException e) {
+            logger.error("Error finding expense page", e);
+            throw new RuntimeException("Error finding expense page", e);
+        }
+
+        boolean hasMore = expenses.size() > limit;
+        if (hasMore) {
+            expenses.remove(limit);
+        }
+        return new Page<>(expenses, hasMore);
+    }
+
+    /**
+     * Percorre as despesas do filtro linha a linha, sem materializar a lista.
+     * A conexão fica ocupada até o consumidor terminar, então ele não deve bloquear.
+     *
+     * @return quantidade de despesas entregues ao consumidor
+     */
+    public long forEach(ExpenseFilter filter, Consumer<Expense> consumer) {
+        return forEach(SELECT_WITH_CATEGORY, filter, consumer);
+    }
+
+    /**
+     * Como {@link #forEach(ExpenseFilter, Consumer)}, mas sem o JOIN com categorias: o nome da
+     * categoria vem nulo e deve ser resolvido pelo chamador, por exemplo com um dicionário
+     * carregado uma única vez. Usado pelas exportações.
+     */
+    public long forEachWithoutCategoryName(ExpenseFilter filter, Consumer<Expense> consumer) {
+        return forEach(SELECT_EXPENSES, filter, consumer);
+    }
+
+    private long forEach(String select, ExpenseFilter filter, Consumer<Expense> consumer) {
+        StringBuilder sql = new StringBuilder(select).append("WHERE e.user_id = ?");
+        List<Object> params = new ArrayList<>();
+        params.add(filter.getUserId());
+        appendFilters(sql, params, filter);
+        sql.append(" ORDER BY e.date DESC, e.id DESC");
+
+        long count = 0;
+        try (Connection conn = DatabaseConfig.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            bindParams(stmt, params);
+            stmt.setFetchSize(STREAM_FETCH_SIZE);
 
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    expenses.add(mapResultSetToExpense(rs));
+                    consumer.accept(mapResultSetToExpense(rs));
+                    count++;
                 }
             }
         } catch (SQLException e) {
-            logger.error("Error finding expenses with filters", e);
-            throw new RuntimeException("Error finding expenses with filters", e);
+            logger.error("Error streaming expenses with filters", e);
+            throw new RuntimeException("Error streaming expenses with filters", e);
         }
+        return count;
+    }
 
-        return expenses;
+    public Money getTotalWithFilters(ExpenseFilter filter) {
+        StringBuilder sql = new StringBuilder(
+            "SELECT COALESCE(SUM(e.amount_cents), 0) as total FROM expenses e WHERE e.user_id = ?"
+        );
+        List<Object> params = new ArrayList<>();
+        params.add(filter.getUserId());
+        appendFilters(sql, params, filter);
+
+        try (Connection conn = DatabaseConfig.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            bindParams(stmt, params);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? Money.ofCents(rs.getLong("total")) : Money.ZERO;
+            }
+        } catch (SQLException e) {
+            logger.error("Error getting total with filters", e);
+            throw new RuntimeException("Error getting total with filters", e);
+        }
+    }
+
+    public long countWithFilters(ExpenseFilter filter) {
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*) as total FROM expenses e WHERE e.user_id = ?");
+        List<Object> params = new ArrayList<>();
+        params.add(filter.getUserId());
+        appendFilters(sql, params, filter);
+
+        try (Connection conn = DatabaseConfig.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            bindParams(stmt, params);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getLong("total") : 0;
+            }
+        } catch (SQLException e) {
+            logger.error("Error counting expenses with filters", e);
+            throw new RuntimeException("Error counting expenses with filters", e);
+        }
+    }
+
+    private void appendFilters(StringBuilder sql, List<Object> params, ExpenseFilter filter) {
+        if (filter.getStartDate() != null) {
+            sql.append(" AND e.date >= ?");
+            params.add(Date.valueOf(filter.getStartDate()));
+        }
+        if (filter.getEndDate() != null) {
+            sql.append(" AND e.date <= ?");
+            params.add(Date.valueOf(filter.getEndDate()));
+        }
+        if (filter.getCategoryId() != null) {
+            sql.append(" AND e.category_id = ?");
+            params.add(filter.getCategoryId());
+        }
+        if (filter.getMinValue() != null) {
+            sql.append(" AND e.amount_cents >= ?");
+            params.add(filter.getMinValue().getCents());
+        }
+        if (filter.getMaxValue() != null) {
+            sql.append(" AND e.amount_cents <= ?");
+            params.add(filter.getMaxValue().getCents());
+        }
     }
 
-    public Map<String, BigDecimal> getExpensesByCategory(Long userId, LocalDate startDate, LocalDate endDate) {
+    private void bindParams(PreparedStatement stmt, List<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            Object param = params.get(i);
+            if (param instanceof Long) {
+                stmt.setLong(i + 1, (Long) param);
+            } else if (param instanceof Date) {
+                stmt.setDate(i + 1, (Date) param);
+            }
+        }
+    }
+
+    public Map<String, Money> getExpensesByCategory(Long userId, LocalDate startDate, LocalDate endDate) {
         String sql = """
-            SELECT c.name, SUM(e.amount) as total
-            FROM expenses e
-            JOIN categories c ON e.category_id = c.id
-            WHERE e.user_id = ? AND e.date BETWEEN ? AND ?
+            SELECT c.name, SUM(r.total_cents) as total
+            FROM expense_daily_totals r
+            JOIN categories c ON r.category_id = c.id
+            WHERE r.user_id = ? AND r.day BETWEEN ? AND ?
             GROUP BY c.name
             ORDER BY total DESC
         """;
 
-        Map<String, BigDecimal> results = new HashMap<>();
+        Map<String, Money> results = new HashMap<>();
         
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection conn = DatabaseConfig.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setLong(1, userId);
             stmt.setDate(2, Date.valueOf(startDate));
@@ -264,8 +374,7 @@ public class ExpenseDAO {
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
                     String category = rs.getString("name");
-                    BigDecimal total = rs.getBigDecimal("total");
-                    results.put(category, total);
+                    results.put(category, Money.ofCents(rs.getLong("total")));
                 }
             }
         } catch (SQLException e) {
@@ -280,30 +389,32 @@ public class ExpenseDAO {
         return Expense.builder()
                 .id(rs.getLong("id"))
                 .description(rs.getString("description"))
-                .amount(rs.getBigDecimal("amount"))
+                .amount(Money.ofCents(rs.getLong("amount_cents")))
                 .date(rs.getDate("date").toLocalDate())
                 .categoryId(rs.getLong("category_id"))
                 .userId(rs.getLong("user_id"))
+                .categoryName(rs.getString("category_name"))
                 .build();
     }
 
-    public BigDecimal getTotalExpensesByUser(Long userId, LocalDate startDate, LocalDate endDate) {
+    public Money getTotalExpensesByUser(Long userId, LocalDate startDate, LocalDate endDate) {
         String sql = """
-            SELECT COALESCE(SUM(amount), 0) as total
-            FROM expenses
-            WHERE user_id = ? AND date BETWEEN ? AND ?
+            SELECT COALESCE(SUM(total_cents), 0) as total
+            FROM expense_daily_totals
+            WHERE user_id = ? AND day BETWEEN ? AND ?
         """;
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection conn = DatabaseConfig.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setLong(1, userId);
             stmt.setDate(2, Date.valueOf(startDate));
             stmt.setDate(3, Date.valueOf(endDate));
 
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
-                return rs.getBigDecimal("total");
+                return Money.ofCents(rs.getLong("total"));
             }
-            return BigDecimal.ZERO;
+            return Money.ZERO;
         } catch (SQLException e) {
             logger.error("Error getting total expenses by user", e);
             throw new RuntimeException("Error getting total expenses by user", e);
@@ -312,12 +423,13 @@ public class ExpenseDAO {
 
     public int getCategoryCountByUser(Long userId) {
         String sql = """
-            SELECT COUNT(DISTINCT category_id) as count
-            FROM expenses
+            SELECT COUNT(DISTINCT NULLIF(category_id, 0)) as count
+            FROM expense_daily_totals
             WHERE user_id = ?
         """;
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection conn = DatabaseConfig.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setLong(1, userId);
 
             ResultSet rs = stmt.executeQuery();
@@ -333,12 +445,13 @@ public class ExpenseDAO {
 
     public int getExpenseCountByUser(Long userId, LocalDate startDate, LocalDate endDate) {
         String sql = """
-            SELECT COUNT(*) as count
-            FROM expenses
-            WHERE user_id = ? AND date BETWEEN ? AND ?
+            SELECT COALESCE(SUM(expense_count), 0) as count
+            FROM expense_daily_totals
+            WHERE user_id = ? AND day BETWEEN ? AND ?
         """;
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection conn = DatabaseConfig.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setLong(1, userId);
             stmt.setDate(2, Date.valueOf(startDate));
             stmt.setDate(3, Date.valueOf(endDate));
@@ -0,0 +1,21 @@
+package com.expenses.dao;
+
+import com.expenses.model.Money;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDate;
+
+/**
+ * Critérios de busca de despesas. Campos nulos não filtram.
+ */
+@Value
+@Builder(toBuilder = true)
+public class ExpenseFilter {
+    Long userId;
+    LocalDate startDate;
+    LocalDate endDate;
+    Long categoryId;
+    Money minValue;
+    Money maxValue;
+}
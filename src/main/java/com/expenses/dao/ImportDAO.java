@@ -0,0 +1,222 @@
+package com.expenses.dao;
+
+import com.expenses.config.DatabaseConfig;
+import com.expenses.model.ImportJob;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Gravação em lote das despesas importadas de extratos e do progresso de cada importação.
+ */
+public class ImportDAO {
+    private static final Logger logger = LoggerFactory.getLogger(ImportDAO.class);
+
+    /**
+     * Despesa pronta para ser gravada por uma importação.
+     *
+     * @param importKey identifica a transação de origem; repetições são ignoradas pelo índice único
+     */
+    public record ImportRow(LocalDate date, String description, long amountCents, long categoryId, String importKey) {}
+
+    /**
+     * Importação não concluída do mesmo arquivo, para ser retomada.
+     */
+    public Optional<ImportJob> findResumable(Long userId, String fileHash) {
+        String sql = """
+            SELECT * FROM import_jobs
+            WHERE user_id = ? AND file_hash = ? AND status <> ?
+            ORDER BY id DESC LIMIT 1
+        """;
+
+        try (Connection conn = DatabaseConfig.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, userId);
+            stmt.setString(2, fileHash);
+            stmt.setString(3, ImportJob.Status.COMPLETED.name());
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? Optional.of(mapResultSetToJob(rs)) : Optional.empty();
+            }
+        } catch (SQLException e) {
+            logger.error("Error finding resumable import", e);
+            throw new RuntimeException("Error finding resumable import", e);
+        }
+    }
+
+    public ImportJob createJob(ImportJob job) {
+        String sql = """
+            INSERT INTO import_jobs (user_id, file_name, file_hash, format, status)
+            VALUES (?, ?, ?, ?, ?)
+        """;
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            stmt.setLong(1, job.getUserId());
+            stmt.setString(2, job.getFileName());
+            stmt.setString(3, job.getFileHash());
+            stmt.setString(4, job.getFormat());
+            stmt.setString(5, ImportJob.Status.RUNNING.name());
+            stmt.executeUpdate();
+
+            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                if (generatedKeys.next()) {
+                    job.setId(generatedKeys.getLong(1));
+                }
+            }
+            job.setStatus(ImportJob.Status.RUNNING);
+            return job;
+        } catch (SQLException e) {
+            logger.error("Error creating import job", e);
+            throw new RuntimeException("Error creating import job", e);
+        }
+    }
+
+    /**
+     * Grava um lote e o progresso da importação na mesma transação, de modo que após uma
+     * falha a importação recomece exatamente depois do último lote confirmado.
+     *
+     * Só a chave de importação repetida é ignorada; qualquer outra restrição violada desfaz o lote.
+     *
+     * @return quantidade de despesas efetivamente inseridas (as já importadas são ignoradas)
+     */
+    public int insertChunk(ImportJob job, List<ImportRow> rows) {
+        String insertSql = """
+            INSERT INTO expenses (description, amount_cents, date, category_id, user_id, import_key)
+            VALUES (?, ?, ?, ?, ?, ?)
+            ON CONFLICT (user_id, import_key) WHERE import_key IS NOT NULL DO NOTHING
+        """;
+
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(insertSql)) {
+                for (ImportRow row : rows) {
+                    stmt.setString(1, row.description());
+                    stmt.setLong(2, row.amountCents());
+                    stmt.setDate(3, Date.valueOf(row.date()));
+                    stmt.setLong(4, row.categoryId());
+                    stmt.setLong(5, job.getUserId());
+                    stmt.setString(6, row.importKey());
+                    stmt.addBatch();
+                }
+
+                int inserted = 0;
+                for (int count : stmt.executeBatch()) {
+                    if (count > 0) {
+                        inserted += count;
+                    }
+                }
+
+                job.setRowsImported(job.getRowsImported() + inserted);
+                job.setRowsDuplicate(job.getRowsDuplicate() + rows.size() - inserted);
+                updateProgress(conn, job);
+                conn.commit();
+                if (inserted > 0) {
+                    DataVersions.getInstance().bump(job.getUserId());
+                }
+                return inserted;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            logger.error("Error inserting import chunk", e);
+            throw new RuntimeException("Error inserting import chunk", e);
+        }
+    }
+
+    /**
+     * Grava o progresso e o status atuais da importação.
+     */
+    public void saveJob(ImportJob job) {
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            updateProgress(conn, job);
+        } catch (SQLException e) {
+            logger.error("Error updating import job", e);
+            throw new RuntimeException("Error updating import job", e);
+        }
+    }
+
+    /**
+     * Conta as despesas lançadas manualmente (sem import_key) no período, agrupadas por
+     * data, valor e descrição normalizada, para detectar transações já registradas.
+     */
+    public Map<String, Integer> countManualExpenses(Long userId, LocalDate startDate, LocalDate endDate) {
+        String sql = """
+            SELECT date, amount_cents, description FROM expenses
+            WHERE user_id = ? AND date BETWEEN ? AND ? AND import_key IS NULL
+        """;
+        Map<String, Integer> counts = new HashMap<>();
+
+        try (Connection conn = DatabaseConfig.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, userId);
+            stmt.setDate(2, Date.valueOf(startDate));
+            stmt.setDate(3, Date.valueOf(endDate));
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    String key = manualKey(rs.getDate("date").toLocalDate(), rs.getLong("amount_cents"),
+                        rs.getString("description"));
+                    counts.merge(key, 1, Integer::sum);
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error reading manual expenses for import", e);
+            throw new RuntimeException("Error reading manual expenses for import", e);
+        }
+
+        return counts;
+    }
+
+    public static String manualKey(LocalDate date, long amountCents, String description) {
+        String normalized = description == null ? "" : description.trim().replaceAll("\\s+", " ").toLowerCase();
+        return date + "|" + amountCents + "|" + normalized;
+    }
+
+    private void updateProgress(Connection conn, ImportJob job) throws SQLException {
+        String sql = """
+            UPDATE import_jobs
+            SET status = ?, last_position = ?, rows_read = ?, rows_imported = ?,
+                rows_duplicate = ?, rows_invalid = ?, error = ?, updated_at = CURRENT_TIMESTAMP
+            WHERE id = ?
+        """;
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, job.getStatus().name());
+            stmt.setLong(2, job.getLastPosition());
+            stmt.setLong(3, job.getRowsRead());
+            stmt.setLong(4, job.getRowsImported());
+            stmt.setLong(5, job.getRowsDuplicate());
+            stmt.setLong(6, job.getRowsInvalid());
+            stmt.setString(7, job.getError());
+            stmt.setLong(8, job.getId());
+            stmt.executeUpdate();
+        }
+    }
+
+    private ImportJob mapResultSetToJob(ResultSet rs) throws SQLException {
+        return ImportJob.builder()
+                .id(rs.getLong("id"))
+                .userId(rs.getLong("user_id"))
+                .fileName(rs.getString("file_name"))
+                .fileHash(rs.getString("file_hash"))
+                .format(rs.getString("format"))
+                .status(ImportJob.Status.valueOf(rs.getString("status")))
+                .lastPosition(rs.getLong("last_position"))
+                .rowsRead(rs.getLong("rows_read"))
+                .rowsImported(rs.getLong("rows_imported"))
+                .rowsDuplicate(rs.getLong("rows_duplicate"))
+                .rowsInvalid(rs.getLong("rows_invalid"))
+                .error(rs.getString("error"))
+                .build();
+    }
+}
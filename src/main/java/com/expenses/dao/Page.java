@@ -0,0 +1,16 @@
+package com.expenses.dao;
+
+import java.util.List;
+
+/**
+ * Uma página de resultados de uma consulta paginada por keyset.
+ *
+ * @param items   itens da página, na ordem da consulta
+ * @param hasMore se existem itens depois do último desta página
+ */
+public record Page<T>(List<T> items, boolean hasMore) {
+
+    public T last() {
+        return items.isEmpty() ? null : items.get(items.size() - 1);
+    }
+}
@@ -0,0 +1,158 @@
+package com.expenses.dao;
+
+import com.expenses.config.DatabaseConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Tokens de recuperação de senha.
+ * <p>
+ * O token enviado por email nunca é gravado: a tabela guarda o SHA-256 dele, com índice
+ * único, e a busca é uma leitura pelo índice qualquer que seja o tamanho de users. O hash
+ * encontrado ainda é comparado em tempo constante com o calculado. Cada usuário tem no
+ * máximo um token válido; pedir outro invalida o anterior. Tokens vencidos são removidos
+ * pelo {@code RecoveryTokenSweeper} via {@link #purgeExpired}.
+ */
+public class RecoveryTokenDAO {
+    private static final Logger logger = LoggerFactory.getLogger(RecoveryTokenDAO.class);
+    public static final Duration TOKEN_LIFETIME = Duration.ofHours(24);
+    private static final SecureRandom random = new SecureRandom();
+
+    /**
+     * Token válido encontrado pelo hash.
+     */
+    public record Match(long userId, long expiresAt) {}
+
+    /**
+     * Novo token aleatório de 256 bits, em Base64 próprio para URL.
+     */
+    public static String generateToken() {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * Grava o token do usuário, substituindo o que ele já tivesse.
+     */
+    public void save(long userId, String token) {
+        String deleteSql = "DELETE FROM recovery_tokens WHERE user_id = ?";
+        String insertSql = "INSERT INTO recovery_tokens (token_hash, user_id, expires_at) VALUES (?, ?, ?)";
+
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement delete = conn.prepareStatement(deleteSql);
+                 PreparedStatement insert = conn.prepareStatement(insertSql)) {
+                delete.setLong(1, userId);
+                delete.executeUpdate();
+
+                insert.setString(1, hash(token));
+                insert.setLong(2, userId);
+                insert.setLong(3, System.currentTimeMillis() + TOKEN_LIFETIME.toMillis());
+                insert.executeUpdate();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            logger.error("Error saving recovery token", e);
+            throw new RuntimeException("Error saving recovery token", e);
+        }
+    }
+
+    /**
+     * Procura o token ainda dentro da validade.
+     */
+    public Optional<Match> findValid(String token) {
+        try (Connection conn = DatabaseConfig.getReadConnection()) {
+            return findValid(conn, token);
+        } catch (SQLException e) {
+            logger.error("Error validating recovery token", e);
+            throw new RuntimeException("Error validating recovery token", e);
+        }
+    }
+
+    /**
+     * Igual a {@link #findValid(String)}, na conexão da transação de quem chama.
+     */
+    Optional<Match> findValid(Connection conn, String token) throws SQLException {
+        if (token == null || token.isEmpty()) {
+            return Optional.empty();
+        }
+        String tokenHash = hash(token);
+        String sql = "SELECT user_id, token_hash, expires_at FROM recovery_tokens WHERE token_hash = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, tokenHash);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    return Optional.empty();
+                }
+                boolean matches = MessageDigest.isEqual(
+                    tokenHash.getBytes(StandardCharsets.US_ASCII),
+                    rs.getString("token_hash").getBytes(StandardCharsets.US_ASCII));
+                long expiresAt = rs.getLong("expires_at");
+                if (!matches || expiresAt <= System.currentTimeMillis()) {
+                    return Optional.empty();
+                }
+                return Optional.of(new Match(rs.getLong("user_id"), expiresAt));
+            }
+        }
+    }
+
+    /**
+     * Remove todos os tokens do usuário, na conexão da transação de quem chama.
+     */
+    void deleteByUser(Connection conn, long userId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM recovery_tokens WHERE user_id = ?")) {
+            stmt.setLong(1, userId);
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Apaga até {@code batchSize} tokens vencidos numa transação curta.
+     *
+     * @return quantidade apagada; menor que {@code batchSize} quando não sobrou nenhum
+     */
+    public int purgeExpired(int batchSize) {
+        String sql = """
+            DELETE FROM recovery_tokens WHERE id IN (
+                SELECT id FROM recovery_tokens WHERE expires_at <= ? LIMIT ?
+            )
+        """;
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, System.currentTimeMillis());
+            stmt.setInt(2, batchSize);
+            return stmt.executeUpdate();
+        } catch (SQLException e) {
+            logger.error("Error purging expired recovery tokens", e);
+            throw new RuntimeException("Error purging expired recovery tokens", e);
+        }
+    }
+
+    static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
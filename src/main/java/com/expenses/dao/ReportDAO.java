@@ -0,0 +1,142 @@
+package com.expenses.dao;
+
+import com.expenses.config.DatabaseConfig;
+import com.expenses.model.Money;
+import com.expenses.model.UserReport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Relatórios administrativos calculados no banco.
+ * <p>
+ * Todas as métricas por usuário saem de uma única passada agrupada sobre
+ * expense_daily_totals (uma linha por usuário, dia e categoria), em vez de
+ * três consultas por usuário.
+ */
+public class ReportDAO {
+    private static final Logger logger = LoggerFactory.getLogger(ReportDAO.class);
+
+    /**
+     * Busca uma página do relatório, ordenada no banco pela coluna de {@code query}
+     * e desempatada pelo id do usuário.
+     *
+     * @param after última linha da página anterior, ou {@code null} para a primeira página
+     */
+    public Page<UserReport> findPage(ReportQuery query, UserReport after, int limit) {
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = reportSql(query, params);
+        String column = query.getSort().column();
+
+        sql.append(" WHERE 1 = 1");
+        if (after != null) {
+            String comparison = query.isAscending() ? ">" : "<";
+            sql.append(" AND (").append(column).append(' ').append(comparison).append(" ?")
+               .append(" OR (").append(column).append(" = ? AND id > ?))");
+            Object key = sortKey(query.getSort(), after);
+            params.add(key);
+            params.add(key);
+            params.add(after.getUserId());
+        }
+        appendOrderBy(sql, query);
+        sql.append(" LIMIT ?");
+        params.add((long) limit + 1);
+
+        List<UserReport> reports = execute(sql.toString(), params);
+        boolean hasMore = reports.size() > limit;
+        if (hasMore) {
+            reports.remove(limit);
+        }
+        return new Page<>(reports, hasMore);
+    }
+
+    private StringBuilder reportSql(ReportQuery query, List<Object> params) {
+        Date startDate = Date.valueOf(query.getStartDate());
+        Date endDate = Date.valueOf(query.getEndDate());
+        params.add(startDate);
+        params.add(endDate);
+        params.add(startDate);
+        params.add(endDate);
+
+        return new StringBuilder("""
+            WITH totals AS (
+                SELECT user_id,
+                       SUM(CASE WHEN day BETWEEN ? AND ? THEN total_cents ELSE 0 END) AS total_cents,
+                       SUM(CASE WHEN day BETWEEN ? AND ? THEN expense_count ELSE 0 END) AS expense_count,
+                       COUNT(DISTINCT NULLIF(category_id, 0)) AS category_count
+                FROM expense_daily_totals
+                GROUP BY user_id
+            ), report AS (
+                SELECT u.id, u.name, u.email,
+                       COALESCE(t.total_cents, 0) AS total_cents,
+                       COALESCE(t.expense_count, 0) AS expense_count,
+                       COALESCE(t.category_count, 0) AS category_count
+                FROM users u
+                LEFT JOIN totals t ON t.user_id = u.id
+            )
+            SELECT * FROM report
+            """);
+    }
+
+    private void appendOrderBy(StringBuilder sql, ReportQuery query) {
+        sql.append(" ORDER BY ").append(query.getSort().column())
+           .append(query.isAscending() ? " ASC" : " DESC")
+           .append(", id ASC");
+    }
+
+    private List<UserReport> execute(String sql, List<Object> params) {
+        List<UserReport> reports = new ArrayList<>();
+
+        try (Connection conn = DatabaseConfig.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            bindParams(stmt, params);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    reports.add(mapResultSetToReport(rs));
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error generating user report", e);
+            throw new RuntimeException("Error generating user report", e);
+        }
+
+        return reports;
+    }
+
+    private void bindParams(PreparedStatement stmt, List<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            Object param = params.get(i);
+            if (param instanceof Long) {
+                stmt.setLong(i + 1, (Long) param);
+            } else if (param instanceof Date) {
+                stmt.setDate(i + 1, (Date) param);
+            } else if (param instanceof String) {
+                stmt.setString(i + 1, (String) param);
+            }
+        }
+    }
+
+    private static Object sortKey(ReportQuery.Sort sort, UserReport report) {
+        return switch (sort) {
+            case NAME -> report.getUserName();
+            case TOTAL -> report.getTotalExpenses().getCents();
+            case CATEGORY_COUNT -> (long) report.getCategoryCount();
+            case EXPENSE_COUNT -> (long) report.getExpenseCount();
+        };
+    }
+
+    private UserReport mapResultSetToReport(ResultSet rs) throws SQLException {
+        return UserReport.builder()
+                .userId(rs.getLong("id"))
+                .userName(rs.getString("name"))
+                .email(rs.getString("email"))
+                .totalExpenses(Money.ofCents(rs.getLong("total_cents")))
+                .categoryCount(rs.getInt("category_count"))
+                .expenseCount(rs.getInt("expense_count"))
+                .build();
+    }
+}
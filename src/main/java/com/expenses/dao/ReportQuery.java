@@ -0,0 +1,40 @@
+package com.expenses.dao;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDate;
+
+/**
+ * Parâmetros do relatório de despesas por usuário.
+ */
+@Value
+@Builder(toBuilder = true)
+public class ReportQuery {
+    LocalDate startDate;
+    LocalDate endDate;
+    @Builder.Default
+    Sort sort = Sort.NAME;
+    @Builder.Default
+    boolean ascending = true;
+
+    /**
+     * Colunas pelas quais o relatório pode ser ordenado no banco.
+     */
+    public enum Sort {
+        NAME("name"),
+        TOTAL("total_cents"),
+        CATEGORY_COUNT("category_count"),
+        EXPENSE_COUNT("expense_count");
+
+        private final String column;
+
+        Sort(String column) {
+            this.column = column;
+        }
+
+        String column() {
+            return column;
+        }
+    }
+}
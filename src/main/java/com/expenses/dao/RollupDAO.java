@@ -0,0 +1,148 @@
+package com.expenses.dao;
+
+import com.expenses.config.DatabaseConfig;
+import com.expenses.model.DailyTotal;
+import com.expenses.model.Money;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Acesso à tabela expense_daily_totals, mantida pelos triggers de expenses.
+ * <p>
+ * As consultas de totais leem no máximo uma linha por dia e categoria, em vez de
+ * uma linha por despesa.
+ */
+public class RollupDAO {
+    private static final Logger logger = LoggerFactory.getLogger(RollupDAO.class);
+
+    private static final String AGGREGATE_FROM_EXPENSES = """
+        SELECT user_id, date, IFNULL(category_id, 0), SUM(amount_cents), COUNT(*), MAX(amount_cents)
+        FROM expenses
+        WHERE user_id IS NOT NULL
+        GROUP BY user_id, date, IFNULL(category_id, 0)
+        """;
+
+    private static final String ROLLUP_ROWS = """
+        SELECT user_id, day, category_id, total_cents, expense_count, max_cents
+        FROM expense_daily_totals
+        """;
+
+    /**
+     * Resultado da comparação entre a tabela de totais e as despesas.
+     *
+     * @param missing combinações (usuário, dia, categoria) ausentes ou com valores diferentes na tabela de totais
+     * @param stale linhas da tabela de totais que não correspondem às despesas atuais
+     */
+    public record VerifyResult(int missing, int stale) {
+        public boolean isConsistent() {
+            return missing == 0 && stale == 0;
+        }
+    }
+
+    /**
+     * Totais por dia e categoria do período, ordenados por dia.
+     */
+    public List<DailyTotal> findDailyTotals(Long userId, LocalDate startDate, LocalDate endDate) {
+        String sql = """
+            SELECT r.day, r.category_id, c.name AS category_name,
+                   r.total_cents, r.expense_count, r.max_cents
+            FROM expense_daily_totals r
+            LEFT JOIN categories c ON c.id = r.category_id
+            WHERE r.user_id = ? AND r.day BETWEEN ? AND ?
+            ORDER BY r.day, r.category_id
+        """;
+        List<DailyTotal> totals = new ArrayList<>();
+
+        try (Connection conn = DatabaseConfig.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, userId);
+            stmt.setDate(2, Date.valueOf(startDate));
+            stmt.setDate(3, Date.valueOf(endDate));
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    totals.add(mapResultSetToDailyTotal(rs));
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error finding daily totals", e);
+            throw new RuntimeException("Error finding daily totals", e);
+        }
+
+        return totals;
+    }
+
+    /**
+     * Recalcula toda a tabela de totais a partir das despesas, numa única transação.
+     *
+     * @return quantidade de linhas geradas
+     */
+    public int rebuild() {
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("DELETE FROM expense_daily_totals");
+                int rows = stmt.executeUpdate("""
+                    INSERT INTO expense_daily_totals
+                        (user_id, day, category_id, total_cents, expense_count, max_cents)
+                    """ + AGGREGATE_FROM_EXPENSES);
+                conn.commit();
+                DataVersions.getInstance().bumpAll();
+                logger.info("Daily totals rebuilt: {} rows", rows);
+                return rows;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            logger.error("Error rebuilding daily totals", e);
+            throw new RuntimeException("Error rebuilding daily totals", e);
+        }
+    }
+
+    /**
+     * Compara a tabela de totais com a agregação das despesas, sem alterar nada.
+     */
+    public VerifyResult verify() {
+        try (Connection conn = DatabaseConfig.getReadConnection();
+             Statement stmt = conn.createStatement()) {
+            int missing = count(stmt, AGGREGATE_FROM_EXPENSES + " EXCEPT " + ROLLUP_ROWS);
+            int stale = count(stmt, ROLLUP_ROWS + " EXCEPT " + AGGREGATE_FROM_EXPENSES);
+
+            VerifyResult result = new VerifyResult(missing, stale);
+            if (result.isConsistent()) {
+                logger.info("Daily totals are consistent with expenses");
+            } else {
+                logger.warn("Daily totals differ from expenses: {} missing or different, {} stale", missing, stale);
+            }
+            return result;
+        } catch (SQLException e) {
+            logger.error("Error verifying daily totals", e);
+            throw new RuntimeException("Error verifying daily totals", e);
+        }
+    }
+
+    private int count(Statement stmt, String sql) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM (" + sql + ")")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private DailyTotal mapResultSetToDailyTotal(ResultSet rs) throws SQLException {
+        return DailyTotal.builder()
+                .day(rs.getDate("day").toLocalDate())
+                .categoryId(rs.getLong("category_id"))
+                .categoryName(rs.getString("category_name"))
+                .total(Money.ofCents(rs.getLong("total_cents")))
+                .expenseCount(rs.getInt("expense_count"))
+                .max(Money.ofCents(rs.getLong("max_cents")))
+                .build();
+    }
+}
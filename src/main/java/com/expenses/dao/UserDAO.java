@@ -2,9 +2,11 @@ package com.expenses.dao;
 
 import com.expenses.config.DatabaseConfig;
 import com.expenses.model.User;
+import com.expenses.service.security.LoginThrottle;
+import com.expenses.service.security.LoginThrottledException;
+import com.expenses.service.security.PasswordHasher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import at.favre.lib.crypto.bcrypt.BCrypt;
 
 import java.sql.*;
 import java.time.LocalDateTime;
@@ -14,23 +16,21 @@ import java.util.Optional;
 
 public class UserDAO {
     private static final Logger logger = LoggerFactory.getLogger(UserDAO.class);
-    private final Connection connection;
+
+    private final PasswordHasher passwordHasher = PasswordHasher.getInstance();
+    private final LoginThrottle loginThrottle = LoginThrottle.getInstance();
+    private final RecoveryTokenDAO recoveryTokenDAO = new RecoveryTokenDAO();
 
     public UserDAO() {
-        try {
-            this.connection = DatabaseConfig.getConnection();
-            if (!adminExists()) {
-                createAdminUser();
-            }
-        } catch (SQLException e) {
-            logger.error("Error initializing UserDAO", e);
-            throw new RuntimeException("Error initializing UserDAO", e);
+        if (!adminExists()) {
+            createAdminUser();
         }
     }
 
     private boolean adminExists() {
         String sql = "SELECT COUNT(*) FROM users WHERE role = 'ADMIN'";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection conn = DatabaseConfig.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
             ResultSet rs = stmt.executeQuery();
             return rs.getInt(1) > 0;
         } catch (SQLException e) {
@@ -45,7 +45,8 @@ public class UserDAO {
             VALUES (?, ?, ?, ?)
         """;
         
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, "Administrador");
             stmt.setString(2, "admin@myexpenses.com");
             stmt.setString(3, "$2a$10$8KxX1P1QEZdPyNOqEKJ5g.KxQgc3alF7EGnUE8U9aH7AUsnQmz4/.");  // senha: admin123
@@ -64,7 +65,8 @@ public class UserDAO {
             VALUES (?, ?, ?, ?)
         """;
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             stmt.setString(1, user.getName());
             stmt.setString(2, user.getEmail());
             stmt.setString(3, user.getPassword());
@@ -93,7 +95,8 @@ public class UserDAO {
     public Optional<User> findByEmail(String email) {
         String sql = "SELECT * FROM users WHERE email = ?";
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection conn = DatabaseConfig.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, email);
 
             try (ResultSet rs = stmt.executeQuery()) {
@@ -112,7 +115,8 @@ public class UserDAO {
     public Optional<User> findById(Long id) {
         String sql = "SELECT * FROM users WHERE id = ?";
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection conn = DatabaseConfig.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setLong(1, id);
 
             try (ResultSet rs = stmt.executeQuery()) {
@@ -132,7 +136,8 @@ public class UserDAO {
         String sql = "SELECT * FROM users ORDER BY name";
         List<User> users = new ArrayList<>();
 
-        try (Statement stmt = connection.createStatement();
+        try (Connection conn = DatabaseConfig.getReadConnection();
+             Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
             while (rs.next()) {
@@ -153,7 +158,8 @@ public class UserDAO {
             WHERE id = ?
         """;
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, user.getName());
             stmt.setString(2, user.getEmail());
             stmt.setString(3, user.getPassword());
@@ -167,12 +173,26 @@ public class UserDAO {
         }
     }
 
+    /**
+     * Exclui o usuário e seus tokens de recuperação na mesma transação. O ON DELETE CASCADE de
+     * recovery_tokens não vale aqui, porque o SQLite não liga as foreign keys por padrão.
+     */
     public void delete(Long id) {
         String sql = "DELETE FROM users WHERE id = ?";
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setLong(1, id);
-            stmt.executeUpdate();
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                recoveryTokenDAO.deleteByUser(conn, id);
+                stmt.setLong(1, id);
+                stmt.executeUpdate();
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
         } catch (SQLException e) {
             logger.error("Error deleting user", e);
             throw new RuntimeException("Error deleting user", e);
@@ -181,7 +201,8 @@ public class UserDAO {
 
     public boolean emailExists(String email) {
         String sql = "SELECT COUNT(*) FROM users WHERE email = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection conn = DatabaseConfig.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, email);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
@@ -193,126 +214,109 @@ public class UserDAO {
         return false;
     }
 
-    private void checkDatabaseStructure() {
+    public Optional<User> authenticate(String email, String password) {
+        return authenticate(email, password, loginThrottle.getLocalClient());
+    }
+
+    /**
+     * Confere email e senha. As tentativas passam antes pelo {@link LoginThrottle}, que recusa
+     * o excesso sem tocar no banco nem calcular hash.
+     *
+     * @param client identificador de quem tenta o login, para o limite por cliente
+     * @throws LoginThrottledException se a tentativa for recusada pelo limite
+     */
+    public Optional<User> authenticate(String email, String password, String client) {
+        loginThrottle.check(email, client);
+
+        // A conexão é devolvida antes de conferir a senha, que leva centenas de milissegundos
+        Optional<User> found;
         try {
-            // Verifica a estrutura da tabela users
-            DatabaseMetaData meta = connection.getMetaData();
-            ResultSet columns = meta.getColumns(null, null, "users", null);
-            
-            logger.debug("Verificando estrutura da tabela users:");
-            while (columns.next()) {
-                String columnName = columns.getString("COLUMN_NAME");
-                String columnType = columns.getString("TYPE_NAME");
-                int columnSize = columns.getInt("COLUMN_SIZE");
-                logger.debug("Coluna: {} (Tipo: {}, Tamanho: {})", columnName, columnType, columnSize);
-            }
-            
-            // Verifica se há registros na tabela
-            try (Statement stmt = connection.createStatement()) {
-                ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM users");
-                if (rs.next()) {
-                    int count = rs.getInt(1);
-                    logger.debug("Total de usuários na tabela: {}", count);
-                }
-            }
-            
-        } catch (SQLException e) {
-            logger.error("Erro ao verificar estrutura do banco de dados", e);
+            found = findByEmail(email);
+        } catch (RuntimeException e) {
+            logger.error("Erro ao autenticar usuário: {}", email, e);
+            return Optional.empty();
+        }
+        if (found.isEmpty()) {
+            logger.warn("Email não encontrado: {}", email);
+            loginThrottle.recordFailure(email, client);
+            return Optional.empty();
+        }
+
+        User user = found.get();
+        logger.debug("Tentando autenticar usuário: {}", email);
+        PasswordHasher.Verification result = passwordHasher.verify(password, user.getPassword());
+        if (!result.verified()) {
+            logger.warn("Senha incorreta para o email: {}", email);
+            loginThrottle.recordFailure(email, client);
+            return Optional.empty();
+        }
+
+        loginThrottle.recordSuccess(email);
+        if (result.needsRehash()) {
+            rehash(user, password);
         }
+        logger.info("Autenticação bem-sucedida para o email: {}", email);
+        return Optional.of(user);
     }
 
-    public Optional<User> authenticate(String email, String password) {
-        // Verifica a estrutura do banco antes de autenticar
-        checkDatabaseStructure();
-        
-        String sql = "SELECT * FROM users WHERE email = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setString(1, email);
-            ResultSet rs = stmt.executeQuery();
-            
-            if (rs.next()) {
-                String storedPassword = rs.getString("password");
-                logger.debug("Tentando autenticar usuário: {}", email);
-                logger.debug("Senha armazenada: {}", storedPassword);
-                
-                BCrypt.Result result = BCrypt.verifyer().verify(password.toCharArray(), storedPassword);
-                
-                if (result.verified) {
-                    logger.info("Autenticação bem-sucedida para o email: {}", email);
-                    return Optional.of(mapResultSetToUser(rs));
-                } else {
-                    logger.warn("Senha incorreta para o email: {}", email);
+    /**
+     * Troca o hash da senha por um com o custo atual. Só grava se o hash não tiver mudado
+     * desde a leitura; uma falha aqui não impede o login.
+     */
+    private void rehash(User user, String password) {
+        String sql = "UPDATE users SET password = ? WHERE id = ? AND password = ?";
+        try {
+            String newHash = passwordHasher.hash(password);
+            try (Connection conn = DatabaseConfig.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setString(1, newHash);
+                stmt.setLong(2, user.getId());
+                stmt.setString(3, user.getPassword());
+                if (stmt.executeUpdate() > 0) {
+                    user.setPassword(newHash);
+                    logger.info("Password hash upgraded to cost {} for user {}", passwordHasher.getCost(), user.getId());
                 }
-            } else {
-                logger.warn("Email não encontrado: {}", email);
             }
-            
-            return Optional.empty();
-            
-        } catch (SQLException e) {
-            logger.error("Erro ao autenticar usuário: {}", email, e);
-            return Optional.empty();
+        } catch (SQLException | RuntimeException e) {
+            logger.warn("Could not upgrade password hash for user {}", user.getId(), e);
         }
     }
 
     public void saveRecoveryToken(String email, String token) {
-        String sql = "UPDATE users SET recovery_token = ?, recovery_token_expiry = ? WHERE email = ?";
-        
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            // Token expira em 24 horas
-            Timestamp expiry = new Timestamp(System.currentTimeMillis() + 24 * 60 * 60 * 1000);
-            
-            stmt.setString(1, token);
-            stmt.setTimestamp(2, expiry);
-            stmt.setString(3, email);
-            
-            stmt.executeUpdate();
-            logger.info("Recovery token saved for email: {}", email);
-            
-        } catch (SQLException e) {
-            logger.error("Error saving recovery token", e);
-            throw new RuntimeException("Error saving recovery token", e);
-        }
+        User user = findByEmail(email)
+            .orElseThrow(() -> new RuntimeException("No user with email " + email));
+        recoveryTokenDAO.save(user.getId(), token);
+        logger.info("Recovery token saved for email: {}", email);
     }
     
     public boolean validateRecoveryToken(String token) {
-        String sql = "SELECT email, recovery_token_expiry FROM users WHERE recovery_token = ?";
-        
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setString(1, token);
-            ResultSet rs = stmt.executeQuery();
-            
-            if (rs.next()) {
-                Timestamp expiry = rs.getTimestamp("recovery_token_expiry");
-                return expiry != null && expiry.after(new Timestamp(System.currentTimeMillis()));
-            }
-            
-            return false;
-            
-        } catch (SQLException e) {
-            logger.error("Error validating recovery token", e);
-            throw new RuntimeException("Error validating recovery token", e);
-        }
+        return recoveryTokenDAO.findValid(token).isPresent();
     }
     
+    /**
+     * Troca a senha do dono do token e invalida os tokens dele, numa única transação.
+     */
     public void updatePassword(String token, String newPassword) {
-        String sql = "UPDATE users SET password = ?, recovery_token = NULL, recovery_token_expiry = NULL " +
-                    "WHERE recovery_token = ?";
-        
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            String hashedPassword = BCrypt.withDefaults().hashToString(12, newPassword.toCharArray());
-            stmt.setString(1, hashedPassword);
-            stmt.setString(2, token);
-            
-            int updated = stmt.executeUpdate();
-            if (updated == 0) {
-                throw new RuntimeException("Invalid or expired recovery token");
+        // Gera o hash antes de pegar a conexão de escrita, para não segurá-la durante o cálculo
+        String hashedPassword = passwordHasher.hash(newPassword);
+        String sql = "UPDATE users SET password = ? WHERE id = ?";
+
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                RecoveryTokenDAO.Match match = recoveryTokenDAO.findValid(conn, token)
+                    .orElseThrow(() -> new RuntimeException("Invalid or expired recovery token"));
+
+                stmt.setString(1, hashedPassword);
+                stmt.setLong(2, match.userId());
+                stmt.executeUpdate();
+                recoveryTokenDAO.deleteByUser(conn, match.userId());
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
             }
             
             logger.info("Password updated successfully for token");
@@ -334,7 +338,7 @@ public class UserDAO {
             logger.debug("Iniciando registro do usuário: {}", user.getEmail());
 
             // Criptografa a senha
-            String hashedPassword = BCrypt.withDefaults().hashToString(12, user.getPassword().toCharArray());
+            String hashedPassword = passwordHasher.hash(user.getPassword());
             logger.debug("Senha criptografada gerada: {}", hashedPassword);
             user.setPassword(hashedPassword);
             
@@ -0,0 +1,21 @@
+package com.expenses.model;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDate;
+
+/**
+ * Totais de um dia para uma categoria, lidos da tabela expense_daily_totals.
+ */
+@Value
+@Builder
+public class DailyTotal {
+    LocalDate day;
+    // 0 para despesas sem categoria
+    Long categoryId;
+    String categoryName;
+    Money total;
+    int expenseCount;
+    Money max;
+}
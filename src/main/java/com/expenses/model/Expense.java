@@ -2,7 +2,6 @@ package com.expenses.model;
 
 import lombok.Data;
 import lombok.Builder;
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
@@ -11,9 +10,15 @@ import java.time.LocalDateTime;
 public class Expense {
     private Long id;
     private String description;
-    private BigDecimal amount;
+    private Money amount;
     private LocalDate date;
     private Long categoryId;
     private Long userId;
     private LocalDateTime createdAt;
+    // Preenchido pelas consultas com JOIN em categories; não é gravado
+    private String categoryName;
+
+    public long getAmountCents() {
+        return amount != null ? amount.getCents() : 0L;
+    }
 }
@@ -0,0 +1,33 @@
+package com.expenses.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Importação de um arquivo de extrato e o progresso já confirmado no banco.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class ImportJob {
+    private Long id;
+    private Long userId;
+    private String fileName;
+    private String fileHash;
+    private String format;
+    private Status status;
+    // Posição (linha do CSV ou transação do OFX) do último registro gravado
+    private long lastPosition;
+    private long rowsRead;
+    private long rowsImported;
+    private long rowsDuplicate;
+    private long rowsInvalid;
+    private String error;
+
+    public enum Status {
+        RUNNING, COMPLETED, FAILED, CANCELLED
+    }
+}
@@ -0,0 +1,137 @@
+package com.expenses.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.NumberFormat;
+import java.util.function.ToLongFunction;
+
+/**
+ * Valor monetário exato armazenado em centavos ({@code long}).
+ * <p>
+ * Somas e comparações são feitas sobre os centavos, sem arredondamento e sem
+ * alocar um {@link BigDecimal} por linha. A conversão para {@link BigDecimal}
+ * só acontece na borda (entrada de texto e exibição).
+ */
+public final class Money implements Comparable<Money> {
+    public static final Money ZERO = new Money(0);
+
+    private final long cents;
+
+    private Money(long cents) {
+        this.cents = cents;
+    }
+
+    public static Money ofCents(long cents) {
+        return cents == 0 ? ZERO : new Money(cents);
+    }
+
+    /**
+     * Converte um valor decimal, arredondando para centavos (HALF_UP).
+     */
+    public static Money of(BigDecimal amount) {
+        if (amount == null) {
+            return ZERO;
+        }
+        return ofCents(amount.setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact());
+    }
+
+    /**
+     * Interpreta um valor digitado pelo usuário, aceitando ponto ou vírgula como separador decimal.
+     *
+     * @throws NumberFormatException se o texto não for um número válido
+     */
+    public static Money parse(String text) {
+        if (text == null || text.isBlank()) {
+            throw new NumberFormatException("Valor vazio");
+        }
+        try {
+            return of(new BigDecimal(text.trim().replace(',', '.')));
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Valor fora do intervalo: " + text);
+        }
+    }
+
+    /**
+     * Soma os centavos dos itens sem criar objetos intermediários.
+     */
+    public static <T> Money sum(Iterable<T> items, ToLongFunction<? super T> centsOf) {
+        long total = 0;
+        for (T item : items) {
+            total = Math.addExact(total, centsOf.applyAsLong(item));
+        }
+        return ofCents(total);
+    }
+
+    public long getCents() {
+        return cents;
+    }
+
+    public Money plus(Money other) {
+        return ofCents(Math.addExact(cents, other.cents));
+    }
+
+    public Money minus(Money other) {
+        return ofCents(Math.subtractExact(cents, other.cents));
+    }
+
+    /**
+     * Divide arredondando para o centavo mais próximo (HALF_UP).
+     */
+    public Money divide(long divisor) {
+        if (divisor == 0) {
+            throw new ArithmeticException("Divisão por zero");
+        }
+        long quotient = cents / divisor;
+        long remainder = cents % divisor;
+        if (Math.abs(remainder) * 2 >= Math.abs(divisor)) {
+            quotient += Long.signum(cents) * Long.signum(divisor);
+        }
+        return ofCents(quotient);
+    }
+
+    public int signum() {
+        return Long.signum(cents);
+    }
+
+    public boolean isZero() {
+        return cents == 0;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    /**
+     * Apenas para gráficos e outras saídas aproximadas; nunca para cálculos.
+     */
+    public double doubleValue() {
+        return cents / 100.0;
+    }
+
+    public String format(NumberFormat formatter) {
+        return formatter.format(toBigDecimal());
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Money other && other.cents == cents;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(cents);
+    }
+
+    /**
+     * Representação decimal simples, ex.: {@code 1234.50}. Compatível com {@link #parse(String)}.
+     */
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
@@ -0,0 +1,19 @@
+package com.expenses.model;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Linha do relatório administrativo: métricas de despesas de um usuário.
+ */
+@Value
+@Builder
+public class UserReport {
+    Long userId;
+    String userName;
+    String email;
+    Money totalExpenses;
+    // Categorias distintas usadas em todo o histórico, não só no período
+    int categoryCount;
+    int expenseCount;
+}
@@ -0,0 +1,152 @@
+package com.expenses.service;
+
+import com.expenses.config.DatabaseConfig;
+import com.expenses.config.QueryCancellation;
+import javafx.concurrent.Task;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Executa consultas e gravações fora da JavaFX Application Thread.
+ * <p>
+ * Cada chamada vira um {@link Task} executado num pool limitado; os callbacks de
+ * sucesso e de erro são entregues na thread da interface. Telas que recarregam
+ * com frequência usam um {@link Channel}, que cancela a requisição anterior ainda
+ * pendente para que só o resultado mais recente seja exibido; se ela já estiver rodando,
+ * a consulta em andamento é cancelada no banco.
+ */
+public class DataService {
+    private static final Logger logger = LoggerFactory.getLogger(DataService.class);
+    private static final int QUEUE_CAPACITY = 100;
+    private static DataService instance;
+
+    private final ThreadPoolExecutor executor;
+
+    private DataService() {
+        // Um worker por conexão de leitura e mais um para gravações
+        int threads = DatabaseConfig.getStorageProfile().getMaxReaders() + 1;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(QUEUE_CAPACITY),
+            runnable -> {
+                Thread thread = new Thread(runnable, "data-loader-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public static synchronized DataService getInstance() {
+        if (instance == null) {
+            instance = new DataService();
+        }
+        return instance;
+    }
+
+    /**
+     * Executa {@code work} em segundo plano e entrega o resultado na thread da interface.
+     */
+    public <T> Task<T> submit(Callable<T> work, Consumer<T> onSuccess, Consumer<Throwable> onFailure) {
+        QueryCancellation cancellation = new QueryCancellation();
+        Task<T> task = new Task<>() {
+            @Override
+            protected T call() throws Exception {
+                cancellation.enter();
+                try {
+                    return work.call();
+                } finally {
+                    cancellation.exit();
+                }
+            }
+
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                boolean cancelled = super.cancel(mayInterruptIfRunning);
+                if (cancelled) {
+                    cancellation.cancel();
+                }
+                return cancelled;
+            }
+        };
+        task.setOnSucceeded(e -> onSuccess.accept(task.getValue()));
+        task.setOnFailed(e -> {
+            logger.error("Background data request failed", task.getException());
+            onFailure.accept(task.getException());
+        });
+
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            logger.warn("Data request rejected: {} requests already queued", executor.getQueue().size());
+            onFailure.accept(e);
+        }
+        return task;
+    }
+
+    /**
+     * Executa um {@link Task} montado pela tela, para trabalhos longos que publicam progresso.
+     * Os handlers do task devem ser configurados antes da chamada.
+     *
+     * @throws RejectedExecutionException se a fila de requisições estiver cheia
+     */
+    public <T> Task<T> execute(Task<T> task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            logger.warn("Task rejected: {} requests already queued", executor.getQueue().size());
+            throw e;
+        }
+        return task;
+    }
+
+    public Channel channel() {
+        return new Channel();
+    }
+
+    public static synchronized void shutdown() {
+        if (instance != null) {
+            instance.executor.shutdownNow();
+            instance = null;
+        }
+    }
+
+    /**
+     * Sequência de requisições de uma tela, em que cada nova requisição substitui a anterior.
+     * Deve ser usado apenas a partir da thread da interface.
+     */
+    public class Channel {
+        private Task<?> current;
+
+        private Channel() {}
+
+        /**
+         * Cancela a requisição pendente deste canal e agenda a nova. Uma consulta de leitura que
+         * já estiver rodando é interrompida no banco e seu resultado é descartado.
+         */
+        public <T> Task<T> submit(Callable<T> work, Consumer<T> onSuccess, Consumer<Throwable> onFailure) {
+            cancel();
+            Task<T> task = DataService.this.submit(work, onSuccess, onFailure);
+            current = task;
+            return task;
+        }
+
+        public void cancel() {
+            if (current != null) {
+                current.cancel(false);
+                current = null;
+            }
+        }
+
+        public boolean isBusy() {
+            return current != null && current.isRunning();
+        }
+    }
+}
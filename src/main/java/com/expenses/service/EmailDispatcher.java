@@ -0,0 +1,286 @@
+package com.expenses.service;
+
+import com.expenses.dao.EmailOutboxDAO;
+import com.expenses.dao.EmailOutboxDAO.OutboxMessage;
+import jakarta.mail.Address;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Envia em segundo plano os emails da fila email_outbox.
+ * <p>
+ * Uma única thread busca lotes de até {@link #BATCH_SIZE} mensagens vencidas e as envia pela
+ * mesma conexão SMTP, aberta no início da passada e fechada quando a fila esvazia. Uma
+ * mensagem que falha é reagendada com espera exponencial, de {@link #BASE_BACKOFF} até
+ * {@link #MAX_BACKOFF}, e abandonada depois de {@link #MAX_ATTEMPTS} tentativas ou se o
+ * servidor recusar o destinatário. Se a conexão não abrir, o lote inteiro é reagendado de uma
+ * vez. A fila é conferida a cada {@link #POLL_INTERVAL} e logo depois de cada
+ * {@link #wakeUp()}.
+ * <p>
+ * Se o servidor aceitar a mensagem mas a marcação SENT falhar no banco, o id fica guardado em
+ * memória e a passada para; as próximas repetem só a marcação, sem reenviar. Um reinício do
+ * processo nesse intervalo perde essa lista e a mensagem é enviada de novo quando a reserva
+ * vencer.
+ * <p>
+ * Para testes, {@link #manual(MailSettings)} cria um dispatcher sem passadas agendadas, que
+ * aponta para um servidor SMTP local, e {@link #drain()} faz uma passada na thread de quem
+ * chama.
+ */
+public class EmailDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(EmailDispatcher.class);
+    static final int BATCH_SIZE = 20;
+    static final int MAX_ATTEMPTS = 8;
+    static final Duration BASE_BACKOFF = Duration.ofSeconds(30);
+    static final Duration MAX_BACKOFF = Duration.ofHours(1);
+    // Tempo de reserva de um lote; bem maior que o envio de BATCH_SIZE mensagens
+    private static final Duration LEASE = Duration.ofMinutes(5);
+    private static final Duration POLL_INTERVAL = Duration.ofMinutes(1);
+    private static EmailDispatcher instance;
+
+    private final MailSettings settings;
+    private final Session session;
+    private final EmailOutboxDAO outboxDAO = new EmailOutboxDAO();
+    private final ScheduledExecutorService scheduler;
+    private final AtomicBoolean wakeUpPending = new AtomicBoolean();
+    // Enviadas ao servidor, mas sem a marcação SENT gravada; nunca são enviadas de novo
+    private final Set<Long> unconfirmed = new HashSet<>();
+    private Transport transport;
+
+    private EmailDispatcher(MailSettings settings, boolean polling) {
+        this.settings = settings;
+        this.session = Session.getInstance(settings.toProperties());
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "email-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (polling) {
+            this.scheduler.scheduleWithFixedDelay(this::drainQuietly, 0, POLL_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Inicia o envio com as configurações do ambiente, se ainda não tiver sido iniciado.
+     */
+    public static synchronized EmailDispatcher getInstance() {
+        if (instance == null) {
+            instance = new EmailDispatcher(MailSettings.fromEnvironment(), true);
+        }
+        return instance;
+    }
+
+    /**
+     * Inicia o envio com {@code settings}, substituindo um dispatcher já iniciado.
+     */
+    public static synchronized EmailDispatcher start(MailSettings settings) {
+        shutdown();
+        instance = new EmailDispatcher(settings, true);
+        return instance;
+    }
+
+    /**
+     * Dispatcher sem passadas periódicas nem instância global, para testes que chamam
+     * {@link #drain()} diretamente.
+     */
+    static EmailDispatcher manual(MailSettings settings) {
+        return new EmailDispatcher(settings, false);
+    }
+
+    /**
+     * Para o dispatcher criado por {@link #manual(MailSettings)}.
+     */
+    void stop() {
+        scheduler.shutdownNow();
+    }
+
+    public static synchronized void shutdown() {
+        if (instance != null) {
+            instance.scheduler.shutdownNow();
+            instance = null;
+        }
+    }
+
+    /**
+     * Agenda uma passada para já, para mensagens recém-enfileiradas. Chamadas seguidas antes
+     * da passada começar resultam numa passada só.
+     */
+    public void wakeUp() {
+        if (wakeUpPending.compareAndSet(false, true)) {
+            try {
+                scheduler.execute(() -> {
+                    wakeUpPending.set(false);
+                    drainQuietly();
+                });
+            } catch (RejectedExecutionException e) {
+                wakeUpPending.set(false);
+                logger.debug("Email dispatcher already stopped");
+            }
+        }
+    }
+
+    /**
+     * Envia as mensagens vencidas até a fila esvaziar ou a conexão falhar.
+     *
+     * @return quantidade de mensagens enviadas
+     */
+    public synchronized int drain() {
+        int sent = 0;
+        if (!confirmPending()) {
+            return sent;
+        }
+        try {
+            List<OutboxMessage> batch;
+            while (!(batch = outboxDAO.claimDue(BATCH_SIZE, LEASE.toMillis())).isEmpty()) {
+                for (int i = 0; i < batch.size(); i++) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        // As mensagens restantes voltam para a fila quando a reserva vencer
+                        return sent;
+                    }
+                    try {
+                        connect();
+                    } catch (MessagingException e) {
+                        logger.warn("Could not connect to SMTP server {}:{}", settings.getHost(), settings.getPort(), e);
+                        for (OutboxMessage pending : batch.subList(i, batch.size())) {
+                            retryOrFail(pending, e);
+                        }
+                        return sent;
+                    }
+                    if (send(batch.get(i))) {
+                        sent++;
+                    }
+                    if (!unconfirmed.isEmpty()) {
+                        // Banco não aceitou a marcação: para antes de enviar mais
+                        return sent;
+                    }
+                }
+            }
+        } finally {
+            disconnect();
+        }
+        if (sent > 0) {
+            logger.info("Sent {} queued emails", sent);
+        }
+        return sent;
+    }
+
+    private void drainQuietly() {
+        try {
+            drain();
+        } catch (RuntimeException e) {
+            // Uma exceção cancelaria as próximas execuções agendadas
+            logger.error("Error dispatching queued emails", e);
+        }
+    }
+
+    private boolean send(OutboxMessage message) {
+        try {
+            MimeMessage mime = new MimeMessage(session);
+            mime.setFrom(new InternetAddress(settings.getFrom()));
+            mime.setRecipients(Message.RecipientType.TO, InternetAddress.parse(message.recipient()));
+            mime.setSubject(message.subject(), "UTF-8");
+            mime.setContent(message.body(), "text/html; charset=utf-8");
+            mime.saveChanges();
+
+            transport.sendMessage(mime, mime.getAllRecipients());
+            logger.debug("Email {} sent to {}", message.id(), message.recipient());
+        } catch (SendFailedException e) {
+            Address[] invalid = e.getInvalidAddresses();
+            if (invalid != null && invalid.length > 0) {
+                logger.warn("Email {} rejected for {}: giving up", message.id(), message.recipient(), e);
+                outboxDAO.markFailed(message.id(), e.getMessage());
+            } else {
+                retryOrFail(message, e);
+            }
+            return false;
+        } catch (MessagingException e) {
+            // A conexão pode ter caído; a próxima mensagem abre outra
+            disconnect();
+            retryOrFail(message, e);
+            return false;
+        }
+
+        // Daqui em diante o email já foi entregue; uma falha no banco repete só a marcação
+        unconfirmed.add(message.id());
+        confirmPending();
+        return true;
+    }
+
+    /**
+     * Grava SENT nas mensagens já entregues cuja marcação falhou.
+     *
+     * @return {@code true} se não sobrou nenhuma pendente
+     */
+    private boolean confirmPending() {
+        Iterator<Long> ids = unconfirmed.iterator();
+        while (ids.hasNext()) {
+            long id = ids.next();
+            try {
+                outboxDAO.markSent(id);
+                ids.remove();
+            } catch (RuntimeException e) {
+                logger.warn("Email {} was sent but could not be marked as sent; will retry the update", id, e);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void retryOrFail(OutboxMessage message, MessagingException error) {
+        int attempts = message.attempts() + 1;
+        if (attempts >= MAX_ATTEMPTS) {
+            logger.warn("Email {} to {} failed {} times: giving up", message.id(), message.recipient(), attempts);
+            outboxDAO.markFailed(message.id(), error.getMessage());
+            return;
+        }
+
+        long delay = Math.min(BASE_BACKOFF.toMillis() << (attempts - 1), MAX_BACKOFF.toMillis());
+        // Espalha as novas tentativas para que um lote inteiro não volte no mesmo instante
+        delay += ThreadLocalRandom.current().nextLong(delay / 10 + 1);
+        logger.warn("Email {} to {} failed (attempt {}), retrying in {} s",
+            message.id(), message.recipient(), attempts, TimeUnit.MILLISECONDS.toSeconds(delay));
+        outboxDAO.markRetry(message.id(), System.currentTimeMillis() + delay, error.getMessage());
+    }
+
+    private void connect() throws MessagingException {
+        if (transport != null && transport.isConnected()) {
+            return;
+        }
+        transport = session.getTransport("smtp");
+        if (settings.isAuth()) {
+            transport.connect(settings.getHost(), settings.getPort(), settings.getUsername(), settings.getPassword());
+        } else {
+            transport.connect(settings.getHost(), settings.getPort(), null, null);
+        }
+    }
+
+    private void disconnect() {
+        if (transport == null) {
+            return;
+        }
+        try {
+            transport.close();
+        } catch (MessagingException e) {
+            logger.debug("Error closing SMTP connection", e);
+        }
+        transport = null;
+    }
+}
@@ -0,0 +1,64 @@
+package com.expenses.service;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.Properties;
+
+/**
+ * Servidor SMTP usado pelo {@link EmailDispatcher}.
+ * <p>
+ * {@link #fromEnvironment()} lê as variáveis EMAIL_SMTP_HOST, EMAIL_SMTP_PORT,
+ * EMAIL_SMTP_STARTTLS, EMAIL_USERNAME, EMAIL_PASSWORD e EMAIL_FROM, com o Gmail como padrão.
+ * Sem senha, a conexão é feita sem autenticação, o que permite apontar para um servidor SMTP
+ * local de testes.
+ */
+@Value
+@Builder
+public class MailSettings {
+    private static final String DEFAULT_FROM = "noreply@myexpenses.com";
+    private static final int TIMEOUT_MILLIS = 10_000;
+
+    String host;
+    int port;
+    boolean startTls;
+    String username;
+    String password;
+    String from;
+
+    public static MailSettings fromEnvironment() {
+        String from = env("EMAIL_FROM", DEFAULT_FROM);
+        return MailSettings.builder()
+            .host(env("EMAIL_SMTP_HOST", "smtp.gmail.com"))
+            .port(Integer.parseInt(env("EMAIL_SMTP_PORT", "587")))
+            .startTls(!"false".equalsIgnoreCase(env("EMAIL_SMTP_STARTTLS", "true")))
+            .username(env("EMAIL_USERNAME", from))
+            .password(System.getenv("EMAIL_PASSWORD"))
+            .from(from)
+            .build();
+    }
+
+    public boolean isAuth() {
+        return password != null && !password.isEmpty();
+    }
+
+    /**
+     * Propriedades da {@code Session}. Os timeouts evitam que um servidor lento prenda o envio.
+     */
+    public Properties toProperties() {
+        Properties props = new Properties();
+        props.put("mail.smtp.host", host);
+        props.put("mail.smtp.port", String.valueOf(port));
+        props.put("mail.smtp.auth", String.valueOf(isAuth()));
+        props.put("mail.smtp.starttls.enable", String.valueOf(startTls));
+        props.put("mail.smtp.connectiontimeout", String.valueOf(TIMEOUT_MILLIS));
+        props.put("mail.smtp.timeout", String.valueOf(TIMEOUT_MILLIS));
+        props.put("mail.smtp.writetimeout", String.valueOf(TIMEOUT_MILLIS));
+        return props;
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value != null && !value.isBlank() ? value : defaultValue;
+    }
+}
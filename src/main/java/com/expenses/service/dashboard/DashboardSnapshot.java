@@ -0,0 +1,68 @@
+package com.expenses.service.dashboard;
+
+import com.expenses.model.DailyTotal;
+import com.expenses.model.Expense;
+import com.expenses.model.Money;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * Tudo o que o dashboard mostra para um usuário e período, calculado de uma vez por
+ * {@link DashboardSnapshotService} e compartilhado entre o painel, o resumo e o calendário.
+ * Imutável; pode ser lido em qualquer thread.
+ *
+ * @param version versão dos dados (ver {@code DataVersions}) em que o snapshot foi montado
+ * @param highest totais do dia e categoria com a maior despesa do período, ou {@code null}
+ * @param categories totais por categoria, do maior para o menor
+ * @param monthCategories totais de cada mês por categoria, com as categorias na ordem de {@code categories}
+ * @param days totais do período por dia e categoria, agrupados por dia
+ * @param recent últimas despesas do período, da mais recente para a mais antiga
+ */
+public record DashboardSnapshot(
+    Long userId,
+    LocalDate startDate,
+    LocalDate endDate,
+    long version,
+    Money total,
+    long count,
+    Money previousTotal,
+    DailyTotal highest,
+    List<CategoryTotal> categories,
+    SortedMap<YearMonth, Money> months,
+    SortedMap<YearMonth, Map<String, Money>> monthCategories,
+    SortedMap<LocalDate, List<DailyTotal>> days,
+    List<Expense> recent
+) {
+    public record CategoryTotal(Long categoryId, String label, Money total, long count) {}
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * Total de um dia do período; zero quando não houve despesas.
+     */
+    public Money dayTotal(LocalDate day) {
+        List<DailyTotal> totals = days.get(day);
+        return totals == null ? Money.ZERO : Money.sum(totals, total -> total.getTotal().getCents());
+    }
+
+    /**
+     * Quantidade de despesas de um dia do período.
+     */
+    public int dayCount(LocalDate day) {
+        List<DailyTotal> totals = days.get(day);
+        if (totals == null) {
+            return 0;
+        }
+        int count = 0;
+        for (DailyTotal total : totals) {
+            count += total.getExpenseCount();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,202 @@
+package com.expenses.service.dashboard;
+
+import com.expenses.dao.DataVersions;
+import com.expenses.dao.ExpenseDAO;
+import com.expenses.dao.ExpenseFilter;
+import com.expenses.dao.RollupDAO;
+import com.expenses.model.DailyTotal;
+import com.expenses.model.Expense;
+import com.expenses.model.Money;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Monta e guarda os {@link DashboardSnapshot}s por usuário e período.
+ * <p>
+ * Um snapshot sai de duas consultas: uma leitura da tabela de totais diários cobrindo o período
+ * anterior e o atual, que são contíguos, e a página das despesas mais recentes. Todos os
+ * agregados são calculados numa passada sobre os totais. Os snapshots ficam em cache enquanto
+ * a versão dos dados do usuário não mudar; pedidos simultâneos do mesmo período esperam a
+ * mesma montagem em vez de consultar o banco de novo. Os métodos bloqueiam e devem ser
+ * chamados fora da thread da interface, por exemplo pelo {@code DataService}.
+ */
+public final class DashboardSnapshotService {
+    private static final Logger logger = LoggerFactory.getLogger(DashboardSnapshotService.class);
+    public static final int RECENT_LIMIT = 10;
+    private static final int MAX_ENTRIES = 16;
+    private static final String NO_CATEGORY = "Sem categoria";
+    private static final DashboardSnapshotService instance = new DashboardSnapshotService();
+
+    private record Key(Long userId, LocalDate startDate, LocalDate endDate) {}
+
+    private record Entry(long version, CompletableFuture<DashboardSnapshot> snapshot) {}
+
+    private final ExpenseDAO expenseDAO = new ExpenseDAO();
+    private final RollupDAO rollupDAO = new RollupDAO();
+    private final DataVersions versions = DataVersions.getInstance();
+    private final Map<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    private DashboardSnapshotService() {}
+
+    public static DashboardSnapshotService getInstance() {
+        return instance;
+    }
+
+    /**
+     * Snapshot do período, do cache quando os dados do usuário não mudaram desde a montagem.
+     */
+    public DashboardSnapshot get(Long userId, LocalDate startDate, LocalDate endDate) {
+        Key key = new Key(userId, startDate, endDate);
+        // Lida antes da consulta: uma escrita durante a montagem invalida o resultado
+        long version = versions.current(userId);
+
+        CompletableFuture<DashboardSnapshot> future;
+        boolean owner = false;
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.version() == version && !entry.snapshot().isCompletedExceptionally()) {
+                future = entry.snapshot();
+            } else {
+                future = new CompletableFuture<>();
+                entries.put(key, new Entry(version, future));
+                owner = true;
+            }
+        }
+
+        if (owner) {
+            try {
+                future.complete(load(key, version));
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+                synchronized (entries) {
+                    entries.remove(key);
+                }
+                throw e;
+            }
+        }
+
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw e;
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * Período imediatamente anterior, com a mesma quantidade de dias.
+     */
+    public static LocalDate previousStart(LocalDate startDate, LocalDate endDate) {
+        return startDate.minusDays(ChronoUnit.DAYS.between(startDate, endDate) + 1);
+    }
+
+    private DashboardSnapshot load(Key key, long version) {
+        long start = System.nanoTime();
+        LocalDate previousStart = previousStart(key.startDate(), key.endDate());
+        List<DailyTotal> rows = rollupDAO.findDailyTotals(key.userId(), previousStart, key.endDate());
+
+        long previousCents = 0;
+        long totalCents = 0;
+        long count = 0;
+        DailyTotal highest = null;
+        Map<Long, long[]> byCategory = new HashMap<>();
+        Map<Long, String> categoryNames = new HashMap<>();
+        SortedMap<YearMonth, Long> months = new TreeMap<>();
+        SortedMap<YearMonth, Map<Long, Long>> monthCategoryCents = new TreeMap<>();
+        SortedMap<LocalDate, List<DailyTotal>> days = new TreeMap<>();
+
+        for (DailyTotal row : rows) {
+            long cents = row.getTotal().getCents();
+            if (row.getDay().isBefore(key.startDate())) {
+                previousCents += cents;
+                continue;
+            }
+            totalCents += cents;
+            count += row.getExpenseCount();
+            if (highest == null || row.getMax().compareTo(highest.getMax()) > 0) {
+                highest = row;
+            }
+
+            long[] category = byCategory.computeIfAbsent(row.getCategoryId(), id -> new long[2]);
+            category[0] += cents;
+            category[1] += row.getExpenseCount();
+            categoryNames.putIfAbsent(row.getCategoryId(), row.getCategoryName());
+            months.merge(YearMonth.from(row.getDay()), cents, Long::sum);
+            monthCategoryCents.computeIfAbsent(YearMonth.from(row.getDay()), month -> new HashMap<>())
+                .merge(row.getCategoryId(), cents, Long::sum);
+            days.computeIfAbsent(row.getDay(), day -> new ArrayList<>()).add(row);
+        }
+
+        List<DashboardSnapshot.CategoryTotal> categories = new ArrayList<>(byCategory.size());
+        byCategory.forEach((categoryId, totals) -> {
+            String name = categoryNames.get(categoryId);
+            categories.add(new DashboardSnapshot.CategoryTotal(categoryId, name != null ? name : NO_CATEGORY,
+                Money.ofCents(totals[0]), totals[1]));
+        });
+        categories.sort(Comparator.comparing(DashboardSnapshot.CategoryTotal::total).reversed()
+            .thenComparing(DashboardSnapshot.CategoryTotal::label));
+
+        SortedMap<YearMonth, Money> monthTotals = new TreeMap<>();
+        months.forEach((month, cents) -> monthTotals.put(month, Money.ofCents(cents)));
+        SortedMap<YearMonth, Map<String, Money>> monthCategories = new TreeMap<>();
+        monthCategoryCents.forEach((month, byId) -> {
+            Map<String, Money> ordered = new LinkedHashMap<>();
+            for (DashboardSnapshot.CategoryTotal category : categories) {
+                Long cents = byId.get(category.categoryId());
+                if (cents != null) {
+                    ordered.put(category.label(), Money.ofCents(cents));
+                }
+            }
+            monthCategories.put(month, Collections.unmodifiableMap(ordered));
+        });
+        days.replaceAll((day, totals) -> List.copyOf(totals));
+
+        List<Expense> recent = count == 0 ? List.of() : recent(key);
+
+        logger.debug("Dashboard snapshot for user {} ({} to {}) built from {} daily rows in {} ms",
+            key.userId(), key.startDate(), key.endDate(), rows.size(), (System.nanoTime() - start) / 1_000_000);
+
+        return new DashboardSnapshot(key.userId(), key.startDate(), key.endDate(), version,
+            Money.ofCents(totalCents), count, Money.ofCents(previousCents), highest,
+            Collections.unmodifiableList(categories), Collections.unmodifiableSortedMap(monthTotals),
+            Collections.unmodifiableSortedMap(monthCategories),
+            Collections.unmodifiableSortedMap(days), recent);
+    }
+
+    private List<Expense> recent(Key key) {
+        ExpenseFilter filter = ExpenseFilter.builder()
+            .userId(key.userId())
+            .startDate(key.startDate())
+            .endDate(key.endDate())
+            .build();
+        return List.copyOf(expenseDAO.findPage(filter, null, RECENT_LIMIT).items());
+    }
+}
@@ -0,0 +1,100 @@
+package com.expenses.service.export;
+
+import javafx.beans.property.ReadOnlyDoubleProperty;
+import javafx.beans.property.ReadOnlyDoubleWrapper;
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.property.ReadOnlyStringProperty;
+import javafx.beans.property.ReadOnlyStringWrapper;
+
+import java.time.LocalDateTime;
+
+/**
+ * Uma exportação enfileirada no {@link ExportService}.
+ * <p>
+ * Situação, progresso e mensagem são propriedades JavaFX atualizadas na thread da
+ * interface, para que o histórico de exportações possa exibi-las diretamente.
+ */
+public class ExportJob {
+    public enum Status {
+        QUEUED("Na fila"),
+        RUNNING("Exportando"),
+        COMPLETED("Concluída"),
+        FAILED("Falhou"),
+        CANCELLED("Cancelada");
+
+        private final String label;
+
+        Status(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    private final long id;
+    private final ExportRequest request;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+    private final ReadOnlyObjectWrapper<Status> status = new ReadOnlyObjectWrapper<>(Status.QUEUED);
+    private final ReadOnlyDoubleWrapper progress = new ReadOnlyDoubleWrapper(0);
+    private final ReadOnlyStringWrapper message = new ReadOnlyStringWrapper("");
+    private volatile boolean cancelRequested;
+
+    ExportJob(long id, ExportRequest request) {
+        this.id = id;
+        this.request = request;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public ExportRequest getRequest() {
+        return request;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public Status getStatus() {
+        return status.get();
+    }
+
+    public ReadOnlyObjectProperty<Status> statusProperty() {
+        return status.getReadOnlyProperty();
+    }
+
+    public ReadOnlyDoubleProperty progressProperty() {
+        return progress.getReadOnlyProperty();
+    }
+
+    public ReadOnlyStringProperty messageProperty() {
+        return message.getReadOnlyProperty();
+    }
+
+    public boolean isActive() {
+        return getStatus() == Status.QUEUED || getStatus() == Status.RUNNING;
+    }
+
+    public boolean canRetry() {
+        return getStatus() == Status.FAILED || getStatus() == Status.CANCELLED;
+    }
+
+    boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    void requestCancel() {
+        cancelRequested = true;
+    }
+
+    // Chamado apenas na thread da interface
+    void update(Status newStatus, double newProgress, String newMessage) {
+        status.set(newStatus);
+        progress.set(newProgress);
+        message.set(newMessage);
+    }
+}
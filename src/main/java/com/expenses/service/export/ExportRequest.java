@@ -0,0 +1,68 @@
+package com.expenses.service.export;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.io.File;
+import java.time.LocalDate;
+
+/**
+ * Parâmetros de uma exportação de relatório.
+ */
+@Value
+@Builder
+public class ExportRequest {
+    Long userId;
+    LocalDate startDate;
+    LocalDate endDate;
+    Format format;
+    boolean includeCharts;
+    boolean includeSummary;
+    boolean includeDetails;
+    File file;
+
+    public enum Format {
+        PDF("PDF", ".pdf", "Arquivos PDF", true),
+        EXCEL("Excel (XLSX)", ".xlsx", "Arquivos Excel", true),
+        CSV("CSV (dados)", ".csv", "Arquivos CSV", false),
+        COLUMNAR("Binário colunar (dados)", ".mxc", "Arquivos MXC", false);
+
+        private final String label;
+        private final String extension;
+        private final String fileDescription;
+        // Relatórios têm resumo e gráficos; os formatos de dados trazem só as despesas
+        private final boolean report;
+
+        Format(String label, String extension, String fileDescription, boolean report) {
+            this.label = label;
+            this.extension = extension;
+            this.fileDescription = fileDescription;
+            this.report = report;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public String getFileDescription() {
+            return fileDescription;
+        }
+
+        public boolean isReport() {
+            return report;
+        }
+
+        public static Format fromLabel(String label) {
+            for (Format format : values()) {
+                if (format.label.equals(label)) {
+                    return format;
+                }
+            }
+            return PDF;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.expenses.service.export;
+
+import com.expenses.dao.CategoryDAO;
+import com.expenses.dao.ExpenseDAO;
+import com.expenses.dao.ExpenseFilter;
+import com.expenses.dao.RollupDAO;
+import com.expenses.model.Money;
+import com.expenses.util.CategoryDictionary;
+import com.expenses.util.ChartData;
+import com.expenses.util.ExportUtil;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fila de exportações de relatórios executadas em segundo plano.
+ * <p>
+ * As exportações rodam num pool próprio e pequeno, separado do {@code DataService}, para que
+ * um relatório grande não atrase as consultas das telas. As despesas vão do cursor do banco
+ * direto para o gerador do arquivo, sem montar a lista em memória. O arquivo é gravado com a
+ * extensão {@code .part} e só recebe o nome final quando a exportação termina, então um
+ * cancelamento ou erro não deixa relatório incompleto no lugar do destino.
+ */
+public class ExportService {
+    private static final Logger logger = LoggerFactory.getLogger(ExportService.class);
+    private static final int WORKERS = 2;
+    private static final int QUEUE_CAPACITY = 20;
+    private static final int HISTORY_LIMIT = 50;
+    private static ExportService instance;
+
+    private final ThreadPoolExecutor executor;
+    private final ExpenseDAO expenseDAO = new ExpenseDAO();
+    private final RollupDAO rollupDAO = new RollupDAO();
+    private final CategoryDAO categoryDAO = new CategoryDAO();
+    private final ObservableList<ExportJob> history = FXCollections.observableArrayList();
+    private final AtomicLong ids = new AtomicLong();
+
+    private ExportService() {
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(WORKERS, WORKERS, 30, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(QUEUE_CAPACITY),
+            runnable -> {
+                Thread thread = new Thread(runnable, "export-worker-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public static synchronized ExportService getInstance() {
+        if (instance == null) {
+            instance = new ExportService();
+        }
+        return instance;
+    }
+
+    /**
+     * Exportações desta sessão, da mais recente para a mais antiga. Deve ser lido apenas
+     * na thread da interface.
+     */
+    public ObservableList<ExportJob> getHistory() {
+        return history;
+    }
+
+    /**
+     * Enfileira a exportação. Deve ser chamado na thread da interface.
+     */
+    public ExportJob submit(ExportRequest request) {
+        ExportJob job = new ExportJob(ids.incrementAndGet(), request);
+        history.add(0, job);
+        if (history.size() > HISTORY_LIMIT) {
+            history.remove(HISTORY_LIMIT, history.size());
+        }
+
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            logger.warn("Export rejected: {} exports already queued", executor.getQueue().size());
+            job.update(ExportJob.Status.FAILED, 0, "Muitas exportações na fila");
+        }
+        return job;
+    }
+
+    /**
+     * Enfileira de novo uma exportação que falhou ou foi cancelada, como um novo job.
+     */
+    public ExportJob retry(ExportJob job) {
+        if (!job.canRetry()) {
+            throw new IllegalStateException("Only failed or cancelled exports can be retried");
+        }
+        return submit(job.getRequest());
+    }
+
+    /**
+     * Pede o cancelamento. Uma exportação na fila não chega a começar; uma em andamento
+     * para na próxima despesa lida.
+     */
+    public void cancel(ExportJob job) {
+        if (!job.isActive()) {
+            return;
+        }
+        job.requestCancel();
+        if (job.getStatus() == ExportJob.Status.QUEUED) {
+            job.update(ExportJob.Status.CANCELLED, 0, "");
+        }
+    }
+
+    public static synchronized void shutdown() {
+        if (instance != null) {
+            instance.executor.shutdownNow();
+            instance = null;
+        }
+    }
+
+    private void run(ExportJob job) {
+        if (job.isCancelRequested()) {
+            return;
+        }
+        publish(job, ExportJob.Status.RUNNING, 0, "Preparando...");
+
+        ExportRequest request = job.getRequest();
+        Path target = request.getFile().toPath();
+        Path partial = target.resolveSibling(target.getFileName() + ".part");
+        long start = System.nanoTime();
+
+        try {
+            ExpenseFilter filter = ExpenseFilter.builder()
+                .userId(request.getUserId())
+                .startDate(request.getStartDate())
+                .endDate(request.getEndDate())
+                .build();
+            long count = expenseDAO.countWithFilters(filter);
+            // Uma consulta de categorias por job; as linhas chegam só com o id da categoria
+            CategoryDictionary categories = CategoryDictionary.of(categoryDAO.findAllByUserId(request.getUserId()));
+
+            ExportUtil.ExpenseSource source = consumer -> expenseDAO.forEachWithoutCategoryName(filter, expense -> {
+                if (job.isCancelRequested()) {
+                    throw new CancellationException();
+                }
+                consumer.accept(expense);
+            });
+            ExportUtil.ProgressListener progress = (done, all) -> publish(job, ExportJob.Status.RUNNING,
+                all > 0 ? (double) done / all : 0, done + " de " + all + " despesas");
+
+            switch (request.getFormat()) {
+                case CSV -> ExportUtil.exportCsv(source, categories, count, partial.toFile(), progress);
+                case COLUMNAR -> ExportUtil.exportColumnar(source, categories, count, partial.toFile(), progress);
+                default -> ExportUtil.exportExpenses(source, summarize(request, filter, count, categories),
+                    partial.toFile(),
+                    request.getFormat() == ExportRequest.Format.PDF,
+                    request.isIncludeCharts(), request.isIncludeSummary(), request.isIncludeDetails(), progress);
+            }
+
+            if (job.isCancelRequested()) {
+                throw new CancellationException();
+            }
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING);
+
+            logger.info("Export {} finished: {} expenses to {} in {} ms", job.getId(), count, target,
+                (System.nanoTime() - start) / 1_000_000);
+            publish(job, ExportJob.Status.COMPLETED, 1, count + " despesas exportadas");
+        } catch (CancellationException e) {
+            deletePartial(partial);
+            logger.info("Export {} cancelled", job.getId());
+            publish(job, ExportJob.Status.CANCELLED, 0, "");
+        } catch (Exception e) {
+            deletePartial(partial);
+            logger.error("Error exporting report {}", job.getId(), e);
+            publish(job, ExportJob.Status.FAILED, 0, e.getMessage() != null ? e.getMessage() : "Erro ao exportar");
+        }
+    }
+
+    private ExportUtil.ExportSummary summarize(ExportRequest request, ExpenseFilter filter, long count,
+                                               CategoryDictionary categories) {
+        Money total = expenseDAO.getTotalWithFilters(filter);
+        // Gráficos partem da tabela de totais diários, não das linhas de despesa
+        ChartData charts = request.isIncludeCharts()
+            ? ChartData.fromDailyTotals(request.getUserId(), request.getStartDate(), request.getEndDate(),
+                rollupDAO.findDailyTotals(request.getUserId(), request.getStartDate(), request.getEndDate()))
+            : null;
+        return new ExportUtil.ExportSummary(request.getStartDate(), request.getEndDate(), total, count,
+            categories, charts);
+    }
+
+    private void publish(ExportJob job, ExportJob.Status status, double progress, String message) {
+        Platform.runLater(() -> job.update(status, progress, message));
+    }
+
+    private void deletePartial(Path partial) {
+        try {
+            Files.deleteIfExists(partial);
+        } catch (IOException e) {
+            logger.warn("Could not delete partial export {}", partial, e);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.expenses.service.importer;
+
+import com.expenses.model.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Escolhe a categoria de cada transação importada.
+ * <p>
+ * As regras são avaliadas na ordem do arquivo: a primeira palavra-chave contida na
+ * descrição define a categoria. Sem regra correspondente, usa a categoria do usuário
+ * cujo nome aparece na descrição e, por fim, a categoria padrão.
+ */
+public class CategoryMapper {
+    private static final Logger logger = LoggerFactory.getLogger(CategoryMapper.class);
+
+    /**
+     * Arquivo opcional de regras, no diretório de trabalho, com linhas {@code palavra-chave = Categoria}.
+     */
+    public static final String RULES_FILE = "import-rules.properties";
+
+    public record Rule(String keyword, String categoryName) {}
+
+    private record CompiledRule(String keyword, long categoryId) {}
+
+    private final List<CompiledRule> rules = new ArrayList<>();
+    private final List<CompiledRule> categoryNames = new ArrayList<>();
+    private final long defaultCategoryId;
+
+    public CategoryMapper(List<Category> categories, List<Rule> rules, long defaultCategoryId) {
+        this.defaultCategoryId = defaultCategoryId;
+        for (Rule rule : rules) {
+            Optional<Category> target = categories.stream()
+                .filter(category -> category.getName().equalsIgnoreCase(rule.categoryName()))
+                .findFirst();
+            if (target.isPresent()) {
+                this.rules.add(new CompiledRule(normalize(rule.keyword()), target.get().getId()));
+            } else {
+                logger.warn("Import rule '{}' points to unknown category '{}'", rule.keyword(), rule.categoryName());
+            }
+        }
+        for (Category category : categories) {
+            categoryNames.add(new CompiledRule(normalize(category.getName()), category.getId()));
+        }
+    }
+
+    public long categoryFor(String description) {
+        String text = normalize(description);
+        for (CompiledRule rule : rules) {
+            if (text.contains(rule.keyword())) {
+                return rule.categoryId();
+            }
+        }
+        for (CompiledRule name : categoryNames) {
+            if (!name.keyword().isEmpty() && text.contains(name.keyword())) {
+                return name.categoryId();
+            }
+        }
+        return defaultCategoryId;
+    }
+
+    /**
+     * Lê as regras de {@link #RULES_FILE}, se existir. Linhas vazias e iniciadas por {@code #} são ignoradas.
+     */
+    public static List<Rule> loadRules() {
+        return loadRules(Path.of(RULES_FILE));
+    }
+
+    public static List<Rule> loadRules(Path file) {
+        List<Rule> rules = new ArrayList<>();
+        if (!Files.isRegularFile(file)) {
+            return rules;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                int separator = line.indexOf('=');
+                if (line.isEmpty() || line.startsWith("#") || separator <= 0) {
+                    continue;
+                }
+                rules.add(new Rule(line.substring(0, separator).trim(), line.substring(separator + 1).trim()));
+            }
+            logger.info("Loaded {} import rules from {}", rules.size(), file.toAbsolutePath());
+        } catch (IOException e) {
+            logger.warn("Could not read import rules from {}", file.toAbsolutePath(), e);
+        }
+        return rules;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT).trim();
+    }
+}
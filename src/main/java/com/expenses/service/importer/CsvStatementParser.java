@@ -0,0 +1,135 @@
+package com.expenses.service.importer;
+
+import com.expenses.model.Money;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Extrato em CSV com colunas de data, descrição e valor.
+ * <p>
+ * O separador ({@code ;} ou {@code ,}) é detectado na primeira linha. Campos entre aspas
+ * podem conter o separador e aspas duplicadas. Uma primeira linha cuja data não pode ser
+ * interpretada é tratada como cabeçalho.
+ */
+public class CsvStatementParser implements StatementParser {
+    private static final List<DateTimeFormatter> DATE_FORMATS = List.of(
+        DateTimeFormatter.ofPattern("dd/MM/yyyy"),
+        DateTimeFormatter.ISO_LOCAL_DATE,
+        DateTimeFormatter.ofPattern("dd-MM-yyyy"),
+        DateTimeFormatter.ofPattern("dd/MM/yy")
+    );
+
+    private final int dateColumn;
+    private final int descriptionColumn;
+    private final int amountColumn;
+
+    public CsvStatementParser() {
+        this(0, 1, 2);
+    }
+
+    public CsvStatementParser(int dateColumn, int descriptionColumn, int amountColumn) {
+        this.dateColumn = dateColumn;
+        this.descriptionColumn = descriptionColumn;
+        this.amountColumn = amountColumn;
+    }
+
+    @Override
+    public void parse(Reader reader, Listener listener) throws IOException {
+        BufferedReader lines = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+        char delimiter = 0;
+        long position = 0;
+        List<String> fields = new ArrayList<>();
+
+        String line;
+        while ((line = lines.readLine()) != null) {
+            position++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (delimiter == 0) {
+                delimiter = detectDelimiter(line);
+            }
+
+            split(line, delimiter, fields);
+            int required = Math.max(dateColumn, Math.max(descriptionColumn, amountColumn));
+            if (fields.size() <= required) {
+                listener.invalid(position, "esperadas " + (required + 1) + " colunas, encontradas " + fields.size());
+                continue;
+            }
+
+            LocalDate date = parseDate(fields.get(dateColumn));
+            if (date == null) {
+                if (position == 1) {
+                    continue;  // cabeçalho
+                }
+                listener.invalid(position, "data inválida: " + fields.get(dateColumn));
+                continue;
+            }
+
+            Money amount;
+            try {
+                amount = Money.parse(StatementParser.normalizeAmount(fields.get(amountColumn)));
+            } catch (NumberFormatException e) {
+                listener.invalid(position, "valor inválido: " + fields.get(amountColumn));
+                continue;
+            }
+
+            listener.record(new StatementRecord(position, date, fields.get(descriptionColumn).trim(), amount, null));
+        }
+    }
+
+    private static char detectDelimiter(String line) {
+        long semicolons = line.chars().filter(c -> c == ';').count();
+        long commas = line.chars().filter(c -> c == ',').count();
+        return semicolons >= commas && semicolons > 0 ? ';' : ',';
+    }
+
+    private static void split(String line, char delimiter, List<String> fields) {
+        fields.clear();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == delimiter) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+    }
+
+    private static LocalDate parseDate(String text) {
+        String value = text.trim();
+        for (DateTimeFormatter format : DATE_FORMATS) {
+            try {
+                return LocalDate.parse(value, format);
+            } catch (DateTimeParseException e) {
+                // tenta o próximo formato
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,24 @@
+package com.expenses.service.importer;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Configuração de uma importação de extrato.
+ */
+@Value
+@Builder
+public class ImportOptions {
+    Long userId;
+    CategoryMapper categoryMapper;
+    @Builder.Default
+    Charset charset = StandardCharsets.UTF_8;
+    // Créditos (valores positivos) são receitas e não viram despesas
+    @Builder.Default
+    boolean skipCredits = true;
+    @Builder.Default
+    int chunkSize = StatementImporter.DEFAULT_CHUNK_SIZE;
+}
@@ -0,0 +1,98 @@
+package com.expenses.service.importer;
+
+import com.expenses.model.Money;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Extrato OFX, tanto no formato SGML (OFX 1.x, sem tags de fechamento) quanto em XML (OFX 2.x).
+ * <p>
+ * O arquivo é lido caractere a caractere; só os campos da transação corrente
+ * ({@code <STMTTRN>}) ficam em memória.
+ */
+public class OfxStatementParser implements StatementParser {
+    private static final DateTimeFormatter OFX_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+
+    @Override
+    public void parse(Reader reader, Listener listener) throws IOException {
+        Reader in = reader instanceof BufferedReader ? reader : new BufferedReader(reader);
+        Map<String, String> transaction = null;
+        String currentTag = null;
+        StringBuilder value = new StringBuilder();
+        StringBuilder tag = new StringBuilder();
+        long position = 0;
+
+        int c;
+        while ((c = in.read()) != -1) {
+            if (c != '<') {
+                if (currentTag != null) {
+                    value.append((char) c);
+                }
+                continue;
+            }
+
+            if (currentTag != null) {
+                transaction.put(currentTag, value.toString().trim());
+                currentTag = null;
+            }
+            value.setLength(0);
+
+            tag.setLength(0);
+            while ((c = in.read()) != -1 && c != '>') {
+                tag.append((char) c);
+            }
+            String name = tag.toString().trim().toUpperCase(Locale.ROOT);
+
+            if ("STMTTRN".equals(name)) {
+                transaction = new HashMap<>();
+                position++;
+            } else if ("/STMTTRN".equals(name)) {
+                if (transaction != null) {
+                    emit(position, transaction, listener);
+                }
+                transaction = null;
+            } else if (transaction != null && !name.startsWith("/")) {
+                currentTag = name;
+            }
+        }
+    }
+
+    private void emit(long position, Map<String, String> transaction, Listener listener) {
+        String posted = transaction.get("DTPOSTED");
+        String amountText = transaction.get("TRNAMT");
+        if (posted == null || posted.length() < 8 || amountText == null) {
+            listener.invalid(position, "transação sem DTPOSTED ou TRNAMT");
+            return;
+        }
+
+        LocalDate date;
+        try {
+            date = LocalDate.parse(posted.substring(0, 8), OFX_DATE);
+        } catch (DateTimeParseException e) {
+            listener.invalid(position, "data inválida: " + posted);
+            return;
+        }
+
+        Money amount;
+        try {
+            amount = Money.parse(StatementParser.normalizeAmount(amountText));
+        } catch (NumberFormatException e) {
+            listener.invalid(position, "valor inválido: " + amountText);
+            return;
+        }
+
+        String description = transaction.getOrDefault("MEMO", "");
+        if (description.isBlank()) {
+            description = transaction.getOrDefault("NAME", "");
+        }
+        listener.record(new StatementRecord(position, date, description, amount, transaction.get("FITID")));
+    }
+}
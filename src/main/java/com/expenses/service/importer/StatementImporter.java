@@ -0,0 +1,335 @@
+package com.expenses.service.importer;
+
+import com.expenses.dao.ImportDAO;
+import com.expenses.model.ImportJob;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Importa extratos CSV ou OFX em lotes transacionais.
+ * <p>
+ * O arquivo é lido em fluxo: o parser entrega uma transação por vez e só o lote corrente
+ * fica em memória. Cada lote é gravado com um único batch JDBC numa transação que também
+ * registra o progresso em import_jobs; se a importação for interrompida, importar o mesmo
+ * arquivo de novo retoma a partir do último lote confirmado.
+ * <p>
+ * Duplicatas são detectadas de duas formas: pela chave de origem (FITID do OFX, ou um hash
+ * de data, valor, descrição e ocorrência no CSV), que o índice único de expenses rejeita, e
+ * por comparação com despesas lançadas manualmente com a mesma data, valor e descrição.
+ */
+public class StatementImporter {
+    private static final Logger logger = LoggerFactory.getLogger(StatementImporter.class);
+    public static final int DEFAULT_CHUNK_SIZE = 5_000;
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    public enum Format {
+        CSV, OFX;
+
+        public static Format of(Path file) {
+            String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+            return name.endsWith(".ofx") || name.endsWith(".qfx") ? OFX : CSV;
+        }
+
+        StatementParser parser() {
+            return this == OFX ? new OfxStatementParser() : new CsvStatementParser();
+        }
+    }
+
+    /**
+     * Situação da importação, publicada a cada lote gravado.
+     */
+    public record Progress(long bytesRead, long totalBytes, ImportJob job) {
+        public double fraction() {
+            return totalBytes > 0 ? Math.min(1.0, (double) bytesRead / totalBytes) : 0;
+        }
+    }
+
+    public interface ProgressListener {
+        void onProgress(Progress progress);
+    }
+
+    private final ImportDAO importDAO;
+
+    public StatementImporter() {
+        this(new ImportDAO());
+    }
+
+    public StatementImporter(ImportDAO importDAO) {
+        this.importDAO = importDAO;
+    }
+
+    /**
+     * Importa o arquivo, retomando uma importação anterior não concluída do mesmo conteúdo.
+     *
+     * @param cancelled consultado a cada transação lida; ao retornar {@code true} a importação
+     *                  para depois do último lote confirmado e fica com status CANCELLED
+     */
+    public ImportJob importFile(Path file, ImportOptions options, ProgressListener listener,
+                                BooleanSupplier cancelled) throws IOException {
+        Format format = Format.of(file);
+        String fileHash = sha256(file);
+
+        ImportJob job = importDAO.findResumable(options.getUserId(), fileHash).orElse(null);
+        if (job != null) {
+            logger.info("Resuming import {} of {} after position {}", job.getId(), file, job.getLastPosition());
+            job.setStatus(ImportJob.Status.RUNNING);
+            job.setError(null);
+        } else {
+            job = importDAO.createJob(ImportJob.builder()
+                .userId(options.getUserId())
+                .fileName(file.getFileName().toString())
+                .fileHash(fileHash)
+                .format(format.name())
+                .build());
+            logger.info("Starting import {} of {} ({})", job.getId(), file, format);
+        }
+
+        long totalBytes = Files.size(file);
+        long start = System.nanoTime();
+        try (CountingInputStream counting = new CountingInputStream(Files.newInputStream(file));
+             BufferedReader reader = new BufferedReader(
+                 new InputStreamReader(counting, options.getCharset()), READ_BUFFER_SIZE)) {
+
+            Batch batch = new Batch(job, options, listener, cancelled, counting, totalBytes);
+            format.parser().parse(reader, batch);
+            batch.flush();
+
+            job.setStatus(ImportJob.Status.COMPLETED);
+            importDAO.saveJob(job);
+            listener.onProgress(new Progress(totalBytes, totalBytes, job));
+        } catch (CancellationException e) {
+            job.setStatus(ImportJob.Status.CANCELLED);
+            importDAO.saveJob(job);
+            logger.info("Import {} cancelled after position {}", job.getId(), job.getLastPosition());
+            return job;
+        } catch (IOException | RuntimeException e) {
+            job.setStatus(ImportJob.Status.FAILED);
+            job.setError(e.getMessage());
+            importDAO.saveJob(job);
+            throw e;
+        }
+
+        long elapsedMs = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        logger.info("Import {} finished: {} read, {} imported, {} duplicates, {} invalid in {} ms ({} rows/s)",
+            job.getId(), job.getRowsRead(), job.getRowsImported(), job.getRowsDuplicate(), job.getRowsInvalid(),
+            elapsedMs, job.getRowsRead() * 1000 / elapsedMs);
+        return job;
+    }
+
+    /**
+     * Acumula as transações lidas e grava um lote a cada {@code chunkSize} despesas.
+     */
+    private class Batch implements StatementParser.Listener {
+        private final ImportJob job;
+        private final ImportOptions options;
+        private final ProgressListener listener;
+        private final BooleanSupplier cancelled;
+        private final CountingInputStream input;
+        private final long totalBytes;
+        private final long resumeAfter;
+
+        private final List<StatementRecord> pending = new ArrayList<>();
+        private final Map<String, Integer> occurrences = new HashMap<>();
+        private final Map<String, Integer> manualMatched = new HashMap<>();
+        private final MessageDigest digest = newDigest();
+        private long position;
+        // Contadores do lote atual; só entram no job quando o lote é confirmado
+        private long chunkRead;
+        private long chunkInvalid;
+        private long chunkDuplicate;
+
+        Batch(ImportJob job, ImportOptions options, ProgressListener listener, BooleanSupplier cancelled,
+              CountingInputStream input, long totalBytes) {
+            this.job = job;
+            this.options = options;
+            this.listener = listener;
+            this.cancelled = cancelled;
+            this.input = input;
+            this.totalBytes = totalBytes;
+            this.resumeAfter = job.getLastPosition();
+        }
+
+        @Override
+        public void record(StatementRecord record) {
+            // A chave depende da ocorrência no arquivo, então é calculada mesmo para o que já foi gravado
+            String importKey = importKey(record);
+            position = record.position();
+            if (position <= resumeAfter) {
+                return;
+            }
+            if (cancelled.getAsBoolean()) {
+                throw new CancellationException();
+            }
+
+            chunkRead++;
+            if (record.amount().isZero() || (options.isSkipCredits() && record.amount().signum() > 0)) {
+                return;
+            }
+
+            // No lote, externalId passa a carregar a chave de importação já calculada
+            pending.add(new StatementRecord(record.position(), record.date(), record.description(),
+                record.amount(), importKey));
+            if (pending.size() >= options.getChunkSize()) {
+                flush();
+            }
+        }
+
+        @Override
+        public void invalid(long position, String reason) {
+            this.position = position;
+            if (position <= resumeAfter) {
+                return;
+            }
+            chunkRead++;
+            chunkInvalid++;
+            logger.debug("Import {}: skipping position {}: {}", job.getId(), position, reason);
+        }
+
+        void flush() {
+            if (position <= job.getLastPosition()) {
+                return;
+            }
+
+            List<ImportDAO.ImportRow> rows = new ArrayList<>(pending.size());
+            if (!pending.isEmpty()) {
+                Map<String, Integer> manual = manualExpenses();
+                for (StatementRecord record : pending) {
+                    long cents = Math.abs(record.amount().getCents());
+                    String key = ImportDAO.manualKey(record.date(), cents, record.description());
+                    int available = manual.getOrDefault(key, 0) - manualMatched.getOrDefault(key, 0);
+                    if (available > 0) {
+                        manualMatched.merge(key, 1, Integer::sum);
+                        chunkDuplicate++;
+                        continue;
+                    }
+                    long categoryId = options.getCategoryMapper().categoryFor(record.description());
+                    rows.add(new ImportDAO.ImportRow(record.date(), record.description(), cents, categoryId,
+                        record.externalId()));
+                }
+            }
+
+            // Posição e contadores vão numa cópia; o job só avança depois que o lote é confirmado,
+            // então uma falha ou cancelamento grava apenas o progresso do último lote gravado
+            ImportJob next = job.toBuilder()
+                .lastPosition(position)
+                .rowsRead(job.getRowsRead() + chunkRead)
+                .rowsInvalid(job.getRowsInvalid() + chunkInvalid)
+                .rowsDuplicate(job.getRowsDuplicate() + chunkDuplicate)
+                .build();
+            if (rows.isEmpty()) {
+                importDAO.saveJob(next);
+            } else {
+                importDAO.insertChunk(next, rows);
+            }
+            job.setLastPosition(next.getLastPosition());
+            job.setRowsRead(next.getRowsRead());
+            job.setRowsInvalid(next.getRowsInvalid());
+            job.setRowsDuplicate(next.getRowsDuplicate());
+            job.setRowsImported(next.getRowsImported());
+            chunkRead = 0;
+            chunkInvalid = 0;
+            chunkDuplicate = 0;
+            pending.clear();
+            listener.onProgress(new Progress(input.getCount(), totalBytes, job));
+        }
+
+        private Map<String, Integer> manualExpenses() {
+            LocalDate min = pending.get(0).date();
+            LocalDate max = min;
+            for (StatementRecord record : pending) {
+                if (record.date().isBefore(min)) {
+                    min = record.date();
+                }
+                if (record.date().isAfter(max)) {
+                    max = record.date();
+                }
+            }
+            return importDAO.countManualExpenses(options.getUserId(), min, max);
+        }
+
+        private String importKey(StatementRecord record) {
+            String base = record.date() + "|" + record.amount().getCents() + "|";
+            if (record.externalId() != null && !record.externalId().isBlank()) {
+                base = "ofx|" + base + record.externalId().trim();
+            } else {
+                base = "csv|" + base + ImportDAO.manualKey(record.date(), 0, record.description());
+            }
+            int occurrence = occurrences.merge(base, 1, Integer::sum);
+            byte[] hash = digest.digest((base + "|" + occurrence).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 16);
+        }
+    }
+
+    private static String sha256(Path file) throws IOException {
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[READ_BUFFER_SIZE];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+
+    /**
+     * Conta os bytes lidos do arquivo, para calcular o progresso.
+     */
+    private static class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.expenses.service.importer;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Lê um extrato de forma sequencial, entregando uma transação por vez.
+ */
+public interface StatementParser {
+
+    interface Listener {
+        void record(StatementRecord record);
+
+        void invalid(long position, String reason);
+    }
+
+    void parse(Reader reader, Listener listener) throws IOException;
+
+    /**
+     * Converte valores como {@code -1.234,56}, {@code 1234.56} ou {@code R$ 10,00} para o
+     * formato aceito por {@link com.expenses.model.Money#parse(String)}.
+     */
+    static String normalizeAmount(String text) {
+        String value = text.replace("R$", "").replace(" ", "").replace("\u00A0", "").trim();
+        int comma = value.lastIndexOf(',');
+        int dot = value.lastIndexOf('.');
+        if (comma >= 0 && dot >= 0) {
+            // O separador que aparece por último é o decimal
+            if (comma > dot) {
+                value = value.replace(".", "").replace(',', '.');
+            } else {
+                value = value.replace(",", "");
+            }
+        } else if (comma >= 0) {
+            value = value.replace(',', '.');
+        }
+        return value;
+    }
+}
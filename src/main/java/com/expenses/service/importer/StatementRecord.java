@@ -0,0 +1,14 @@
+package com.expenses.service.importer;
+
+import com.expenses.model.Money;
+
+import java.time.LocalDate;
+
+/**
+ * Uma transação lida do extrato.
+ *
+ * @param position posição no arquivo (linha do CSV ou ordem da transação no OFX), usada para retomar
+ * @param amount valor com o sinal do extrato: negativo para débitos
+ * @param externalId identificador da transação no banco (FITID do OFX), quando existir
+ */
+public record StatementRecord(long position, LocalDate date, String description, Money amount, String externalId) {}
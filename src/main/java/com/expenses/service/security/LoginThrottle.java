@@ -0,0 +1,151 @@
+package com.expenses.service.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Limita as tentativas de login antes de qualquer consulta ao banco ou cálculo de hash.
+ * <p>
+ * São três barreiras, todas em memória e sem locks, que contam só tentativas que falharam
+ * (senha errada ou email inexistente); logins corretos nunca consomem limite:
+ * <ul>
+ *   <li>por email, no máximo {@link #EMAIL_LIMIT} falhas em {@link #EMAIL_WINDOW};</li>
+ *   <li>por cliente, no máximo {@link #CLIENT_LIMIT} falhas em {@link #CLIENT_WINDOW}, o que
+ *       segura quem testa muitos emails diferentes;</li>
+ *   <li>por email, depois de {@link #FREE_FAILURES} senhas erradas seguidas, uma espera que
+ *       dobra a cada nova falha, até {@link #MAX_BACKOFF}. Um login correto zera a contagem.</li>
+ * </ul>
+ * Num aplicativo desktop o cliente é o usuário do sistema operacional e a máquina
+ * ({@link #getLocalClient()}), então o limite por cliente vale para a instalação inteira, não
+ * para cada pessoa que tenta entrar.
+ */
+public class LoginThrottle {
+    private static final Logger logger = LoggerFactory.getLogger(LoginThrottle.class);
+    static final int EMAIL_LIMIT = 10;
+    static final Duration EMAIL_WINDOW = Duration.ofMinutes(15);
+    static final int CLIENT_LIMIT = 30;
+    static final Duration CLIENT_WINDOW = Duration.ofMinutes(5);
+    static final int FREE_FAILURES = 3;
+    static final Duration BASE_BACKOFF = Duration.ofSeconds(1);
+    static final Duration MAX_BACKOFF = Duration.ofMinutes(5);
+    private static LoginThrottle instance;
+
+    private final LongSupplier clock;
+    private final SlidingWindowLimiter emailLimiter;
+    private final SlidingWindowLimiter clientLimiter;
+    private final Map<String, Backoff> backoffs = new ConcurrentHashMap<>();
+    private final String localClient = resolveLocalClient();
+
+    LoginThrottle(LongSupplier clock) {
+        this.clock = clock;
+        this.emailLimiter = new SlidingWindowLimiter(EMAIL_LIMIT, EMAIL_WINDOW.toMillis(), clock);
+        this.clientLimiter = new SlidingWindowLimiter(CLIENT_LIMIT, CLIENT_WINDOW.toMillis(), clock);
+    }
+
+    public static synchronized LoginThrottle getInstance() {
+        if (instance == null) {
+            instance = new LoginThrottle(System::currentTimeMillis);
+        }
+        return instance;
+    }
+
+    /**
+     * Identificador deste cliente: usuário do sistema operacional e nome da máquina.
+     */
+    public String getLocalClient() {
+        return localClient;
+    }
+
+    /**
+     * Confere as três barreiras antes da tentativa, sem consumir nenhum limite.
+     *
+     * @throws LoginThrottledException se o email estiver em espera ou algum limite tiver
+     *                                 sido atingido
+     */
+    public void check(String email, String client) {
+        String key = normalize(email);
+        long now = clock.getAsLong();
+
+        Backoff backoff = backoffs.get(key);
+        if (backoff != null) {
+            long wait = backoff.lockedUntil.get() - now;
+            if (wait > 0) {
+                throw throttled("email in backoff", key, client, wait);
+            }
+        }
+
+        long wait = clientLimiter.waitMillis(client);
+        if (wait > 0) {
+            throw throttled("client limit reached", key, client, wait);
+        }
+        wait = emailLimiter.waitMillis(key);
+        if (wait > 0) {
+            throw throttled("email limit reached", key, client, wait);
+        }
+    }
+
+    /**
+     * Senha errada ou email inexistente: conta a falha nos limites do email e do cliente e, a
+     * partir de {@link #FREE_FAILURES} falhas seguidas, coloca o email em espera.
+     */
+    public void recordFailure(String email, String client) {
+        String key = normalize(email);
+        long now = clock.getAsLong();
+        emailLimiter.record(key);
+        clientLimiter.record(client);
+        if (backoffs.size() > 10_000) {
+            backoffs.values().removeIf(backoff -> backoff.isExpired(now));
+        }
+
+        Backoff backoff = backoffs.computeIfAbsent(key, k -> new Backoff());
+        int failures = backoff.failures.incrementAndGet();
+        if (failures >= FREE_FAILURES) {
+            int exponent = Math.min(failures - FREE_FAILURES, 20);
+            long delay = Math.min(BASE_BACKOFF.toMillis() << exponent, MAX_BACKOFF.toMillis());
+            backoff.lockedUntil.accumulateAndGet(now + delay, Math::max);
+            logger.warn("Login for {} delayed {} ms after {} failed attempts", key, delay, failures);
+        }
+    }
+
+    public void recordSuccess(String email) {
+        backoffs.remove(normalize(email));
+    }
+
+    private LoginThrottledException throttled(String reason, String email, String client, long waitMillis) {
+        logger.warn("Login attempt rejected ({}): email={}, client={}, retry in {} ms", reason, email, client, waitMillis);
+        return new LoginThrottledException("Too many login attempts", Duration.ofMillis(waitMillis));
+    }
+
+    private static String normalize(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String resolveLocalClient() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "localhost";
+        }
+        return System.getProperty("user.name", "?") + "@" + host;
+    }
+
+    private static final class Backoff {
+        final AtomicInteger failures = new AtomicInteger();
+        final AtomicLong lockedUntil = new AtomicLong();
+
+        boolean isExpired(long now) {
+            return lockedUntil.get() + MAX_BACKOFF.toMillis() < now;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.expenses.service.security;
+
+import java.time.Duration;
+
+/**
+ * Tentativa de login recusada pelo {@link LoginThrottle} antes de consultar o banco.
+ */
+public class LoginThrottledException extends RuntimeException {
+    private final Duration retryAfter;
+
+    public LoginThrottledException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,183 @@
+package com.expenses.service.security;
+
+import at.favre.lib.crypto.bcrypt.BCrypt;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Gera e confere hashes BCrypt num pool próprio e limitado.
+ * <p>
+ * Cada hash ocupa um núcleo por centenas de milissegundos; com vários logins ao mesmo tempo,
+ * rodá-los na thread de quem chama disputaria a CPU com as consultas e a interface. Aqui no
+ * máximo {@link #WORKERS} hashes rodam de uma vez e até {@link #QUEUE_CAPACITY} esperam na
+ * fila; além disso a chamada falha com {@link RejectedExecutionException} em vez de acumular
+ * trabalho. Os métodos bloqueiam até o resultado e devem ser chamados fora da thread da
+ * interface.
+ * <p>
+ * O custo usado nos novos hashes é calibrado por {@link #calibrate()} para que um hash leve
+ * perto de {@link #TARGET_MILLIS} nesta máquina, dentro de {@link #MIN_COST} e
+ * {@link #MAX_COST}. Até a calibração terminar vale {@link #DEFAULT_COST}. O mínimo é o custo
+ * que o aplicativo sempre usou, para que a calibração nunca enfraqueça hashes já gravados; um
+ * hash só é refeito quando o custo dele é menor que o atual.
+ */
+public class PasswordHasher {
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHasher.class);
+    private static final int WORKERS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+    private static final int QUEUE_CAPACITY = 16;
+    public static final int DEFAULT_COST = 12;
+    public static final int MIN_COST = DEFAULT_COST;
+    public static final int MAX_COST = 14;
+    public static final long TARGET_MILLIS = 250;
+    private static PasswordHasher instance;
+
+    private final ThreadPoolExecutor executor;
+    private volatile int cost = DEFAULT_COST;
+    private volatile boolean calibrated;
+
+    private PasswordHasher() {
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(WORKERS, WORKERS, 30, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+            runnable -> {
+                Thread thread = new Thread(runnable, "password-hasher-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public static synchronized PasswordHasher getInstance() {
+        if (instance == null) {
+            instance = new PasswordHasher();
+        }
+        return instance;
+    }
+
+    public static synchronized void shutdown() {
+        if (instance != null) {
+            instance.executor.shutdownNow();
+            instance = null;
+        }
+    }
+
+    /**
+     * Resultado da conferência de uma senha.
+     *
+     * @param verified    a senha confere com o hash
+     * @param needsRehash a senha confere, mas o hash foi gerado com custo menor que o atual e
+     *                    deve ser substituído
+     */
+    public record Verification(boolean verified, boolean needsRehash) {
+        static final Verification FAILED = new Verification(false, false);
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    /**
+     * Mede o tempo de um hash nesta máquina e escolhe o maior custo que fica dentro do alvo.
+     * Roda no pool, sem bloquear quem chama; chamadas depois da primeira não fazem nada.
+     */
+    public void calibrate() {
+        if (calibrated) {
+            return;
+        }
+        calibrated = true;
+        try {
+            executor.execute(() -> {
+                char[] sample = "calibration-sample".toCharArray();
+                // A primeira execução inclui o aquecimento da JIT
+                BCrypt.withDefaults().hash(MIN_COST, sample);
+                long start = System.nanoTime();
+                BCrypt.withDefaults().hash(MIN_COST, sample);
+                long millis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+                // Cada ponto de custo dobra o tempo
+                int chosen = MIN_COST;
+                while (chosen < MAX_COST && millis * 2 <= TARGET_MILLIS) {
+                    millis *= 2;
+                    chosen++;
+                }
+                cost = chosen;
+                logger.info("Password hashing cost calibrated to {} (~{} ms per hash)", chosen, millis);
+            });
+        } catch (RejectedExecutionException e) {
+            calibrated = false;
+            logger.warn("Password hashing calibration rejected, keeping cost {}", cost);
+        }
+    }
+
+    /**
+     * Gera o hash da senha com o custo atual.
+     *
+     * @throws RejectedExecutionException se a fila de hashes estiver cheia
+     */
+    public String hash(String password) {
+        int hashCost = cost;
+        return await(() -> BCrypt.withDefaults().hashToString(hashCost, password.toCharArray()));
+    }
+
+    /**
+     * Confere a senha com o hash armazenado.
+     *
+     * @throws RejectedExecutionException se a fila de hashes estiver cheia
+     */
+    public Verification verify(String password, String storedHash) {
+        if (storedHash == null) {
+            return Verification.FAILED;
+        }
+        int currentCost = cost;
+        return await(() -> {
+            BCrypt.Result result = BCrypt.verifyer().verify(password.toCharArray(), storedHash);
+            if (!result.verified) {
+                return Verification.FAILED;
+            }
+            return new Verification(true, costOf(storedHash) < currentCost);
+        });
+    }
+
+    /**
+     * Custo gravado no hash ({@code $2a$12$...}), ou -1 se o formato não for reconhecido.
+     */
+    static int costOf(String hash) {
+        if (hash.length() < 7 || hash.charAt(0) != '$' || hash.charAt(3) != '$' || hash.charAt(6) != '$') {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(hash.substring(4, 6));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private <T> T await(Callable<T> work) {
+        Future<T> future;
+        try {
+            future = executor.submit(work);
+        } catch (RejectedExecutionException e) {
+            logger.warn("Password hashing rejected: {} requests already queued", executor.getQueue().size());
+            throw e;
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            logger.error("Error hashing password", e.getCause());
+            throw new RuntimeException("Error hashing password", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.expenses.service.security;
+
+import com.expenses.dao.EmailOutboxDAO;
+import com.expenses.dao.RecoveryTokenDAO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remove periodicamente os tokens de recuperação vencidos e os emails da fila mais antigos
+ * que {@link RecoveryTokenDAO#TOKEN_LIFETIME}, cujo corpo pode conter um token em claro.
+ * <p>
+ * Cada passada apaga em lotes de {@link #BATCH_SIZE}, cada lote numa transação própria, para
+ * não segurar a conexão de escrita por muito tempo quando há muitas linhas acumuladas.
+ */
+public class RecoveryTokenSweeper {
+    private static final Logger logger = LoggerFactory.getLogger(RecoveryTokenSweeper.class);
+    private static final int BATCH_SIZE = 500;
+    private static final long INITIAL_DELAY_MINUTES = 1;
+    private static final long INTERVAL_MINUTES = 30;
+    private static RecoveryTokenSweeper instance;
+
+    private final RecoveryTokenDAO recoveryTokenDAO = new RecoveryTokenDAO();
+    private final EmailOutboxDAO outboxDAO = new EmailOutboxDAO();
+    private final ScheduledExecutorService scheduler;
+
+    private RecoveryTokenSweeper() {
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "recovery-token-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.scheduleWithFixedDelay(this::sweep, INITIAL_DELAY_MINUTES, INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Agenda as passadas, se ainda não estiverem agendadas.
+     */
+    public static synchronized void start() {
+        if (instance == null) {
+            instance = new RecoveryTokenSweeper();
+        }
+    }
+
+    public static synchronized void shutdown() {
+        if (instance != null) {
+            instance.scheduler.shutdownNow();
+            instance = null;
+        }
+    }
+
+    /**
+     * Apaga os tokens vencidos, lote a lote, até não sobrar nenhum.
+     *
+     * @return quantidade apagada
+     */
+    int sweep() {
+        int total = 0;
+        try {
+            int deleted;
+            do {
+                if (Thread.currentThread().isInterrupted()) {
+                    break;
+                }
+                deleted = recoveryTokenDAO.purgeExpired(BATCH_SIZE);
+                total += deleted;
+            } while (deleted == BATCH_SIZE);
+        } catch (RuntimeException e) {
+            // Uma exceção cancelaria as próximas execuções agendadas
+            logger.warn("Recovery token sweep stopped after {} tokens", total, e);
+        }
+        if (total > 0) {
+            logger.info("Purged {} expired recovery tokens", total);
+        }
+        sweepOutbox();
+        return total;
+    }
+
+    /**
+     * Apaga, lote a lote, os emails criados antes do prazo de validade de um token.
+     *
+     * @return quantidade apagada
+     */
+    int sweepOutbox() {
+        long cutoff = System.currentTimeMillis() - RecoveryTokenDAO.TOKEN_LIFETIME.toMillis();
+        int total = 0;
+        try {
+            int deleted;
+            do {
+                if (Thread.currentThread().isInterrupted()) {
+                    break;
+                }
+                deleted = outboxDAO.purgeOlderThan(cutoff, BATCH_SIZE);
+                total += deleted;
+            } while (deleted == BATCH_SIZE);
+        } catch (RuntimeException e) {
+            logger.warn("Email outbox sweep stopped after {} messages", total, e);
+        }
+        if (total > 0) {
+            logger.info("Purged {} old outbox messages", total);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,131 @@
+package com.expenses.service.security;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Limita quantas tentativas cada chave faz numa janela deslizante, sem locks.
+ * <p>
+ * A janela de cada chave é dividida em {@link #BUCKETS} fatias de tempo. Cada fatia é um
+ * único {@code long} com o número da fatia nos bits altos e a contagem nos 16 bits baixos,
+ * atualizado por CAS; uma fatia de outra época é zerada ao ser reaproveitada. O total da
+ * janela é a soma das fatias ainda dentro dela, então tentativas antigas saem aos poucos em
+ * vez de todas de uma vez. A consulta ({@link #waitMillis}) e o registro ({@link #record}) são
+ * separados, para que quem chama confira vários limites antes de gastar a vaga de qualquer um
+ * deles; por isso, sob disputa, o limite pode ser ultrapassado por algumas tentativas. Chaves
+ * sem tentativas na janela são removidas periodicamente.
+ */
+final class SlidingWindowLimiter {
+    static final int BUCKETS = 16;
+    private static final int COUNT_BITS = 16;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    private static final int SWEEP_INTERVAL = 1024;
+
+    private final int limit;
+    private final long bucketMillis;
+    private final LongSupplier clock;
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+    private final AtomicInteger sinceSweep = new AtomicInteger();
+
+    SlidingWindowLimiter(int limit, long windowMillis, LongSupplier clock) {
+        this.limit = limit;
+        this.bucketMillis = Math.max(1, windowMillis / BUCKETS);
+        this.clock = clock;
+    }
+
+    /**
+     * Confere a chave sem registrar nada.
+     *
+     * @return 0 se ainda houver vaga na janela, ou os milissegundos até ela liberar uma
+     */
+    long waitMillis(String key) {
+        Window window = windows.get(key);
+        if (window == null) {
+            return 0;
+        }
+        long now = clock.getAsLong();
+        long epoch = now / bucketMillis;
+        if (window.count(epoch) < limit) {
+            return 0;
+        }
+        long oldest = window.oldestEpoch(epoch);
+        return Math.max(1, (oldest + BUCKETS) * bucketMillis - now);
+    }
+
+    /**
+     * Conta uma tentativa da chave na fatia atual.
+     */
+    void record(String key) {
+        long epoch = clock.getAsLong() / bucketMillis;
+        if (sinceSweep.incrementAndGet() >= SWEEP_INTERVAL) {
+            sinceSweep.set(0);
+            windows.values().removeIf(window -> window.isIdle(epoch));
+        }
+        windows.computeIfAbsent(key, k -> new Window()).increment(epoch);
+    }
+
+    int size() {
+        return windows.size();
+    }
+
+    private static final class Window {
+        private final AtomicLongArray slots = new AtomicLongArray(BUCKETS);
+
+        int count(long epoch) {
+            int total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                long slot = slots.get(i);
+                if (isLive(slot, epoch)) {
+                    total += (int) (slot & COUNT_MASK);
+                }
+            }
+            return total;
+        }
+
+        long oldestEpoch(long epoch) {
+            long oldest = epoch;
+            for (int i = 0; i < BUCKETS; i++) {
+                long slot = slots.get(i);
+                if (isLive(slot, epoch) && (slot & COUNT_MASK) > 0) {
+                    oldest = Math.min(oldest, slot >>> COUNT_BITS);
+                }
+            }
+            return oldest;
+        }
+
+        void increment(long epoch) {
+            int index = (int) (epoch % BUCKETS);
+            while (true) {
+                long slot = slots.get(index);
+                long next;
+                if (slot >>> COUNT_BITS == epoch) {
+                    if ((slot & COUNT_MASK) == COUNT_MASK) {
+                        return;
+                    }
+                    next = slot + 1;
+                } else {
+                    next = (epoch << COUNT_BITS) | 1;
+                }
+                if (slots.compareAndSet(index, slot, next)) {
+                    return;
+                }
+            }
+        }
+
+        boolean isIdle(long epoch) {
+            for (int i = 0; i < BUCKETS; i++) {
+                if (isLive(slots.get(i), epoch)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean isLive(long slot, long epoch) {
+            return slot != 0 && epoch - (slot >>> COUNT_BITS) < BUCKETS;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.expenses.tools;
+
+import com.expenses.config.DatabaseConfig;
+import com.expenses.config.migration.QueryPlanVerifier;
+import com.expenses.config.migration.SchemaValidator;
+import com.expenses.dao.RollupDAO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Comandos de manutenção do banco, executados fora da interface gráfica:
+ * <pre>
+ *   java -cp my-expenses.jar com.expenses.tools.DatabaseTool rollup-verify
+ *   java -cp my-expenses.jar com.expenses.tools.DatabaseTool rollup-rebuild
+ *   java -cp my-expenses.jar com.expenses.tools.DatabaseTool schema-check
+ * </pre>
+ * {@code schema-check} lista as colunas e a quantidade de linhas de cada tabela, as colunas
+ * ausentes e o plano das consultas principais; sai com 1 se algo estiver fora do esperado.
+ */
+public class DatabaseTool {
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseTool.class);
+
+    public static void main(String[] args) {
+        if (args.length != 1) {
+            printUsage();
+            System.exit(2);
+        }
+
+        int status;
+        try {
+            DatabaseConfig.initDatabase();
+            status = run(args[0]);
+        } catch (RuntimeException e) {
+            logger.error("Command {} failed", args[0], e);
+            status = 1;
+        } finally {
+            DatabaseConfig.shutdown();
+        }
+        System.exit(status);
+    }
+
+    private static int run(String command) {
+        RollupDAO rollupDAO = new RollupDAO();
+        switch (command) {
+            case "rollup-verify": {
+                RollupDAO.VerifyResult result = rollupDAO.verify();
+                System.out.printf("expense_daily_totals: %d ausentes/divergentes, %d obsoletas%n",
+                    result.missing(), result.stale());
+                return result.isConsistent() ? 0 : 1;
+            }
+            case "rollup-rebuild": {
+                int rows = rollupDAO.rebuild();
+                System.out.printf("expense_daily_totals recalculada: %d linhas%n", rows);
+                return 0;
+            }
+            case "schema-check":
+                return schemaCheck();
+            default:
+                printUsage();
+                return 2;
+        }
+    }
+
+    private static int schemaCheck() {
+        try (Connection conn = DatabaseConfig.getReadConnection()) {
+            SchemaValidator.Report report = new SchemaValidator().validate(conn, true);
+            for (SchemaValidator.TableReport table : report.tables()) {
+                if (!table.exists()) {
+                    System.out.printf("%s: tabela ausente%n", table.table());
+                    continue;
+                }
+                System.out.printf("%s: %d linhas%n", table.table(), table.rows());
+                for (SchemaValidator.Column column : table.columns()) {
+                    System.out.printf("  %-24s %s%s%n", column.name(), column.type(),
+                        column.notNull() ? " NOT NULL" : "");
+                }
+                if (!table.missing().isEmpty()) {
+                    System.out.printf("  colunas ausentes: %s%n", String.join(", ", table.missing()));
+                }
+            }
+
+            boolean allIndexed = true;
+            System.out.println("Planos de consulta:");
+            for (QueryPlanVerifier.Result result : new QueryPlanVerifier().verify(conn)) {
+                allIndexed &= result.usesIndex();
+                System.out.printf("  [%s] %s: %s%n", result.usesIndex() ? "ok" : "sem índice",
+                    result.check().name(), String.join(" / ", result.plan()));
+            }
+            return report.isValid() && allIndexed ? 0 : 1;
+        } catch (SQLException e) {
+            logger.error("Error checking database schema", e);
+            throw new RuntimeException("Error checking database schema", e);
+        }
+    }
+
+    private static void printUsage() {
+        System.err.println("Uso: DatabaseTool <rollup-verify | rollup-rebuild | schema-check>");
+    }
+}
@@ -0,0 +1,111 @@
+package com.expenses.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Buffer de bytes que cresce conforme a necessidade, usado pelos codificadores de exportação.
+ * Não é thread-safe: cada grupo de linhas é codificado no seu próprio buffer.
+ */
+final class ByteSink {
+    private byte[] bytes;
+    private int size;
+
+    ByteSink(int initialCapacity) {
+        this.bytes = new byte[Math.max(16, initialCapacity)];
+    }
+
+    int size() {
+        return size;
+    }
+
+    byte[] array() {
+        return bytes;
+    }
+
+    ByteSink put(byte value) {
+        ensure(1);
+        bytes[size++] = value;
+        return this;
+    }
+
+    ByteSink put(byte[] values) {
+        return put(values, 0, values.length);
+    }
+
+    ByteSink put(byte[] values, int offset, int length) {
+        ensure(length);
+        System.arraycopy(values, offset, bytes, size, length);
+        size += length;
+        return this;
+    }
+
+    ByteSink put(ByteSink other) {
+        return put(other.bytes, 0, other.size);
+    }
+
+    ByteSink putAscii(String text) {
+        ensure(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            bytes[size++] = (byte) text.charAt(i);
+        }
+        return this;
+    }
+
+    ByteSink putUtf8(String text) {
+        return put(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Inteiro sem sinal em 7 bits por byte (LEB128).
+     */
+    ByteSink putVarLong(long value) {
+        ensure(10);
+        while ((value & ~0x7FL) != 0) {
+            bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        bytes[size++] = (byte) value;
+        return this;
+    }
+
+    /**
+     * Inteiro com sinal em zigzag, para que valores negativos pequenos também ocupem poucos bytes.
+     */
+    ByteSink putZigZag(long value) {
+        return putVarLong((value << 1) ^ (value >> 63));
+    }
+
+    ByteSink putLong(long value) {
+        ensure(8);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            bytes[size++] = (byte) (value >>> shift);
+        }
+        return this;
+    }
+
+    /**
+     * Texto em UTF-8 precedido do tamanho em bytes.
+     */
+    ByteSink putString(String text) {
+        byte[] encoded = text.getBytes(StandardCharsets.UTF_8);
+        putVarLong(encoded.length);
+        return put(encoded);
+    }
+
+    ByteSink putDigits(long value, int width) {
+        ensure(width);
+        for (int i = width - 1; i >= 0; i--) {
+            bytes[size + i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        size += width;
+        return this;
+    }
+
+    private void ensure(int extra) {
+        if (size + extra > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+        }
+    }
+}
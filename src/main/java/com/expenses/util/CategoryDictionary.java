@@ -0,0 +1,99 @@
+package com.expenses.util;
+
+import com.expenses.model.Category;
+import com.expenses.model.Expense;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Categorias de uma exportação, carregadas uma vez por job e indexadas por inteiros.
+ * <p>
+ * As despesas são lidas sem o nome da categoria; cada linha resolve o id para um índice
+ * com busca binária num array ordenado e o nome vem de um array, sem consulta nem mapa
+ * com chaves boxed por linha. O índice {@link #NONE} representa "sem categoria" e também
+ * é usado para ids desconhecidos (categoria criada depois que o dicionário foi carregado).
+ */
+public final class CategoryDictionary {
+    public static final int NONE = 0;
+    public static final String NONE_LABEL = "Sem categoria";
+
+    // ids[0] = 0 (sem categoria); os demais em ordem crescente
+    private final long[] ids;
+    private final String[] names;
+
+    private CategoryDictionary(long[] ids, String[] names) {
+        this.ids = ids;
+        this.names = names;
+    }
+
+    public static CategoryDictionary of(List<Category> categories) {
+        TreeMap<Long, String> sorted = new TreeMap<>();
+        for (Category category : categories) {
+            sorted.put(category.getId(), category.getName());
+        }
+        return build(sorted);
+    }
+
+    /**
+     * Monta o dicionário a partir de despesas que já trazem o nome da categoria.
+     */
+    public static CategoryDictionary fromExpenses(Iterable<Expense> expenses) {
+        TreeMap<Long, String> sorted = new TreeMap<>();
+        for (Expense expense : expenses) {
+            Long categoryId = expense.getCategoryId();
+            if (categoryId != null && categoryId != 0 && expense.getCategoryName() != null) {
+                sorted.putIfAbsent(categoryId, expense.getCategoryName());
+            }
+        }
+        return build(sorted);
+    }
+
+    private static CategoryDictionary build(TreeMap<Long, String> sorted) {
+        sorted.remove(0L);
+        long[] ids = new long[sorted.size() + 1];
+        String[] names = new String[sorted.size() + 1];
+        names[NONE] = "";
+        int index = 1;
+        for (var entry : sorted.entrySet()) {
+            ids[index] = entry.getKey();
+            names[index] = entry.getValue() != null ? entry.getValue() : "";
+            index++;
+        }
+        return new CategoryDictionary(ids, names);
+    }
+
+    public int indexOf(Long categoryId) {
+        if (categoryId == null || categoryId == 0) {
+            return NONE;
+        }
+        int index = Arrays.binarySearch(ids, 1, ids.length, categoryId);
+        return index > 0 ? index : NONE;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Id da categoria no índice; 0 para {@link #NONE}.
+     */
+    public long id(int index) {
+        return ids[index];
+    }
+
+    /**
+     * Nome da categoria no índice; vazio para {@link #NONE}.
+     */
+    public String name(int index) {
+        return names[index];
+    }
+
+    /**
+     * Nome para totais e legendas, com {@link #NONE_LABEL} no lugar do vazio.
+     */
+    public String label(int index) {
+        return index == NONE ? NONE_LABEL : names[index];
+    }
+}
@@ -0,0 +1,128 @@
+package com.expenses.util;
+
+import javafx.collections.ObservableList;
+import javafx.scene.chart.PieChart;
+import javafx.scene.chart.XYChart;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aplica novos valores a gráficos JavaFX alterando só o que mudou.
+ * <p>
+ * Limpar e recriar os dados a cada atualização reinicia as animações e força o layout do
+ * gráfico inteiro. Aqui fatias e pontos são identificados pelo nome (ou pelo valor do eixo X):
+ * os que continuam na mesma posição recebem o novo valor, os que sumiram são removidos de uma
+ * vez e os novos, ou os que mudaram de posição, são inseridos na posição esperada. Valores
+ * iguais não geram evento. Deve ser usado na thread da interface.
+ */
+public final class ChartBindings {
+
+    private ChartBindings() {}
+
+    /**
+     * Sincroniza as fatias com {@code values}, na ordem de iteração do mapa.
+     */
+    public static void syncPie(PieChart chart, Map<String, Double> values) {
+        ObservableList<PieChart.Data> data = chart.getData();
+        List<PieChart.Data> removed = new ArrayList<>();
+        Map<String, PieChart.Data> existing = new HashMap<>();
+        for (PieChart.Data slice : data) {
+            if (values.containsKey(slice.getName())) {
+                existing.put(slice.getName(), slice);
+            } else {
+                removed.add(slice);
+            }
+        }
+        if (!removed.isEmpty()) {
+            data.removeAll(removed);
+        }
+
+        int index = 0;
+        for (Map.Entry<String, Double> entry : values.entrySet()) {
+            PieChart.Data slice = existing.get(entry.getKey());
+            if (slice == null || data.get(index) != slice) {
+                if (slice != null) {
+                    // Reinserir o mesmo nó conflitaria com a animação de remoção; cria outro
+                    data.remove(slice);
+                }
+                data.add(index, new PieChart.Data(entry.getKey(), entry.getValue()));
+            } else if (slice.getPieValue() != entry.getValue()) {
+                slice.setPieValue(entry.getValue());
+            }
+            index++;
+        }
+    }
+
+    /**
+     * Sincroniza as séries do gráfico com {@code series} (nome da série para pontos X → Y).
+     * Séries ausentes do mapa são removidas.
+     */
+    public static <X> void syncSeries(XYChart<X, Number> chart, Map<String, ? extends Map<X, ? extends Number>> series) {
+        ObservableList<XYChart.Series<X, Number>> data = chart.getData();
+        List<XYChart.Series<X, Number>> removed = new ArrayList<>();
+        Map<String, XYChart.Series<X, Number>> existing = new HashMap<>();
+        for (XYChart.Series<X, Number> current : data) {
+            if (series.containsKey(current.getName())) {
+                existing.put(current.getName(), current);
+            } else {
+                removed.add(current);
+            }
+        }
+        if (!removed.isEmpty()) {
+            data.removeAll(removed);
+        }
+
+        for (Map.Entry<String, ? extends Map<X, ? extends Number>> entry : series.entrySet()) {
+            XYChart.Series<X, Number> current = existing.get(entry.getKey());
+            if (current == null) {
+                current = new XYChart.Series<>();
+                current.setName(entry.getKey());
+                syncPoints(current, entry.getValue());
+                data.add(current);
+            } else {
+                syncPoints(current, entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Sincroniza uma única série, criando-a se o gráfico ainda não tiver uma com esse nome.
+     */
+    public static <X> void syncSeries(XYChart<X, Number> chart, String name, Map<X, ? extends Number> points) {
+        syncSeries(chart, Map.of(name, points));
+    }
+
+    private static <X> void syncPoints(XYChart.Series<X, Number> series, Map<X, ? extends Number> points) {
+        ObservableList<XYChart.Data<X, Number>> data = series.getData();
+        List<XYChart.Data<X, Number>> removed = new ArrayList<>();
+        Map<X, XYChart.Data<X, Number>> existing = new HashMap<>();
+        for (XYChart.Data<X, Number> point : data) {
+            if (points.containsKey(point.getXValue())) {
+                existing.put(point.getXValue(), point);
+            } else {
+                removed.add(point);
+            }
+        }
+        if (!removed.isEmpty()) {
+            data.removeAll(removed);
+        }
+
+        int index = 0;
+        for (Map.Entry<X, ? extends Number> entry : points.entrySet()) {
+            XYChart.Data<X, Number> point = existing.get(entry.getKey());
+            if (point == null || data.get(index) != point) {
+                if (point != null) {
+                    data.remove(point);
+                }
+                data.add(index, new XYChart.Data<>(entry.getKey(), entry.getValue()));
+            } else if (point.getYValue() == null
+                || point.getYValue().doubleValue() != entry.getValue().doubleValue()) {
+                point.setYValue(entry.getValue());
+            }
+            index++;
+        }
+    }
+}
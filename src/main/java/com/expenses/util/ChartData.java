@@ -0,0 +1,125 @@
+package com.expenses.util;
+
+import com.expenses.model.DailyTotal;
+import com.expenses.model.Expense;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Totais agregados usados nos gráficos das exportações: por categoria, por mês e por dia.
+ * <p>
+ * Montado a partir da tabela de totais diários, então o tamanho não depende da quantidade
+ * de despesas. {@code version} é uma impressão digital dos totais e nomes de categoria lidos:
+ * muda sempre que alguma despesa do período muda ou uma categoria é renomeada, e identifica as
+ * imagens já renderizadas no cache.
+ */
+public record ChartData(
+    Long userId,
+    LocalDate startDate,
+    LocalDate endDate,
+    List<Slice> categories,
+    SortedMap<YearMonth, Long> months,
+    SortedMap<LocalDate, Long> days,
+    long version
+) {
+    private static final String NO_CATEGORY = "Sem categoria";
+
+    public record Slice(String label, long cents) {}
+
+    /**
+     * Chave das imagens renderizadas no {@link ChartImageCache}.
+     */
+    public record CacheKey(Long userId, LocalDate startDate, LocalDate endDate, long version) {}
+
+    public static ChartData fromDailyTotals(Long userId, LocalDate startDate, LocalDate endDate,
+                                            List<DailyTotal> totals) {
+        Accumulator accumulator = new Accumulator();
+        for (DailyTotal total : totals) {
+            String label = total.getCategoryName() != null ? total.getCategoryName() : NO_CATEGORY;
+            accumulator.add(total.getDay(), label, total.getTotal().getCents());
+            // O nome entra na impressão digital: renomear a categoria muda os rótulos das imagens
+            accumulator.mix(Objects.hash(total.getDay(), total.getCategoryId(), label, total.getTotal().getCents(),
+                total.getExpenseCount()));
+        }
+        return accumulator.build(userId, startDate, endDate);
+    }
+
+    /**
+     * Agrega uma lista já carregada. Sem usuário, o resultado não é guardado no cache.
+     */
+    public static ChartData fromExpenses(List<Expense> expenses) {
+        Accumulator accumulator = new Accumulator();
+        LocalDate start = null;
+        LocalDate end = null;
+        for (Expense expense : expenses) {
+            String label = expense.getCategoryName() != null ? expense.getCategoryName() : NO_CATEGORY;
+            accumulator.add(expense.getDate(), label, expense.getAmountCents());
+            if (start == null || expense.getDate().isBefore(start)) {
+                start = expense.getDate();
+            }
+            if (end == null || expense.getDate().isAfter(end)) {
+                end = expense.getDate();
+            }
+        }
+        return accumulator.build(null, start, end);
+    }
+
+    public boolean isEmpty() {
+        return categories.isEmpty();
+    }
+
+    public CacheKey cacheKey() {
+        return userId == null ? null : new CacheKey(userId, startDate, endDate, version);
+    }
+
+    /**
+     * Totais por dia com os dias sem despesa preenchidos com zero, para o gráfico diário.
+     */
+    public SortedMap<LocalDate, Long> continuousDays() {
+        SortedMap<LocalDate, Long> filled = new TreeMap<>();
+        if (days.isEmpty()) {
+            return filled;
+        }
+        LocalDate first = startDate != null ? startDate : days.firstKey();
+        LocalDate last = endDate != null ? endDate : days.lastKey();
+        for (LocalDate day = first; !day.isAfter(last); day = day.plusDays(1)) {
+            filled.put(day, days.getOrDefault(day, 0L));
+        }
+        return filled;
+    }
+
+    private static class Accumulator {
+        private final Map<String, Long> categories = new HashMap<>();
+        private final SortedMap<YearMonth, Long> months = new TreeMap<>();
+        private final SortedMap<LocalDate, Long> days = new TreeMap<>();
+        private long version = 17;
+
+        void add(LocalDate day, String category, long cents) {
+            categories.merge(category, cents, Long::sum);
+            months.merge(YearMonth.from(day), cents, Long::sum);
+            days.merge(day, cents, Long::sum);
+        }
+
+        void mix(int hash) {
+            version = version * 0x9E3779B97F4A7C15L + hash;
+        }
+
+        ChartData build(Long userId, LocalDate startDate, LocalDate endDate) {
+            List<Slice> slices = new ArrayList<>(categories.size());
+            categories.forEach((label, cents) -> slices.add(new Slice(label, cents)));
+            slices.sort(Comparator.comparingLong(Slice::cents).reversed().thenComparing(Slice::label));
+            return new ChartData(userId, startDate, endDate, Collections.unmodifiableList(slices),
+                Collections.unmodifiableSortedMap(months), Collections.unmodifiableSortedMap(days), version);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.expenses.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Imagens de gráficos já renderizadas, por usuário, período e versão dos dados.
+ * <p>
+ * Mantém as {@link #MAX_ENTRIES} combinações usadas mais recentemente. Como a versão faz
+ * parte da chave, uma alteração nas despesas gera uma chave nova e as imagens antigas
+ * simplesmente deixam de ser usadas.
+ */
+public final class ChartImageCache {
+    private static final int MAX_ENTRIES = 32;
+    private static final ChartImageCache INSTANCE = new ChartImageCache();
+
+    private final Map<ChartData.CacheKey, ChartRenderer.Images> entries =
+        new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ChartData.CacheKey, ChartRenderer.Images> eldest) {
+                return size() > MAX_ENTRIES;
+            }
+        };
+
+    private ChartImageCache() {}
+
+    public static ChartImageCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Devolve as imagens da chave, renderizando-as com {@code renderer} se ainda não existirem.
+     * A renderização acontece fora do lock; duas exportações simultâneas do mesmo período
+     * podem renderizar em paralelo, mas só a primeira imagem é guardada.
+     */
+    public ChartRenderer.Images get(ChartData.CacheKey key, Supplier<ChartRenderer.Images> renderer) {
+        if (key == null) {
+            return renderer.get();
+        }
+        synchronized (entries) {
+            ChartRenderer.Images cached = entries.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        ChartRenderer.Images rendered = renderer.get();
+        synchronized (entries) {
+            ChartRenderer.Images existing = entries.putIfAbsent(key, rendered);
+            return existing != null ? existing : rendered;
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.expenses.util;
+
+import javax.imageio.ImageIO;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.Arc2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * Desenha os gráficos das exportações em imagens PNG, fora da tela.
+ * <p>
+ * Usa Java2D sobre um {@link BufferedImage}, que funciona em qualquer thread e sem
+ * janela, ao contrário dos gráficos JavaFX, que só podem ser capturados na thread da
+ * interface. Os gráficos partem de {@link ChartData}, já agregado.
+ */
+public final class ChartRenderer {
+    public static final int WIDTH = 900;
+    public static final int HEIGHT = 420;
+    // Categorias além destas são somadas em "Outras" no gráfico de pizza
+    private static final int MAX_SLICES = 8;
+    private static final int MARGIN = 50;
+
+    private static final Color[] PALETTE = {
+        new Color(0x42, 0x85, 0xF4), new Color(0xDB, 0x44, 0x37), new Color(0xF4, 0xB4, 0x00),
+        new Color(0x0F, 0x9D, 0x58), new Color(0xAB, 0x47, 0xBC), new Color(0x00, 0xAC, 0xC1),
+        new Color(0xFF, 0x70, 0x43), new Color(0x9E, 0x9D, 0x24), new Color(0x90, 0xA4, 0xAE)
+    };
+    private static final Color AXIS = new Color(0x61, 0x61, 0x61);
+    private static final Color GRID = new Color(0xE0, 0xE0, 0xE0);
+    private static final Font TITLE_FONT = new Font(Font.SANS_SERIF, Font.BOLD, 18);
+    private static final Font LABEL_FONT = new Font(Font.SANS_SERIF, Font.PLAIN, 12);
+    private static final Locale LOCALE = new Locale("pt", "BR");
+    private static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("MM/yy");
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofPattern("dd/MM");
+
+    /**
+     * Os três gráficos de uma exportação, em PNG.
+     */
+    public record Images(byte[] categoryPie, byte[] monthlyTrend, byte[] dailyLine) {}
+
+    private ChartRenderer() {}
+
+    /**
+     * Renderiza os gráficos, reaproveitando imagens do {@link ChartImageCache} quando os dados
+     * do período não mudaram.
+     */
+    public static Images render(ChartData data) {
+        return ChartImageCache.getInstance().get(data.cacheKey(), () -> new Images(
+            renderCategoryPie(data),
+            renderMonthlyTrend(data),
+            renderDailyLine(data)
+        ));
+    }
+
+    public static byte[] renderCategoryPie(ChartData data) {
+        List<ChartData.Slice> slices = topSlices(data.categories());
+        long total = slices.stream().mapToLong(ChartData.Slice::cents).sum();
+
+        BufferedImage image = newImage();
+        Graphics2D g = prepare(image, "Despesas por categoria");
+
+        int diameter = HEIGHT - 2 * MARGIN - 20;
+        int pieX = MARGIN;
+        int pieY = MARGIN + 20;
+        double angle = 90;
+        for (int i = 0; i < slices.size(); i++) {
+            double extent = total > 0 ? 360.0 * slices.get(i).cents() / total : 0;
+            g.setColor(PALETTE[i % PALETTE.length]);
+            g.fill(new Arc2D.Double(pieX, pieY, diameter, diameter, angle, -extent, Arc2D.PIE));
+            angle -= extent;
+        }
+
+        g.setFont(LABEL_FONT);
+        FontMetrics metrics = g.getFontMetrics();
+        int legendX = pieX + diameter + 40;
+        int legendY = pieY + 10;
+        for (int i = 0; i < slices.size(); i++) {
+            ChartData.Slice slice = slices.get(i);
+            int y = legendY + i * (metrics.getHeight() + 8);
+            g.setColor(PALETTE[i % PALETTE.length]);
+            g.fillRect(legendX, y - 10, 12, 12);
+            g.setColor(AXIS);
+            double percent = total > 0 ? 100.0 * slice.cents() / total : 0;
+            g.drawString(String.format(LOCALE, "%s  %s (%.1f%%)", slice.label(), formatCents(slice.cents()), percent),
+                legendX + 20, y);
+        }
+
+        return finish(g, image);
+    }
+
+    public static byte[] renderMonthlyTrend(ChartData data) {
+        SortedMap<YearMonth, Long> months = data.months();
+        BufferedImage image = newImage();
+        Graphics2D g = prepare(image, "Despesas por mês");
+
+        List<String> labels = new ArrayList<>(months.size());
+        List<Long> values = new ArrayList<>(months.size());
+        for (Map.Entry<YearMonth, Long> entry : months.entrySet()) {
+            labels.add(entry.getKey().format(MONTH_FORMAT));
+            values.add(entry.getValue());
+        }
+
+        Rectangle2D plot = plotArea();
+        long max = drawValueAxis(g, plot, values);
+        if (!values.isEmpty()) {
+            double slot = plot.getWidth() / values.size();
+            double barWidth = Math.max(2, slot * 0.6);
+            int labelStep = Math.max(1, (int) Math.ceil(values.size() / 12.0));
+            g.setFont(LABEL_FONT);
+            for (int i = 0; i < values.size(); i++) {
+                double height = plot.getHeight() * values.get(i) / max;
+                double x = plot.getX() + i * slot + (slot - barWidth) / 2;
+                g.setColor(PALETTE[0]);
+                g.fill(new Rectangle2D.Double(x, plot.getMaxY() - height, barWidth, height));
+                if (i % labelStep == 0) {
+                    g.setColor(AXIS);
+                    drawCentered(g, labels.get(i), x + barWidth / 2, plot.getMaxY() + 18);
+                }
+            }
+        }
+
+        return finish(g, image);
+    }
+
+    public static byte[] renderDailyLine(ChartData data) {
+        SortedMap<LocalDate, Long> days = data.continuousDays();
+        BufferedImage image = newImage();
+        Graphics2D g = prepare(image, "Despesas por dia");
+
+        List<LocalDate> labels = new ArrayList<>(days.keySet());
+        List<Long> values = new ArrayList<>(days.values());
+
+        Rectangle2D plot = plotArea();
+        long max = drawValueAxis(g, plot, values);
+        if (!values.isEmpty()) {
+            double step = values.size() > 1 ? plot.getWidth() / (values.size() - 1) : 0;
+            Path2D.Double line = new Path2D.Double();
+            for (int i = 0; i < values.size(); i++) {
+                double x = plot.getX() + i * step;
+                double y = plot.getMaxY() - plot.getHeight() * values.get(i) / max;
+                if (i == 0) {
+                    line.moveTo(x, y);
+                } else {
+                    line.lineTo(x, y);
+                }
+            }
+            g.setColor(PALETTE[1]);
+            g.setStroke(new BasicStroke(2f));
+            g.draw(line);
+
+            g.setColor(AXIS);
+            g.setFont(LABEL_FONT);
+            int labelStep = Math.max(1, (int) Math.ceil(values.size() / 10.0));
+            for (int i = 0; i < labels.size(); i += labelStep) {
+                drawCentered(g, labels.get(i).format(DAY_FORMAT), plot.getX() + i * step, plot.getMaxY() + 18);
+            }
+        }
+
+        return finish(g, image);
+    }
+
+    private static List<ChartData.Slice> topSlices(List<ChartData.Slice> categories) {
+        if (categories.size() <= MAX_SLICES) {
+            return categories;
+        }
+        List<ChartData.Slice> slices = new ArrayList<>(categories.subList(0, MAX_SLICES));
+        long others = 0;
+        for (ChartData.Slice slice : categories.subList(MAX_SLICES, categories.size())) {
+            others += slice.cents();
+        }
+        slices.add(new ChartData.Slice("Outras", others));
+        return slices;
+    }
+
+    private static Rectangle2D plotArea() {
+        return new Rectangle2D.Double(MARGIN + 50, MARGIN + 10, WIDTH - 2 * MARGIN - 60, HEIGHT - 2 * MARGIN - 30);
+    }
+
+    /**
+     * Desenha eixos e linhas de grade e devolve o valor do topo do eixo (nunca zero).
+     */
+    private static long drawValueAxis(Graphics2D g, Rectangle2D plot, List<Long> values) {
+        long max = Math.max(1, values.stream().mapToLong(Long::longValue).max().orElse(0));
+        g.setFont(LABEL_FONT);
+        FontMetrics metrics = g.getFontMetrics();
+        int lines = 4;
+        for (int i = 0; i <= lines; i++) {
+            double y = plot.getMaxY() - plot.getHeight() * i / lines;
+            g.setColor(GRID);
+            g.drawLine((int) plot.getX(), (int) y, (int) plot.getMaxX(), (int) y);
+            g.setColor(AXIS);
+            String label = formatCents(max * i / lines);
+            g.drawString(label, (int) plot.getX() - metrics.stringWidth(label) - 8, (int) y + 4);
+        }
+        g.setColor(AXIS);
+        g.drawLine((int) plot.getX(), (int) plot.getMaxY(), (int) plot.getMaxX(), (int) plot.getMaxY());
+        return max;
+    }
+
+    private static BufferedImage newImage() {
+        return new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+    }
+
+    private static Graphics2D prepare(BufferedImage image, String title) {
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, WIDTH, HEIGHT);
+        g.setColor(AXIS);
+        g.setFont(TITLE_FONT);
+        drawCentered(g, title, WIDTH / 2.0, 30);
+        return g;
+    }
+
+    private static void drawCentered(Graphics2D g, String text, double centerX, double baseline) {
+        int width = g.getFontMetrics().stringWidth(text);
+        g.drawString(text, (float) (centerX - width / 2.0), (float) baseline);
+    }
+
+    private static byte[] finish(Graphics2D g, BufferedImage image) {
+        g.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+        try {
+            ImageIO.write(image, "png", out);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to encode chart image", e);
+        }
+        return out.toByteArray();
+    }
+
+    private static String formatCents(long cents) {
+        return String.format(LOCALE, "R$ %,.2f", cents / 100.0);
+    }
+}
@@ -0,0 +1,82 @@
+package com.expenses.util;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Exportação em CSV (RFC 4180, UTF-8, separador vírgula) para ferramentas de análise.
+ * <p>
+ * Colunas: {@code id,date,description,category_id,category,amount}. Datas em ISO
+ * ({@code yyyy-MM-dd}) e valores com ponto decimal, sem símbolo de moeda. Os dígitos são
+ * gravados direto em bytes, sem {@code String.format} nem {@code BigDecimal} por linha.
+ */
+final class CsvExpenseWriter extends RowGroupWriter {
+    private static final String HEADER = "id,date,description,category_id,category,amount\n";
+    // Estimativa de bytes por linha para dimensionar o buffer do grupo
+    private static final int BYTES_PER_ROW = 64;
+
+    // Id e nome de cada categoria já codificados, por índice do dicionário
+    private final byte[][] categoryFields;
+
+    CsvExpenseWriter(Path file, CategoryDictionary dictionary, long total, ExportUtil.ProgressListener progress)
+        throws IOException {
+        super(file, dictionary, total, progress);
+        categoryFields = new byte[dictionary.size()][];
+        for (int i = 0; i < dictionary.size(); i++) {
+            ByteSink field = new ByteSink(dictionary.name(i).length() + 24);
+            if (i != CategoryDictionary.NONE) {
+                field.putAscii(Long.toString(dictionary.id(i)));
+            }
+            field.put((byte) ',');
+            putField(field, dictionary.name(i));
+            categoryFields[i] = Arrays.copyOf(field.array(), field.size());
+        }
+        write(new ByteSink(HEADER.length()).putAscii(HEADER));
+    }
+
+    @Override
+    protected ByteSink encode(RowGroup group) {
+        ByteSink out = new ByteSink(group.size * BYTES_PER_ROW);
+
+        for (int row = 0; row < group.size; row++) {
+            out.putAscii(Long.toString(group.ids[row])).put((byte) ',');
+
+            LocalDate date = LocalDate.ofEpochDay(group.epochDays[row]);
+            out.putDigits(date.getYear(), 4).put((byte) '-')
+                .putDigits(date.getMonthValue(), 2).put((byte) '-')
+                .putDigits(date.getDayOfMonth(), 2).put((byte) ',');
+
+            putField(out, group.descriptions[row]);
+            out.put((byte) ',');
+
+            out.put(categoryFields[group.categories[row]]).put((byte) ',');
+
+            putAmount(out, group.cents[row]);
+            out.put((byte) '\n');
+        }
+        return out;
+    }
+
+    private static void putField(ByteSink out, String value) {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            out.putUtf8(value);
+            return;
+        }
+        out.put((byte) '"').putUtf8(value.replace("\"", "\"\"")).put((byte) '"');
+    }
+
+    private static void putAmount(ByteSink out, long cents) {
+        if (cents < 0) {
+            out.put((byte) '-');
+            cents = -cents;
+        }
+        out.putAscii(Long.toString(cents / 100)).put((byte) '.').putDigits(cents % 100, 2);
+    }
+}
@@ -1,19 +1,47 @@
 package com.expenses.util;
 
 import com.expenses.model.Expense;
+import com.expenses.model.Money;
 import com.itextpdf.text.*;
 import com.itextpdf.text.pdf.*;
 import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xddf.usermodel.chart.AxisCrosses;
+import org.apache.poi.xddf.usermodel.chart.AxisPosition;
+import org.apache.poi.xddf.usermodel.chart.BarDirection;
+import org.apache.poi.xddf.usermodel.chart.ChartTypes;
+import org.apache.poi.xddf.usermodel.chart.LegendPosition;
+import org.apache.poi.xddf.usermodel.chart.MarkerStyle;
+import org.apache.poi.xddf.usermodel.chart.XDDFBarChartData;
+import org.apache.poi.xddf.usermodel.chart.XDDFCategoryAxis;
+import org.apache.poi.xddf.usermodel.chart.XDDFChartData;
+import org.apache.poi.xddf.usermodel.chart.XDDFDataSource;
+import org.apache.poi.xddf.usermodel.chart.XDDFDataSourcesFactory;
+import org.apache.poi.xddf.usermodel.chart.XDDFLineChartData;
+import org.apache.poi.xddf.usermodel.chart.XDDFNumericalDataSource;
+import org.apache.poi.xddf.usermodel.chart.XDDFValueAxis;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFChart;
+import org.apache.poi.xssf.usermodel.XSSFDrawing;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
-import java.math.BigDecimal;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.text.NumberFormat;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
 
 public class ExportUtil {
     private static final Logger logger = LoggerFactory.getLogger(ExportUtil.class);
@@ -21,6 +49,60 @@ public class ExportUtil {
     private static final com.itextpdf.text.Font TITLE_FONT = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 18);
     private static final com.itextpdf.text.Font SUBTITLE_FONT = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 14);
     private static final com.itextpdf.text.Font NORMAL_FONT = FontFactory.getFont(FontFactory.HELVETICA, 12);
+    private static final int EXCEL_ROW_WINDOW = 100;
+    // Linhas da tabela de detalhes do PDF renderizadas e descartadas de cada vez
+    private static final int PDF_CHUNK_ROWS = 500;
+    private static final int PROGRESS_INTERVAL = 1000;
+    private static final float CHART_HEIGHT_PDF = 250;
+    private static final String CHARTS_SHEET = "Gráficos";
+    private static final DateTimeFormatter MONTH_FORMATTER = DateTimeFormatter.ofPattern("MM/yyyy");
+    // Primeira linha da tabela de totais por categoria na aba de resumo
+    private static final int SUMMARY_CATEGORY_ROW = 5;
+
+    /**
+     * Recebe o avanço da escrita dos detalhes: linhas escritas de um total.
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        ProgressListener NONE = (done, total) -> {};
+
+        void onProgress(long done, long total);
+    }
+
+    /**
+     * Origem das despesas exportadas. Entrega uma despesa por vez para que a exportação possa
+     * ler direto do banco, sem montar a lista inteira.
+     */
+    @FunctionalInterface
+    public interface ExpenseSource {
+        void forEach(Consumer<Expense> consumer);
+
+        static ExpenseSource of(List<Expense> expenses) {
+            return expenses::forEach;
+        }
+    }
+
+    /**
+     * Período, total, quantidade de despesas, categorias e dados agregados dos gráficos, conhecidos
+     * antes de percorrer os detalhes. {@code charts} pode ser nulo quando os gráficos não forem exportados.
+     */
+    public record ExportSummary(LocalDate startDate, LocalDate endDate, Money total, long count,
+                                CategoryDictionary categories, ChartData charts) {
+        public static ExportSummary of(List<Expense> expenses) {
+            LocalDate start = null;
+            LocalDate end = null;
+            for (Expense expense : expenses) {
+                if (start == null || expense.getDate().isBefore(start)) {
+                    start = expense.getDate();
+                }
+                if (end == null || expense.getDate().isAfter(end)) {
+                    end = expense.getDate();
+                }
+            }
+            return new ExportSummary(start, end, Money.sum(expenses, Expense::getAmountCents), expenses.size(),
+                CategoryDictionary.fromExpenses(expenses), ChartData.fromExpenses(expenses));
+        }
+    }
 
     public static void exportExpenses(
         List<Expense> expenses,
@@ -30,62 +112,122 @@ public class ExportUtil {
         boolean includeSummary,
         boolean includeDetails
     ) throws Exception {
-        if (isPDF) {
-            exportToPDF(file, expenses, includeCharts, includeSummary, includeDetails);
-        } else {
-            exportToExcel(file, expenses, includeCharts, includeSummary, includeDetails);
-        }
+        exportExpenses(expenses, file, isPDF, includeCharts, includeSummary, includeDetails, ProgressListener.NONE);
     }
 
-    private static void exportToPDF(
-        File file,
+    public static void exportExpenses(
         List<Expense> expenses,
+        File file,
+        boolean isPDF,
         boolean includeCharts,
         boolean includeSummary,
-        boolean includeDetails
+        boolean includeDetails,
+        ProgressListener progress
     ) throws Exception {
-        Document document = new Document(PageSize.A4);
-        PdfWriter writer = PdfWriter.getInstance(document, new FileOutputStream(file));
-        document.open();
-
-        // Título
-        Paragraph title = new Paragraph("Relatório de Despesas", TITLE_FONT);
-        title.setAlignment(Element.ALIGN_CENTER);
-        title.setSpacingAfter(20);
-        document.add(title);
+        exportExpenses(ExpenseSource.of(expenses), ExportSummary.of(expenses), file, isPDF,
+            includeCharts, includeSummary, includeDetails, progress);
+    }
 
-        // Período
-        if (!expenses.isEmpty()) {
-            LocalDate startDate = expenses.get(0).getDate();
-            LocalDate endDate = expenses.get(expenses.size() - 1).getDate();
-            Paragraph period = new Paragraph(
-                "Período: " + startDate.format(DATE_FORMATTER) + " a " + endDate.format(DATE_FORMATTER),
-                SUBTITLE_FONT
-            );
-            period.setAlignment(Element.ALIGN_CENTER);
-            period.setSpacingAfter(30);
-            document.add(period);
+    public static void exportExpenses(
+        ExpenseSource expenses,
+        ExportSummary summary,
+        File file,
+        boolean isPDF,
+        boolean includeCharts,
+        boolean includeSummary,
+        boolean includeDetails,
+        ProgressListener progress
+    ) throws Exception {
+        if (isPDF) {
+            exportToPDF(file, expenses, summary, includeCharts, includeSummary, includeDetails, progress);
+        } else {
+            exportToExcel(file, expenses, summary, includeCharts, includeSummary, includeDetails, progress);
         }
+    }
 
-        // Resumo
-        if (includeSummary) {
-            addSummaryToPDF(document, expenses);
+    /**
+     * Exporta só os dados, em CSV. Ver {@link CsvExpenseWriter}.
+     */
+    public static void exportCsv(ExpenseSource expenses, CategoryDictionary categories, long count, File file,
+                                 ProgressListener progress) throws IOException {
+        try (CsvExpenseWriter writer = new CsvExpenseWriter(file.toPath(), categories, count, progress)) {
+            expenses.forEach(writer);
+            writer.finish();
         }
+    }
 
-        // Gráficos
-        if (includeCharts) {
-            addChartsToPDF(document, expenses);
+    /**
+     * Exporta só os dados, no formato binário colunar. Ver {@link ColumnarExpenseWriter}.
+     */
+    public static void exportColumnar(ExpenseSource expenses, CategoryDictionary categories, long count, File file,
+                                 ProgressListener progress) throws IOException {
+        try (ColumnarExpenseWriter writer = new ColumnarExpenseWriter(file.toPath(), categories, count, progress)) {
+            expenses.forEach(writer);
+            writer.finish();
         }
+    }
 
-        // Detalhes
-        if (includeDetails) {
-            addDetailsToPDF(document, expenses);
+    private static void exportToPDF(
+        File file,
+        ExpenseSource expenses,
+        ExportSummary summary,
+        boolean includeCharts,
+        boolean includeSummary,
+        boolean includeDetails,
+        ProgressListener progress
+    ) throws Exception {
+        Document document = new Document(PageSize.A4);
+        OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(file));
+        PdfWriter.getInstance(document, outputStream);
+        document.open();
+        try {
+            // Título
+            Paragraph title = new Paragraph("Relatório de Despesas", TITLE_FONT);
+            title.setAlignment(Element.ALIGN_CENTER);
+            title.setSpacingAfter(20);
+            document.add(title);
+
+            // Período
+            if (summary.startDate() != null && summary.endDate() != null) {
+                Paragraph period = new Paragraph(
+                    "Período: " + summary.startDate().format(DATE_FORMATTER) + " a "
+                        + summary.endDate().format(DATE_FORMATTER),
+                    SUBTITLE_FONT
+                );
+                period.setAlignment(Element.ALIGN_CENTER);
+                period.setSpacingAfter(30);
+                document.add(period);
+            }
+
+            // Resumo
+            if (includeSummary) {
+                addSummaryToPDF(document, summary);
+            }
+
+            // Gráficos
+            if (includeCharts) {
+                addChartsToPDF(document, summary.charts());
+            }
+
+            // Detalhes; os totais por categoria são somados na mesma leitura
+            CategoryTotals totals = new CategoryTotals(summary.categories());
+            if (includeDetails) {
+                addDetailsToPDF(document, expenses, totals, summary.count(), progress);
+            } else if (includeSummary) {
+                expenses.forEach(totals);
+            }
+
+            // O PDF é gravado em sequência, então os totais por categoria vêm depois da leitura
+            if (includeSummary) {
+                addCategoryTotalsToPDF(document, totals);
+            }
+        } finally {
+            // Fecha também o stream do arquivo
+            document.close();
         }
-
-        document.close();
     }
 
-    private static void addSummaryToPDF(Document document, List<Expense> expenses) throws Exception {
+    private static void addSummaryToPDF(Document document, ExportSummary summary) throws Exception {
         Paragraph summaryTitle = new Paragraph("Resumo", SUBTITLE_FONT);
         summaryTitle.setSpacingBefore(20);
         summaryTitle.setSpacingAfter(10);
@@ -95,15 +237,26 @@ public class ExportUtil {
         table.setWidthPercentage(100);
         table.setSpacingAfter(20);
 
-        // Total de despesas
-        double total = expenses.stream()
-            .map(Expense::getAmount)
-            .mapToDouble(BigDecimal::doubleValue)
-            .sum();
+        addTableRow(table, "Total de despesas:", String.format("R$ %.2f", summary.total().toBigDecimal()));
+        addTableRow(table, "Quantidade de registros:", String.valueOf(summary.count()));
 
-        addTableRow(table, "Total de despesas:", String.format("R$ %.2f", total));
-        addTableRow(table, "Quantidade de registros:", String.valueOf(expenses.size()));
+        document.add(table);
+    }
 
+    private static void addCategoryTotalsToPDF(Document document, CategoryTotals totals) throws Exception {
+        Paragraph title = new Paragraph("Totais por categoria", SUBTITLE_FONT);
+        title.setSpacingBefore(20);
+        title.setSpacingAfter(10);
+        document.add(title);
+
+        NumberFormat currencyFormatter = NumberFormat.getCurrencyInstance(new Locale("pt", "BR"));
+        PdfPTable table = new PdfPTable(2);
+        table.setWidthPercentage(100);
+        table.setSpacingAfter(20);
+        for (int index : totals.indexesByTotal()) {
+            addTableRow(table, totals.label(index) + " (" + totals.count(index) + ")",
+                Money.ofCents(totals.cents(index)).format(currencyFormatter));
+        }
         document.add(table);
     }
 
@@ -118,23 +271,38 @@ public class ExportUtil {
         table.addCell(valueCell);
     }
 
-    private static void addChartsToPDF(Document document, List<Expense> expenses) throws Exception {
-        // TODO: Implementar geração de gráficos usando JFreeChart
+    private static void addChartsToPDF(Document document, ChartData charts) throws Exception {
         Paragraph chartsTitle = new Paragraph("Gráficos", SUBTITLE_FONT);
         chartsTitle.setSpacingBefore(20);
         chartsTitle.setSpacingAfter(10);
         document.add(chartsTitle);
 
-        // Placeholder para gráficos
-        Paragraph placeholder = new Paragraph(
-            "Esta seção será implementada em uma versão futura.",
-            NORMAL_FONT
-        );
-        placeholder.setSpacingAfter(20);
-        document.add(placeholder);
+        if (charts == null || charts.isEmpty()) {
+            Paragraph empty = new Paragraph("Não há despesas no período.", NORMAL_FONT);
+            empty.setSpacingAfter(20);
+            document.add(empty);
+            return;
+        }
+
+        ChartRenderer.Images images = ChartRenderer.render(charts);
+        float width = document.getPageSize().getWidth() - document.leftMargin() - document.rightMargin();
+        for (byte[] png : List.of(images.categoryPie(), images.monthlyTrend(), images.dailyLine())) {
+            com.itextpdf.text.Image image = com.itextpdf.text.Image.getInstance(png);
+            image.scaleToFit(width, CHART_HEIGHT_PDF);
+            image.setAlignment(Element.ALIGN_CENTER);
+            image.setSpacingAfter(10);
+            document.add(image);
+        }
     }
 
-    private static void addDetailsToPDF(Document document, List<Expense> expenses) throws Exception {
+    /**
+     * Escreve a tabela de detalhes em blocos de {@link #PDF_CHUNK_ROWS} linhas. Com a tabela
+     * marcada como incompleta, cada {@code document.add} renderiza as linhas acumuladas e as
+     * descarta, então o iText nunca mantém o relatório inteiro em memória. O cabeçalho se repete
+     * em cada página.
+     */
+    private static void addDetailsToPDF(Document document, ExpenseSource expenses, CategoryTotals totals,
+                                        long total, ProgressListener progress) throws Exception {
         Paragraph detailsTitle = new Paragraph("Detalhes", SUBTITLE_FONT);
         detailsTitle.setSpacingBefore(20);
         detailsTitle.setSpacingAfter(10);
@@ -144,6 +312,8 @@ public class ExportUtil {
         table.setWidthPercentage(100);
         float[] columnWidths = {2, 4, 2, 2};
         table.setWidths(columnWidths);
+        table.setHeaderRows(1);
+        table.setComplete(false);
 
         // Cabeçalho
         String[] headers = {"Data", "Descrição", "Categoria", "Valor"};
@@ -154,109 +324,413 @@ public class ExportUtil {
             table.addCell(cell);
         }
 
-        // Dados
-        for (Expense expense : expenses) {
-            table.addCell(new Phrase(expense.getDate().format(DATE_FORMATTER), NORMAL_FONT));
-            table.addCell(new Phrase(expense.getDescription(), NORMAL_FONT));
-            table.addCell(new Phrase(expense.getCategoryId().toString(), NORMAL_FONT)); // TODO: Converter para nome da categoria
-            table.addCell(new Phrase(String.format("R$ %.2f", expense.getAmount()), NORMAL_FONT));
-        }
+        PdfDetailsWriter writer = new PdfDetailsWriter(document, table, totals, total, progress);
+        expenses.forEach(writer);
 
+        table.setComplete(true);
         document.add(table);
+        progress.onProgress(writer.done, total);
+    }
+
+    /**
+     * Acrescenta cada despesa à tabela e a entrega ao documento a cada {@link #PDF_CHUNK_ROWS} linhas.
+     */
+    private static class PdfDetailsWriter implements Consumer<Expense> {
+        private final Document document;
+        private final PdfPTable table;
+        private final CategoryTotals totals;
+        private final long total;
+        private final ProgressListener progress;
+        // Modelos de célula: cada célula é copiada do modelo, sem ser configurada de novo
+        private final PdfPCell textCell = new PdfPCell();
+        private final PdfPCell amountCell;
+        private final NumberFormat currencyFormatter = NumberFormat.getCurrencyInstance(new Locale("pt", "BR"));
+        private long done;
+
+        PdfDetailsWriter(Document document, PdfPTable table, CategoryTotals totals, long total,
+                         ProgressListener progress) {
+            this.document = document;
+            this.table = table;
+            this.totals = totals;
+            this.total = total;
+            this.progress = progress;
+            textCell.setPadding(4);
+            amountCell = new PdfPCell(textCell);
+            amountCell.setHorizontalAlignment(Element.ALIGN_RIGHT);
+        }
+
+        @Override
+        public void accept(Expense expense) {
+            table.addCell(cell(textCell, expense.getDate().format(DATE_FORMATTER)));
+            table.addCell(cell(textCell, expense.getDescription()));
+            table.addCell(cell(textCell, totals.name(totals.add(expense))));
+            table.addCell(cell(amountCell, expense.getAmount().format(currencyFormatter)));
+
+            if (++done % PDF_CHUNK_ROWS == 0) {
+                try {
+                    document.add(table);
+                } catch (DocumentException e) {
+                    throw new ExceptionConverter(e);
+                }
+                progress.onProgress(done, total);
+            }
+        }
     }
 
+    /**
+     * Soma valor e quantidade por categoria enquanto os detalhes são escritos. Os acumuladores
+     * são arrays indexados pelo {@link CategoryDictionary}, sem mapa nem objeto por linha.
+     */
+    private static class CategoryTotals implements Consumer<Expense> {
+        private final CategoryDictionary dictionary;
+        private final long[] cents;
+        private final long[] counts;
+
+        CategoryTotals(CategoryDictionary dictionary) {
+            this.dictionary = dictionary;
+            this.cents = new long[dictionary.size()];
+            this.counts = new long[dictionary.size()];
+        }
+
+        @Override
+        public void accept(Expense expense) {
+            add(expense);
+        }
+
+        /**
+         * Soma a despesa e devolve o índice da categoria no dicionário.
+         */
+        int add(Expense expense) {
+            int index = dictionary.indexOf(expense.getCategoryId());
+            cents[index] += expense.getAmountCents();
+            counts[index]++;
+            return index;
+        }
+
+        String name(int index) {
+            return dictionary.name(index);
+        }
+
+        String label(int index) {
+            return dictionary.label(index);
+        }
+
+        long cents(int index) {
+            return cents[index];
+        }
+
+        long count(int index) {
+            return counts[index];
+        }
+
+        /**
+         * Índices das categorias com despesas, do maior total para o menor.
+         */
+        int[] indexesByTotal() {
+            return IntStream.range(0, counts.length)
+                .filter(index -> counts[index] > 0)
+                .boxed()
+                .sorted(Comparator.<Integer>comparingLong(index -> cents[index]).reversed()
+                    .thenComparing(dictionary::label))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        }
+    }
+
+    private static PdfPCell cell(PdfPCell template, String text) {
+        PdfPCell cell = new PdfPCell(template);
+        cell.setPhrase(new Phrase(text, NORMAL_FONT));
+        return cell;
+    }
+
+    /**
+     * Gera a planilha com {@link SXSSFWorkbook}: só as últimas {@link #EXCEL_ROW_WINDOW} linhas
+     * ficam em memória e as anteriores vão para um arquivo temporário compactado, então o
+     * consumo de memória não depende da quantidade de despesas exportadas.
+     */
     private static void exportToExcel(
         File file,
-        List<Expense> expenses,
+        ExpenseSource expenses,
+        ExportSummary summary,
         boolean includeCharts,
         boolean includeSummary,
-        boolean includeDetails
+        boolean includeDetails,
+        ProgressListener progress
     ) throws Exception {
-        Workbook workbook = new XSSFWorkbook();
-
-        if (includeSummary) {
-            addSummaryToExcel(workbook, expenses);
+        // A aba dos gráficos é pequena e precisa do modelo XSSF completo, então é criada antes
+        // de envolver o workbook no SXSSF; as demais abas são gravadas em fluxo
+        XSSFWorkbook template = new XSSFWorkbook();
+        ExcelStyles styles = new ExcelStyles(template);
+        ChartData charts = summary.charts();
+        boolean hasCharts = includeCharts && charts != null && !charts.isEmpty();
+        if (hasCharts) {
+            addChartsToExcel(template, styles, charts);
         }
 
-        if (includeDetails) {
-            addDetailsToExcel(workbook, expenses);
-        }
-
-        if (includeCharts) {
-            addChartsToExcel(workbook, expenses);
+        SXSSFWorkbook workbook = new SXSSFWorkbook(template, EXCEL_ROW_WINDOW);
+        workbook.setCompressTempFiles(true);
+        try {
+            Sheet summarySheet = includeSummary ? addSummaryToExcel(workbook, styles, summary) : null;
+
+            // Os totais por categoria são somados na mesma leitura dos detalhes
+            CategoryTotals totals = new CategoryTotals(summary.categories());
+            if (includeDetails) {
+                addDetailsToExcel(workbook, styles, expenses, totals, summary.count(), progress);
+            } else if (includeSummary) {
+                expenses.forEach(totals);
+            }
+
+            if (summarySheet != null) {
+                addCategoryTotalsToExcel(summarySheet, styles, totals);
+            }
+
+            if (hasCharts) {
+                workbook.setSheetOrder(CHARTS_SHEET, workbook.getNumberOfSheets() - 1);
+            } else if (includeCharts) {
+                Sheet sheet = workbook.createSheet(CHARTS_SHEET);
+                sheet.createRow(0).createCell(0).setCellValue("Não há despesas no período.");
+            }
+
+            try (FileOutputStream outputStream = new FileOutputStream(file)) {
+                workbook.write(outputStream);
+            }
+        } finally {
+            workbook.dispose();
+            workbook.close();
         }
+    }
 
-        try (FileOutputStream outputStream = new FileOutputStream(file)) {
-            workbook.write(outputStream);
+    /**
+     * Estilos compartilhados por todas as células; o formato XLSX limita a quantidade de estilos
+     * por arquivo, então nunca se cria um estilo por célula.
+     */
+    private static class ExcelStyles {
+        final CellStyle header;
+        final CellStyle date;
+        final CellStyle currency;
+
+        ExcelStyles(Workbook workbook) {
+            org.apache.poi.ss.usermodel.Font headerFont = workbook.createFont();
+            headerFont.setBold(true);
+            header = workbook.createCellStyle();
+            header.setFont(headerFont);
+
+            DataFormat format = workbook.createDataFormat();
+            date = workbook.createCellStyle();
+            date.setDataFormat(format.getFormat("dd/mm/yyyy"));
+            currency = workbook.createCellStyle();
+            currency.setDataFormat(format.getFormat("\"R$\" #,##0.00"));
         }
     }
 
-    private static void addSummaryToExcel(Workbook workbook, List<Expense> expenses) {
+    private static Sheet addSummaryToExcel(Workbook workbook, ExcelStyles styles, ExportSummary summary) {
         Sheet sheet = workbook.createSheet("Resumo");
         sheet.setColumnWidth(0, 6000);
         sheet.setColumnWidth(1, 4000);
 
-        CellStyle headerStyle = workbook.createCellStyle();
-        org.apache.poi.ss.usermodel.Font headerFont = workbook.createFont();
-        headerFont.setBold(true);
-        headerStyle.setFont(headerFont);
-
         Row titleRow = sheet.createRow(0);
         Cell titleCell = titleRow.createCell(0);
         titleCell.setCellValue("Resumo de Despesas");
-        titleCell.setCellStyle(headerStyle);
-
-        // Total de despesas
-        double total = expenses.stream()
-            .map(Expense::getAmount)
-            .mapToDouble(BigDecimal::doubleValue)
-            .sum();
+        titleCell.setCellStyle(styles.header);
 
         Row totalRow = sheet.createRow(2);
         totalRow.createCell(0).setCellValue("Total de despesas:");
-        totalRow.createCell(1).setCellValue(String.format("R$ %.2f", total));
+        Cell totalCell = totalRow.createCell(1);
+        totalCell.setCellValue(summary.total().getCents() / 100.0);
+        totalCell.setCellStyle(styles.currency);
 
         Row countRow = sheet.createRow(3);
         countRow.createCell(0).setCellValue("Quantidade de registros:");
-        countRow.createCell(1).setCellValue(expenses.size());
+        countRow.createCell(1).setCellValue(summary.count());
+        return sheet;
     }
 
-    private static void addDetailsToExcel(Workbook workbook, List<Expense> expenses) {
+    /**
+     * Acrescenta os totais por categoria ao resumo. A aba tem poucas linhas, que continuam na
+     * janela do SXSSF enquanto os detalhes são gravados.
+     */
+    private static void addCategoryTotalsToExcel(Sheet sheet, ExcelStyles styles, CategoryTotals totals) {
+        Row headerRow = sheet.createRow(SUMMARY_CATEGORY_ROW);
+        String[] headers = {"Categoria", "Total", "Quantidade"};
+        for (int i = 0; i < headers.length; i++) {
+            Cell cell = headerRow.createCell(i);
+            cell.setCellValue(headers[i]);
+            cell.setCellStyle(styles.header);
+        }
+
+        int rowNum = SUMMARY_CATEGORY_ROW + 1;
+        for (int index : totals.indexesByTotal()) {
+            Row row = sheet.createRow(rowNum++);
+            row.createCell(0).setCellValue(totals.label(index));
+            Cell totalCell = row.createCell(1);
+            totalCell.setCellValue(totals.cents(index) / 100.0);
+            totalCell.setCellStyle(styles.currency);
+            row.createCell(2).setCellValue(totals.count(index));
+        }
+    }
+
+    private static void addDetailsToExcel(SXSSFWorkbook workbook, ExcelStyles styles, ExpenseSource expenses,
+                                          CategoryTotals totals, long total, ProgressListener progress) {
         Sheet sheet = workbook.createSheet("Detalhes");
         sheet.setColumnWidth(0, 3000);
         sheet.setColumnWidth(1, 8000);
         sheet.setColumnWidth(2, 4000);
         sheet.setColumnWidth(3, 3000);
 
-        CellStyle headerStyle = workbook.createCellStyle();
-        org.apache.poi.ss.usermodel.Font headerFont = workbook.createFont();
-        headerFont.setBold(true);
-        headerStyle.setFont(headerFont);
-
         // Cabeçalho
         Row headerRow = sheet.createRow(0);
         String[] headers = {"Data", "Descrição", "Categoria", "Valor"};
         for (int i = 0; i < headers.length; i++) {
             Cell cell = headerRow.createCell(i);
             cell.setCellValue(headers[i]);
-            cell.setCellStyle(headerStyle);
+            cell.setCellStyle(styles.header);
         }
 
-        // Dados
-        int rowNum = 1;
-        for (Expense expense : expenses) {
+        ExcelDetailsWriter writer = new ExcelDetailsWriter(sheet, styles, totals, total, progress);
+        expenses.forEach(writer);
+        progress.onProgress(writer.rowNum - 1, total);
+    }
+
+    /**
+     * Escreve uma linha por despesa. Data e valor são gravados como números para que a
+     * planilha consiga somar e ordenar.
+     */
+    private static class ExcelDetailsWriter implements Consumer<Expense> {
+        private final Sheet sheet;
+        private final ExcelStyles styles;
+        private final CategoryTotals totals;
+        private final long total;
+        private final ProgressListener progress;
+        private int rowNum = 1;
+
+        ExcelDetailsWriter(Sheet sheet, ExcelStyles styles, CategoryTotals totals, long total,
+                           ProgressListener progress) {
+            this.sheet = sheet;
+            this.styles = styles;
+            this.totals = totals;
+            this.total = total;
+            this.progress = progress;
+        }
+
+        @Override
+        public void accept(Expense expense) {
             Row row = sheet.createRow(rowNum++);
-            row.createCell(0).setCellValue(expense.getDate().format(DATE_FORMATTER));
+
+            Cell dateCell = row.createCell(0);
+            dateCell.setCellValue(expense.getDate());
+            dateCell.setCellStyle(styles.date);
+
             row.createCell(1).setCellValue(expense.getDescription());
-            row.createCell(2).setCellValue(expense.getCategoryId().toString()); // TODO: Converter para nome da categoria
-            row.createCell(3).setCellValue(String.format("R$ %.2f", expense.getAmount()));
+            row.createCell(2).setCellValue(totals.name(totals.add(expense)));
+
+            Cell amountCell = row.createCell(3);
+            amountCell.setCellValue(expense.getAmountCents() / 100.0);
+            amountCell.setCellStyle(styles.currency);
+
+            if ((rowNum - 1) % PROGRESS_INTERVAL == 0) {
+                progress.onProgress(rowNum - 1, total);
+            }
+        }
+    }
+
+    /**
+     * Cria gráficos nativos do Excel sobre uma tabela compacta de totais por categoria, mês e
+     * dia, em vez de apontá-los para as linhas de detalhe.
+     */
+    private static void addChartsToExcel(XSSFWorkbook workbook, ExcelStyles styles, ChartData charts) {
+        XSSFSheet sheet = workbook.createSheet(CHARTS_SHEET);
+        for (int column : new int[] {0, 3, 6}) {
+            sheet.setColumnWidth(column, 5000);
+            sheet.setColumnWidth(column + 1, 4000);
+        }
+
+        List<String> categoryLabels = new ArrayList<>();
+        List<Long> categoryValues = new ArrayList<>();
+        for (ChartData.Slice slice : charts.categories()) {
+            categoryLabels.add(slice.label());
+            categoryValues.add(slice.cents());
         }
+        List<String> monthLabels = new ArrayList<>();
+        charts.months().keySet().forEach(month -> monthLabels.add(month.format(MONTH_FORMATTER)));
+        List<String> dayLabels = new ArrayList<>();
+        charts.continuousDays().keySet().forEach(day -> dayLabels.add(day.format(DATE_FORMATTER)));
+
+        int categoryRows = writeAggregateColumns(sheet, styles, 0, "Categoria", categoryLabels, categoryValues);
+        int monthRows = writeAggregateColumns(sheet, styles, 3, "Mês", monthLabels,
+            new ArrayList<>(charts.months().values()));
+        int dayRows = writeAggregateColumns(sheet, styles, 6, "Dia", dayLabels,
+            new ArrayList<>(charts.continuousDays().values()));
+
+        XSSFDrawing drawing = sheet.createDrawingPatriarch();
+
+        XSSFChart pie = drawing.createChart(drawing.createAnchor(0, 0, 0, 0, 9, 0, 19, 20));
+        pie.setTitleText("Despesas por categoria");
+        pie.setTitleOverlay(false);
+        pie.getOrAddLegend().setPosition(LegendPosition.RIGHT);
+        XDDFChartData pieData = pie.createData(ChartTypes.PIE, null, null);
+        pieData.setVaryColors(true);
+        pieData.addSeries(labels(sheet, 0, categoryRows), values(sheet, 1, categoryRows)).setTitle("Total", null);
+        pie.plot(pieData);
+
+        XSSFChart monthly = drawing.createChart(drawing.createAnchor(0, 0, 0, 0, 9, 21, 19, 41));
+        monthly.setTitleText("Despesas por mês");
+        monthly.setTitleOverlay(false);
+        XDDFCategoryAxis monthAxis = monthly.createCategoryAxis(AxisPosition.BOTTOM);
+        XDDFValueAxis monthValues = monthly.createValueAxis(AxisPosition.LEFT);
+        monthValues.setCrosses(AxisCrosses.AUTO_ZERO);
+        XDDFBarChartData barData = (XDDFBarChartData) monthly.createData(ChartTypes.BAR, monthAxis, monthValues);
+        barData.setBarDirection(BarDirection.COL);
+        barData.addSeries(labels(sheet, 3, monthRows), values(sheet, 4, monthRows)).setTitle("Total", null);
+        monthly.plot(barData);
+
+        XSSFChart daily = drawing.createChart(drawing.createAnchor(0, 0, 0, 0, 9, 42, 19, 62));
+        daily.setTitleText("Despesas por dia");
+        daily.setTitleOverlay(false);
+        XDDFCategoryAxis dayAxis = daily.createCategoryAxis(AxisPosition.BOTTOM);
+        XDDFValueAxis dayValues = daily.createValueAxis(AxisPosition.LEFT);
+        dayValues.setCrosses(AxisCrosses.AUTO_ZERO);
+        XDDFLineChartData lineData = (XDDFLineChartData) daily.createData(ChartTypes.LINE, dayAxis, dayValues);
+        XDDFLineChartData.Series lineSeries = (XDDFLineChartData.Series)
+            lineData.addSeries(labels(sheet, 6, dayRows), values(sheet, 7, dayRows));
+        lineSeries.setTitle("Total", null);
+        lineSeries.setMarkerStyle(MarkerStyle.NONE);
+        lineSeries.setSmooth(false);
+        daily.plot(lineData);
+    }
+
+    /**
+     * Escreve um par de colunas rótulo/valor a partir da linha 0 e devolve a quantidade de valores.
+     */
+    private static int writeAggregateColumns(Sheet sheet, ExcelStyles styles, int column, String header,
+                                             List<String> labels, List<Long> cents) {
+        Row headerRow = row(sheet, 0);
+        Cell labelHeader = headerRow.createCell(column);
+        labelHeader.setCellValue(header);
+        labelHeader.setCellStyle(styles.header);
+        Cell valueHeader = headerRow.createCell(column + 1);
+        valueHeader.setCellValue("Total");
+        valueHeader.setCellStyle(styles.header);
+
+        for (int i = 0; i < labels.size(); i++) {
+            Row row = row(sheet, i + 1);
+            row.createCell(column).setCellValue(labels.get(i));
+            Cell value = row.createCell(column + 1);
+            value.setCellValue(cents.get(i) / 100.0);
+            value.setCellStyle(styles.currency);
+        }
+        return labels.size();
+    }
+
+    private static Row row(Sheet sheet, int index) {
+        Row row = sheet.getRow(index);
+        return row != null ? row : sheet.createRow(index);
+    }
+
+    private static XDDFDataSource<String> labels(XSSFSheet sheet, int column, int rows) {
+        return XDDFDataSourcesFactory.fromStringCellRange(sheet, new CellRangeAddress(1, rows, column, column));
     }
 
-    private static void addChartsToExcel(Workbook workbook, List<Expense> expenses) {
-        // TODO: Implementar geração de gráficos no Excel
-        Sheet sheet = workbook.createSheet("Gráficos");
-        Row row = sheet.createRow(0);
-        row.createCell(0).setCellValue("Esta seção será implementada em uma versão futura.");
+    private static XDDFNumericalDataSource<Double> values(XSSFSheet sheet, int column, int rows) {
+        return XDDFDataSourcesFactory.fromNumericCellRange(sheet, new CellRangeAddress(1, rows, column, column));
     }
 }
@@ -0,0 +1,103 @@
+package com.expenses.util;
+
+import javafx.animation.PauseTransition;
+import javafx.util.Duration;
+
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Caminho entre os controles de filtro de uma tela e a consulta que eles disparam.
+ * <p>
+ * Cada mudança de controle chama {@link #submit}; a consulta só é disparada quando os
+ * controles ficam parados por {@link #DEFAULT_DELAY}, então trocar várias datas ou um preset
+ * que altera dois campos gera uma consulta só. Um filtro igual ao último aplicado é ignorado,
+ * a não ser que a consulta dele tenha falhado ({@link #failed}).
+ * Quem aplica o filtro deve usar um {@code DataService.Channel}, que cancela a consulta
+ * anterior ainda em andamento. Deve ser usado na thread da interface.
+ */
+public class FilterPipeline<F> {
+    public static final Duration DEFAULT_DELAY = Duration.millis(250);
+
+    private final Consumer<F> apply;
+    private final PauseTransition debounce;
+    private F pending;
+    private F applied;
+
+    public FilterPipeline(Consumer<F> apply) {
+        this(DEFAULT_DELAY, apply);
+    }
+
+    public FilterPipeline(Duration delay, Consumer<F> apply) {
+        this.apply = apply;
+        this.debounce = new PauseTransition(delay);
+        this.debounce.setOnFinished(e -> flush());
+    }
+
+    /**
+     * Agenda o filtro para depois do intervalo, substituindo o que estiver pendente.
+     */
+    public void submit(F filter) {
+        if (filter == null) {
+            return;
+        }
+        if (Objects.equals(filter, applied)) {
+            // Voltou ao filtro já exibido antes do intervalo acabar
+            debounce.stop();
+            pending = null;
+            return;
+        }
+        pending = filter;
+        debounce.playFromStart();
+    }
+
+    /**
+     * Aplica o filtro imediatamente, descartando o pendente, se for diferente do último aplicado.
+     */
+    public void submitNow(F filter) {
+        debounce.stop();
+        pending = null;
+        if (filter != null && !Objects.equals(filter, applied)) {
+            applyFilter(filter);
+        }
+    }
+
+    /**
+     * Aplica o filtro mesmo que seja igual ao último, para quando os dados mudaram.
+     */
+    public void reload(F filter) {
+        debounce.stop();
+        pending = null;
+        if (filter != null) {
+            applyFilter(filter);
+        }
+    }
+
+    /**
+     * Informa que a consulta de {@code filter} falhou ou foi cancelada sem ser substituída, para
+     * que um novo envio do mesmo filtro seja aplicado em vez de ignorado.
+     */
+    public void failed(F filter) {
+        if (Objects.equals(filter, applied)) {
+            applied = null;
+        }
+    }
+
+    public void cancel() {
+        debounce.stop();
+        pending = null;
+    }
+
+    private void flush() {
+        F filter = pending;
+        pending = null;
+        if (filter != null && !Objects.equals(filter, applied)) {
+            applyFilter(filter);
+        }
+    }
+
+    private void applyFilter(F filter) {
+        applied = filter;
+        apply.accept(filter);
+    }
+}
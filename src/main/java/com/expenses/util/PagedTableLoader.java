@@ -0,0 +1,109 @@
+package com.expenses.util;
+
+import com.expenses.dao.Page;
+import com.expenses.service.DataService;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.control.TableView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * Carrega as linhas de uma {@link TableView} em páginas, buscando a próxima
+ * página quando o usuário rola perto do fim da tabela.
+ * <p>
+ * As páginas são buscadas pelo {@link DataService}; um {@link #reload()} descarta
+ * a página que ainda estiver sendo carregada.
+ */
+public class PagedTableLoader<T> {
+    private static final Logger logger = LoggerFactory.getLogger(PagedTableLoader.class);
+    private static final double PREFETCH_THRESHOLD = 0.85;
+
+    private final TableView<T> table;
+    private final int pageSize;
+    private final BiFunction<T, Integer, Page<T>> fetcher;
+    private final ObservableList<T> items = FXCollections.observableArrayList();
+    private final DataService.Channel channel = DataService.getInstance().channel();
+    private Consumer<Throwable> onError = error -> {};
+
+    private boolean hasMore;
+    private boolean loading;
+    private ScrollBar verticalBar;
+
+    /**
+     * @param fetcher recebe o último item carregado (ou {@code null}) e o tamanho da página
+     */
+    public PagedTableLoader(TableView<T> table, int pageSize, BiFunction<T, Integer, Page<T>> fetcher) {
+        this.table = table;
+        this.pageSize = pageSize;
+        this.fetcher = fetcher;
+
+        table.setItems(items);
+        table.skinProperty().addListener((obs, oldSkin, newSkin) -> attachScrollListener());
+        attachScrollListener();
+    }
+
+    /**
+     * Descarta as linhas carregadas e busca a primeira página novamente.
+     */
+    public void reload() {
+        channel.cancel();
+        loading = false;
+        items.clear();
+        hasMore = true;
+        loadNextPage();
+        table.scrollTo(0);
+    }
+
+    public void loadNextPage() {
+        if (loading || !hasMore) {
+            return;
+        }
+
+        loading = true;
+        T last = items.isEmpty() ? null : items.get(items.size() - 1);
+        channel.submit(() -> fetcher.apply(last, pageSize),
+            page -> {
+                loading = false;
+                items.addAll(page.items());
+                hasMore = page.hasMore();
+                logger.debug("Loaded page with {} rows ({} total, more: {})", page.items().size(), items.size(), hasMore);
+            },
+            error -> {
+                loading = false;
+                hasMore = false;
+                onError.accept(error);
+            });
+    }
+
+    public void setOnError(Consumer<Throwable> onError) {
+        this.onError = onError;
+    }
+
+    public ObservableList<T> getItems() {
+        return items;
+    }
+
+    private void attachScrollListener() {
+        if (verticalBar != null || table.getSkin() == null) {
+            return;
+        }
+        for (Node node : table.lookupAll(".scroll-bar")) {
+            if (node instanceof ScrollBar bar && bar.getOrientation() == Orientation.VERTICAL) {
+                verticalBar = bar;
+                bar.valueProperty().addListener((obs, oldValue, newValue) -> {
+                    if (newValue.doubleValue() >= bar.getMax() * PREFETCH_THRESHOLD) {
+                        loadNextPage();
+                    }
+                });
+                return;
+            }
+        }
+    }
+}
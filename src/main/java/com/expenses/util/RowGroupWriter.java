@@ -0,0 +1,194 @@
+package com.expenses.util;
+
+import com.expenses.model.Expense;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+/**
+ * Base dos exportadores de dados (CSV e colunar).
+ * <p>
+ * As despesas chegam uma a uma, na thread que lê o banco, e são separadas em grupos de
+ * {@link #ROW_GROUP_SIZE} linhas guardadas em arrays por coluna. Cada grupo completo é
+ * codificado no {@link ForkJoinPool#commonPool()}, em paralelo com a leitura e com os
+ * outros grupos; os resultados são gravados na ordem original por um buffer direto grande
+ * num {@link FileChannel}. Além do grupo sendo preenchido, no máximo {@link #MAX_PENDING}
+ * grupos ficam em memória, independente do número de núcleos, para que a memória do export
+ * continue limitada mesmo em máquinas grandes.
+ * A categoria de cada linha é guardada como o índice no {@link CategoryDictionary} do job.
+ */
+abstract class RowGroupWriter implements Consumer<Expense>, Closeable {
+    static final int ROW_GROUP_SIZE = 65_536;
+    static final int MAX_PENDING = 4;
+    private static final int WRITE_BUFFER_SIZE = 4 * 1024 * 1024;
+
+    /**
+     * Um grupo de linhas em formato de colunas.
+     */
+    static final class RowGroup {
+        final long[] ids;
+        final long[] epochDays;
+        final long[] cents;
+        final int[] categories;
+        final String[] descriptions;
+        int size;
+
+        RowGroup(int capacity) {
+            ids = new long[capacity];
+            epochDays = new long[capacity];
+            cents = new long[capacity];
+            categories = new int[capacity];
+            descriptions = new String[capacity];
+        }
+
+        boolean isFull() {
+            return size == ids.length;
+        }
+    }
+
+    private record Encoded(int rows, ByteSink bytes) {}
+
+    private final FileChannel channel;
+    private final ByteBuffer writeBuffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+    private final Deque<CompletableFuture<Encoded>> pending = new ArrayDeque<>();
+    private final int maxPending = Math.min(MAX_PENDING, Math.max(2, ForkJoinPool.getCommonPoolParallelism()));
+    protected final CategoryDictionary dictionary;
+    private final long total;
+    private final ExportUtil.ProgressListener progress;
+
+    private RowGroup current;
+    private long position;
+    private long rowsWritten;
+
+    RowGroupWriter(Path file, CategoryDictionary dictionary, long total, ExportUtil.ProgressListener progress)
+        throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING);
+        this.dictionary = dictionary;
+        this.total = total;
+        this.progress = progress;
+    }
+
+    /**
+     * Codifica um grupo. Roda em paralelo em threads do pool comum, então só pode ler o grupo
+     * e o dicionário, que é imutável.
+     */
+    protected abstract ByteSink encode(RowGroup group);
+
+    /**
+     * Chamado na thread de gravação antes dos bytes de cada grupo.
+     */
+    protected void beforeGroup(long offset, int rows) {}
+
+    /**
+     * Chamado depois do último grupo, para gravar rodapés.
+     */
+    protected void writeFooter() throws IOException {}
+
+    @Override
+    public void accept(Expense expense) {
+        if (current == null) {
+            current = new RowGroup(ROW_GROUP_SIZE);
+        }
+        int row = current.size++;
+        current.ids[row] = expense.getId();
+        current.epochDays[row] = expense.getDate().toEpochDay();
+        current.cents[row] = expense.getAmountCents();
+        current.categories[row] = dictionary.indexOf(expense.getCategoryId());
+        current.descriptions[row] = expense.getDescription() != null ? expense.getDescription() : "";
+
+        if (current.isFull()) {
+            submitCurrent();
+        }
+    }
+
+    /**
+     * Grava os grupos restantes e o rodapé. Deve ser chamado depois da última despesa.
+     */
+    public void finish() throws IOException {
+        if (current != null && current.size > 0) {
+            submitCurrent();
+        }
+        while (!pending.isEmpty()) {
+            writeNext();
+        }
+        writeFooter();
+        flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    protected long position() {
+        return position;
+    }
+
+    protected void write(ByteSink sink) throws IOException {
+        write(sink.array(), 0, sink.size());
+    }
+
+    protected void write(byte[] bytes, int offset, int length) throws IOException {
+        while (length > 0) {
+            if (!writeBuffer.hasRemaining()) {
+                flush();
+            }
+            int chunk = Math.min(length, writeBuffer.remaining());
+            writeBuffer.put(bytes, offset, chunk);
+            offset += chunk;
+            length -= chunk;
+            position += chunk;
+        }
+    }
+
+    private void flush() throws IOException {
+        writeBuffer.flip();
+        while (writeBuffer.hasRemaining()) {
+            channel.write(writeBuffer);
+        }
+        writeBuffer.clear();
+    }
+
+    private void submitCurrent() {
+        RowGroup group = current;
+        current = null;
+        pending.add(CompletableFuture.supplyAsync(() -> new Encoded(group.size, encode(group)),
+            ForkJoinPool.commonPool()));
+
+        while (pending.size() >= maxPending) {
+            try {
+                writeNext();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void writeNext() throws IOException {
+        Encoded encoded;
+        try {
+            encoded = pending.poll().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw e;
+        }
+        beforeGroup(position, encoded.rows());
+        write(encoded.bytes());
+        rowsWritten += encoded.rows();
+        progress.onProgress(rowsWritten, total);
+    }
+}
@@ -0,0 +1,39 @@
+package com.expenses.util;
+
+import javafx.application.Platform;
+
+import java.util.function.Consumer;
+
+/**
+ * Junta atualizações de tela que chegam em sequência rápida e aplica só a mais recente.
+ * <p>
+ * {@link #submit} guarda o valor e agenda uma única aplicação para a próxima volta da thread
+ * da interface; valores enviados antes dela substituem o anterior. Deve ser usado na thread
+ * da interface.
+ */
+public final class UpdateCoalescer<T> {
+    private final Consumer<T> apply;
+    private T pending;
+    private boolean scheduled;
+
+    public UpdateCoalescer(Consumer<T> apply) {
+        this.apply = apply;
+    }
+
+    public void submit(T value) {
+        pending = value;
+        if (!scheduled) {
+            scheduled = true;
+            Platform.runLater(this::flush);
+        }
+    }
+
+    private void flush() {
+        scheduled = false;
+        T value = pending;
+        pending = null;
+        if (value != null) {
+            apply.accept(value);
+        }
+    }
+}
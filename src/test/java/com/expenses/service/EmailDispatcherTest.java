@@ -0,0 +1,261 @@
+package com.expenses.service;
+
+import com.expenses.config.DatabaseConfig;
+import com.expenses.config.StorageProfile;
+import com.expenses.dao.EmailOutboxDAO;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Envio da fila email_outbox contra um servidor SMTP mínimo rodando no próprio processo.
+ */
+class EmailDispatcherTest {
+    @TempDir
+    static Path tempDir;
+
+    private final EmailOutboxDAO outboxDAO = new EmailOutboxDAO();
+    private SmtpStub smtp;
+    private EmailDispatcher dispatcher;
+
+    @BeforeAll
+    static void initDatabase() throws IOException {
+        Path config = tempDir.resolve("test.properties");
+        Files.writeString(config, "db.path=" + tempDir.resolve("test.db").toString().replace('\\', '/') + "\n");
+        System.setProperty(StorageProfile.CONFIG_PROPERTY, config.toString());
+        DatabaseConfig.initDatabase();
+    }
+
+    @AfterAll
+    static void closeDatabase() {
+        DatabaseConfig.shutdown();
+        System.clearProperty(StorageProfile.CONFIG_PROPERTY);
+    }
+
+    @BeforeEach
+    void startServer() throws Exception {
+        execute("DELETE FROM email_outbox");
+        smtp = new SmtpStub();
+        dispatcher = EmailDispatcher.manual(settings(smtp.port()));
+    }
+
+    @AfterEach
+    void stopServer() throws Exception {
+        dispatcher.stop();
+        smtp.close();
+        execute("DROP TRIGGER IF EXISTS fail_mark_sent");
+    }
+
+    @Test
+    void sendsBatchOverOneConnection() throws Exception {
+        long first = outboxDAO.enqueue("a@example.com", "Assunto", "<p>1</p>");
+        long second = outboxDAO.enqueue("b@example.com", "Assunto", "<p>2</p>");
+        long third = outboxDAO.enqueue("c@example.com", "Assunto", "<p>3</p>");
+
+        assertEquals(3, dispatcher.drain());
+
+        assertEquals(3, smtp.messages.size());
+        assertEquals(1, smtp.connections.get());
+        for (long id : List.of(first, second, third)) {
+            assertEquals("SENT", status(id));
+        }
+    }
+
+    @Test
+    void clearsBodyAfterSending() throws Exception {
+        long sent = outboxDAO.enqueue("a@example.com", "Assunto", "<a href=\"app://reset?token=segredo\">link</a>");
+        smtp.rejected.add("nobody@example.com");
+        long rejected = outboxDAO.enqueue("nobody@example.com", "Assunto", "<a href=\"app://reset?token=outro\">link</a>");
+
+        assertEquals(1, dispatcher.drain());
+
+        assertTrue(smtp.messages.get(0).contains("segredo"));
+        assertEquals("", column(sent, "body"));
+        assertEquals("", column(rejected, "body"));
+    }
+
+    @Test
+    void reschedulesWhenServerIsDown() throws Exception {
+        long id = outboxDAO.enqueue("a@example.com", "Assunto", "<p>1</p>");
+        smtp.close();
+
+        assertEquals(0, dispatcher.drain());
+
+        assertEquals("PENDING", status(id));
+        assertEquals(1, attempts(id));
+        assertTrue(nextAttemptAt(id) > System.currentTimeMillis());
+    }
+
+    @Test
+    void givesUpOnRejectedRecipient() throws Exception {
+        smtp.rejected.add("nobody@example.com");
+        long rejected = outboxDAO.enqueue("nobody@example.com", "Assunto", "<p>1</p>");
+        long accepted = outboxDAO.enqueue("a@example.com", "Assunto", "<p>2</p>");
+
+        assertEquals(1, dispatcher.drain());
+
+        assertEquals("FAILED", status(rejected));
+        assertEquals("SENT", status(accepted));
+        assertEquals(1, smtp.messages.size());
+    }
+
+    @Test
+    void retriesMarkSentWithoutResending() throws Exception {
+        execute("""
+            CREATE TRIGGER fail_mark_sent BEFORE UPDATE OF status ON email_outbox
+            WHEN NEW.status = 'SENT'
+            BEGIN SELECT RAISE(ABORT, 'disk I/O error'); END
+        """);
+        long first = outboxDAO.enqueue("a@example.com", "Assunto", "<p>1</p>");
+        long second = outboxDAO.enqueue("b@example.com", "Assunto", "<p>2</p>");
+
+        // A marcação falha depois da entrega e a passada para antes da segunda mensagem
+        assertEquals(1, dispatcher.drain());
+        assertEquals(1, smtp.messages.size());
+        assertEquals(0, dispatcher.drain());
+        assertEquals(1, smtp.messages.size());
+
+        execute("DROP TRIGGER fail_mark_sent");
+        execute("UPDATE email_outbox SET next_attempt_at = 0");
+        assertEquals(1, dispatcher.drain());
+
+        assertEquals("SENT", status(first));
+        assertEquals("SENT", status(second));
+        assertEquals(2, smtp.messages.size());
+    }
+
+    private static MailSettings settings(int port) {
+        return MailSettings.builder()
+            .host("localhost")
+            .port(port)
+            .startTls(false)
+            .from("noreply@myexpenses.com")
+            .build();
+    }
+
+    private static void execute(String sql) throws SQLException {
+        try (Connection conn = DatabaseConfig.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+
+    private static String status(long id) throws SQLException {
+        return column(id, "status");
+    }
+
+    private static int attempts(long id) throws SQLException {
+        return Integer.parseInt(column(id, "attempts"));
+    }
+
+    private static long nextAttemptAt(long id) throws SQLException {
+        return Long.parseLong(column(id, "next_attempt_at"));
+    }
+
+    private static String column(long id, String column) throws SQLException {
+        try (Connection conn = DatabaseConfig.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT " + column + " FROM email_outbox WHERE id = ?")) {
+            stmt.setLong(1, id);
+            try (ResultSet rs = stmt.executeQuery()) {
+                assertTrue(rs.next(), "message " + id + " not found");
+                return rs.getString(1);
+            }
+        }
+    }
+
+    /**
+     * Servidor SMTP que aceita tudo, exceto os destinatários em {@link #rejected}, e guarda o
+     * corpo de cada mensagem recebida.
+     */
+    private static class SmtpStub implements AutoCloseable {
+        final List<String> messages = new CopyOnWriteArrayList<>();
+        final List<String> rejected = new CopyOnWriteArrayList<>();
+        final AtomicInteger connections = new AtomicInteger();
+        private final ServerSocket server;
+
+        SmtpStub() throws IOException {
+            server = new ServerSocket(0);
+            Thread thread = new Thread(this::accept, "smtp-stub");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        int port() {
+            return server.getLocalPort();
+        }
+
+        private void accept() {
+            while (!server.isClosed()) {
+                try (Socket socket = server.accept()) {
+                    connections.incrementAndGet();
+                    converse(socket);
+                } catch (IOException e) {
+                    // Servidor fechado ou cliente desconectou
+                }
+            }
+        }
+
+        private void converse(Socket socket) throws IOException {
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+            reply(out, "220 localhost ESMTP stub");
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.toUpperCase();
+                if (command.startsWith("RCPT TO:")) {
+                    boolean refused = rejected.stream().anyMatch(address -> line.contains("<" + address + ">"));
+                    reply(out, refused ? "550 No such user" : "250 OK");
+                } else if (command.equals("DATA")) {
+                    reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                    StringBuilder body = new StringBuilder();
+                    String data;
+                    while ((data = in.readLine()) != null && !data.equals(".")) {
+                        body.append(data).append('\n');
+                    }
+                    messages.add(body.toString());
+                    reply(out, "250 OK");
+                } else if (command.equals("QUIT")) {
+                    reply(out, "221 Bye");
+                    return;
+                } else {
+                    // EHLO, HELO, MAIL FROM, RSET e NOOP
+                    reply(out, "250 OK");
+                }
+            }
+        }
+
+        private static void reply(PrintWriter out, String line) {
+            out.print(line + "\r\n");
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            server.close();
+        }
+    }
+}